@@ -0,0 +1,97 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+
+/**
+ * Runs the complete TransferDemo scenario with a varying number of concurrent
+ * transfers. The demo's own timing output is suppressed during the
+ * benchmark.
+ *
+ * @author "agent, (c) 2026"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransferBenchmark {
+	@Param({ "100", "1000", "10000" })
+	public int transfers;
+
+	/**
+	 * The number of repositories the transfers are spread across
+	 */
+	@Param({ "3", "30" })
+	public int repositories;
+
+	private PrintStream originalOut;
+
+	@Setup(Level.Trial)
+	public void silence() {
+		originalOut = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(final int b) {
+				// discarded
+			}
+		}));
+	}
+
+	@TearDown(Level.Trial)
+	public void restore() {
+		System.setOut(originalOut);
+	}
+
+	@Setup(Level.Invocation)
+	public void prepare() {
+		Timed.resetTimed();
+		TransferDemo.completeCount = 0;
+	}
+
+	@Benchmark
+	public int transfer() throws Exception {
+		TransferDemo.main(new String[] { transfers + "/" + repositories });
+		return TransferDemo.completeCount;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.List;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.random.RepetitiveRandomTraceGenerator;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.SchedulingDependentMachines;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
+
+/**
+ * Prepares the clouds and the traces of the benchmarks the same way as
+ * JobDispatchingDemo does. As the simulator has a single global clock, every
+ * scenario starts with resetting it.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class BenchmarkScenario {
+	/**
+	 * Builds a fresh set of clouds and waits until their PM controllers
+	 * finish their initial activities.
+	 *
+	 * @param nodes
+	 *            the total number of PMs
+	 * @param cores
+	 *            the number of cores per PM
+	 * @param clouds
+	 *            the number of clouds the PMs are equally split to
+	 */
+	public static List<IaaSService> clouds(final int nodes, final int cores, final int clouds) throws Exception {
+		Timed.resetTimed();
+		final List<IaaSService> iaasList = new DatacenterBuilder(nodes / clouds, cores, clouds,
+				FirstFitScheduler.class, SchedulingDependentMachines.class).build();
+		Timed.simulateUntilLastEvent();
+		return iaasList;
+	}
+
+	/**
+	 * Creates a random trace with the generic trace characteristics of
+	 * JobDispatchingDemo (e.g., 2/10/10/90/200/200/1/2/4).
+	 *
+	 * @param jobs
+	 *            the number of jobs in the trace
+	 * @param spec
+	 *            the trace characteristics, the total number of processors
+	 *            usable by the parallel jobs is set to the capacity of the
+	 *            clouds if it is left out
+	 * @param iaasList
+	 *            the clouds the trace will be executed on
+	 */
+	public static GenericTraceProducer trace(final int jobs, final String spec, final List<IaaSService> iaasList)
+			throws Exception {
+		final String[] params = spec.split("/");
+		int maxTotalProcs = 0;
+		for (IaaSService iaas : iaasList) {
+			maxTotalProcs += iaas.getCapacities().getRequiredCPUs();
+		}
+		final RepetitiveRandomTraceGenerator trgen = new RepetitiveRandomTraceGenerator(DCFJob.class);
+		trgen.setJobNum(jobs);
+		trgen.setParallel(Integer.parseInt(params[0]));
+		trgen.setMaxStartSpread(Integer.parseInt(params[1]));
+		trgen.setExecmin(Integer.parseInt(params[2]));
+		trgen.setExecmax(Integer.parseInt(params[3]));
+		trgen.setMingap(Integer.parseInt(params[4]));
+		trgen.setMaxgap(Integer.parseInt(params[5]));
+		trgen.setMinNodeProcs(Integer.parseInt(params[6]));
+		trgen.setMaxNodeprocs(Integer.parseInt(params[7]));
+		trgen.setMaxTotalProcs(params.length > 8 ? Integer.parseInt(params[8]) : maxTotalProcs);
+		return trgen;
+	}
+}
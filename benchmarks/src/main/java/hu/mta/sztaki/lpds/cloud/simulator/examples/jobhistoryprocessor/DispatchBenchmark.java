@@ -0,0 +1,89 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+
+/**
+ * Measures how quickly MultiIaaSJobDispatcher processes a trace of
+ * overlapping jobs (i.e., the dispatch throughput when many jobs compete for
+ * the clouds). The clouds and the dispatcher are prepared outside of the
+ * measurement, so only the simulation of the trace is measured.
+ *
+ * @author "agent, (c) 2026"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DispatchBenchmark {
+	@Param({ "100", "1000" })
+	public int nodes;
+
+	@Param({ "1000", "10000" })
+	public int jobs;
+
+	/**
+	 * The trace characteristics (see JobDispatchingDemo), the total processor
+	 * count is the capacity of the clouds
+	 */
+	@Param({ "100/10/10/90/20/20/1/32" })
+	public String trace;
+
+	@Param({ "1", "4" })
+	public int clouds;
+
+	private MultiIaaSJobDispatcher dispatcher;
+
+	@Setup(Level.Invocation)
+	public void prepare() throws Exception {
+		final List<IaaSService> iaasList = BenchmarkScenario.clouds(nodes, 64, clouds);
+		dispatcher = new MultiIaaSJobDispatcher(BenchmarkScenario.trace(jobs, trace, iaasList), iaasList);
+		Timed.skipEventsTill(dispatcher.getMinsubmittime() * 1000);
+	}
+
+	@Benchmark
+	public long dispatchTrace() {
+		Timed.simulateUntilLastEvent();
+		return dispatcher.getDestroycounter();
+	}
+}
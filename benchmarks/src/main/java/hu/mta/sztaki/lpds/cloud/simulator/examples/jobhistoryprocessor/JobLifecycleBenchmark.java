@@ -0,0 +1,88 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+
+/**
+ * Measures the cost of the complete lifecycle of a job handled by the
+ * dispatcher's JobRunnerRegistry: requesting its VMs, waiting for them to
+ * boot, running the job's compute tasks and destroying the VMs. The jobs of
+ * the trace do not overlap, so the dispatcher never waits for free capacity,
+ * and the result divided by the number of jobs is the cost of a single
+ * lifecycle.
+ *
+ * @author "agent, (c) 2026"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JobLifecycleBenchmark {
+	@Param({ "100", "1000" })
+	public int jobs;
+
+	/**
+	 * The number of VMs every job needs (the PMs have 64 cores, so the jobs
+	 * are split to VMs with 64 cores each)
+	 */
+	@Param({ "1", "16" })
+	public int vmsPerJob;
+
+	private MultiIaaSJobDispatcher dispatcher;
+
+	@Setup(Level.Invocation)
+	public void prepare() throws Exception {
+		final List<IaaSService> iaasList = BenchmarkScenario.clouds(vmsPerJob, 64, 1);
+		// a single job at a time with an hour between the jobs
+		final int procs = vmsPerJob * 64;
+		dispatcher = new MultiIaaSJobDispatcher(
+				BenchmarkScenario.trace(jobs, "1/0/600/600/3600/3600/" + procs + "/" + procs, iaasList), iaasList);
+		Timed.skipEventsTill(dispatcher.getMinsubmittime() * 1000);
+	}
+
+	@Benchmark
+	public long runJobs() {
+		Timed.simulateUntilLastEvent();
+		return dispatcher.getDestroycounter();
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+
+/**
+ * Measures a single data collection round of the StateMonitor depending on the
+ * number of PMs it has to visit. The dispatcher of the scenario is not
+ * started, so the monitor never decides to terminate and every call does the
+ * same amount of work.
+ *
+ * @author "agent, (c) 2026"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StateMonitorBenchmark {
+	@Param({ "100", "1000", "10000" })
+	public int nodes;
+
+	@Param({ "1", "10" })
+	public int clouds;
+
+	private StateMonitor monitor;
+	private File output;
+
+	/**
+	 * The monitor keeps every collected record, so it is recreated for every
+	 * iteration to keep its memory use bounded
+	 */
+	@Setup(Level.Iteration)
+	public void prepare() throws Exception {
+		final List<IaaSService> iaasList = BenchmarkScenario.clouds(nodes, 64, clouds);
+		final MultiIaaSJobDispatcher dispatcher = new MultiIaaSJobDispatcher(
+				BenchmarkScenario.trace(1, "1/0/10/10/10/10/1/1", iaasList), iaasList);
+		output = File.createTempFile("statemonitor", "");
+		monitor = new StateMonitor(output.getPath(), dispatcher, iaasList, 300000);
+	}
+
+	@TearDown(Level.Iteration)
+	public void cleanup() {
+		new File(output.getPath() + ".converted").delete();
+		output.delete();
+	}
+
+	@Benchmark
+	public void collect() {
+		monitor.tick(Timed.getFireCount());
+	}
+}
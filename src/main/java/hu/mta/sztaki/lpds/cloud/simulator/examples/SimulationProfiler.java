@@ -0,0 +1,168 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Allows the examples to profile their simulation phase with Java Flight
+ * Recorder. The recording only covers the part of the run between the start
+ * and stop calls (i.e., the JVM startup and the setup of the simulation are
+ * not included), and it is written to a file when the profiling stops.
+ *
+ * The examples can be compiled for Java 7, thus the flight recorder specific
+ * implementation (JFRSimulationProfiler) is only compiled with the jfr maven
+ * profile (which is active on Java 11 and later). If the implementation is not
+ * available, then profiling requests are ignored with a warning.
+ *
+ * The static event methods are meant to be called from the simulation, they
+ * do nothing unless a profiling session is active.
+ *
+ * @author "agent, (c) 2026"
+ */
+public abstract class SimulationProfiler {
+	private static final String implementation = "hu.mta.sztaki.lpds.cloud.simulator.examples.JFRSimulationProfiler";
+
+	/**
+	 * The active profiler, <code>null</code> if there is no profiling
+	 */
+	private static SimulationProfiler current = null;
+
+	/**
+	 * Starts the recording
+	 */
+	protected abstract void begin() throws IOException;
+
+	/**
+	 * Stops the recording and writes it out
+	 *
+	 * @param output
+	 *            the file to write the recording to
+	 */
+	protected abstract void end(File output) throws IOException;
+
+	/**
+	 * @return an object representing the tick in the recording
+	 */
+	protected abstract Object tickBegins();
+
+	protected abstract void tickEnds(Object tick, long simTime, int dispatchedJobs);
+
+	/**
+	 * @return an object representing the VM request in the recording
+	 */
+	protected abstract Object vmRequestBegins();
+
+	protected abstract void vmRequestEnds(Object request, int cloud, int vms, double cores, int queueLength);
+
+	protected abstract void jobCompleted(String jobId, int vms, long simTime);
+
+	private final File output;
+
+	protected SimulationProfiler(final File output) {
+		this.output = output;
+	}
+
+	/**
+	 * Starts a new profiling session if the flight recorder based
+	 * implementation is available.
+	 *
+	 * @param output
+	 *            the file the recording will be written to
+	 * @return <code>true</code> if the profiling has started
+	 */
+	public static boolean start(final File output) {
+		if (current != null) {
+			throw new IllegalStateException("Profiling is already in progress");
+		}
+		try {
+			final SimulationProfiler profiler = (SimulationProfiler) Class.forName(implementation)
+					.getConstructor(File.class).newInstance(output);
+			profiler.begin();
+			current = profiler;
+			System.err.println("Flight recording of the simulation started");
+			return true;
+		} catch (ClassNotFoundException e) {
+			System.err.println("WARNING: profiling is not available, the examples were not compiled with the jfr profile");
+		} catch (Exception e) {
+			System.err.println("WARNING: could not start the flight recording: " + e);
+		}
+		return false;
+	}
+
+	/**
+	 * Stops the current profiling session (if there is one) and writes out
+	 * its recording
+	 */
+	public static void stop() {
+		if (current == null) {
+			return;
+		}
+		final SimulationProfiler profiler = current;
+		current = null;
+		try {
+			profiler.end(profiler.output);
+			System.err.println("Flight recording written to " + profiler.output.getAbsolutePath());
+		} catch (IOException e) {
+			System.err.println("WARNING: could not write the flight recording: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Marks the start of a dispatcher tick
+	 *
+	 * @return the token to be passed to tickFinished
+	 */
+	public static Object tickStarted() {
+		return current == null ? null : current.tickBegins();
+	}
+
+	public static void tickFinished(final Object tick, final long simTime, final int dispatchedJobs) {
+		if (tick != null && current != null) {
+			current.tickEnds(tick, simTime, dispatchedJobs);
+		}
+	}
+
+	/**
+	 * Marks the start of a VM request sent to a cloud
+	 *
+	 * @return the token to be passed to vmRequestFinished
+	 */
+	public static Object vmRequestStarted() {
+		return current == null ? null : current.vmRequestBegins();
+	}
+
+	public static void vmRequestFinished(final Object request, final int cloud, final int vms, final double cores,
+			final int queueLength) {
+		if (request != null && current != null) {
+			current.vmRequestEnds(request, cloud, vms, cores, queueLength);
+		}
+	}
+
+	public static void jobFinished(final String jobId, final int vms, final long simTime) {
+		if (current != null) {
+			current.jobCompleted(jobId, vms, simTime);
+		}
+	}
+}
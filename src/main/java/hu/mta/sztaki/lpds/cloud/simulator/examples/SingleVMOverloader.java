@@ -25,6 +25,8 @@ package hu.mta.sztaki.lpds.cloud.simulator.examples;
 
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
 import hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor.DCFJob;
+import hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor.JobDispatchingDemo;
+import hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor.LazyRandomTraceGenerator;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.JobListAnalyser;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.random.RepetitiveRandomTraceGenerator;
@@ -37,6 +39,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -53,9 +56,15 @@ import java.util.List;
  *         "Gabor Kecskemeti, Laboratory of Parallel and Distributed Systems, MTA SZTAKI (c) 2014"
  */
 public class SingleVMOverloader {
-	static int jobhits = 0;
-	static List<Job> jobs;
-	static int jobslen;
+	static long jobhits = 0;
+	/**
+	 * The jobs of the trace in the order of their submission
+	 */
+	static Iterator<Job> jobs;
+	/**
+	 * The number of jobs sent to the VM so far
+	 */
+	static long jobslen;
 	static long basetime;
 
 	public static void main(String[] args) throws Exception {
@@ -86,21 +95,39 @@ public class SingleVMOverloader {
 				+ System.currentTimeMillis());
 		// Parsing the trace characteristics for RepetitiveRandomTraceGenerator
 		String[] params = args[0].split("/");
-		RepetitiveRandomTraceGenerator trgen = new RepetitiveRandomTraceGenerator(
-				DCFJob.class);
-		trgen.setJobNum(Integer.parseInt(args[1]));
-		trgen.setParallel(Integer.parseInt(params[0]));
-		trgen.setMaxStartSpread(Integer.parseInt(params[1]));
-		trgen.setExecmin(Integer.parseInt(params[2]));
-		trgen.setExecmax(Integer.parseInt(params[3]));
-		trgen.setMingap(Integer.parseInt(params[4]));
-		trgen.setMaxgap(Integer.parseInt(params[5]));
-		trgen.setMinNodeProcs(Integer.parseInt(params[6]));
-		trgen.setMaxNodeprocs(Integer.parseInt(params[7]));
-		trgen.setMaxTotalProcs(Integer.parseInt(params[8]));
-		jobs = trgen.getAllJobs();
-		Collections.sort(jobs, JobListAnalyser.submitTimeComparator);
-		jobslen = jobs.size();
+		if (System.getProperty(JobDispatchingDemo.lazyTraceProperty) != null) {
+			// The jobs are generated on demand in the order of their submission
+			LazyRandomTraceGenerator lazygen = new LazyRandomTraceGenerator(
+					DCFJob.class, Long.getLong(
+							JobDispatchingDemo.lazyTraceProperty, 0));
+			lazygen.setJobNum(Long.parseLong(args[1]));
+			lazygen.setParallel(Integer.parseInt(params[0]));
+			lazygen.setMaxStartSpread(Integer.parseInt(params[1]));
+			lazygen.setExecmin(Integer.parseInt(params[2]));
+			lazygen.setExecmax(Integer.parseInt(params[3]));
+			lazygen.setMingap(Integer.parseInt(params[4]));
+			lazygen.setMaxgap(Integer.parseInt(params[5]));
+			lazygen.setMinNodeProcs(Integer.parseInt(params[6]));
+			lazygen.setMaxNodeprocs(Integer.parseInt(params[7]));
+			lazygen.setMaxTotalProcs(Integer.parseInt(params[8]));
+			jobs = lazygen;
+		} else {
+			RepetitiveRandomTraceGenerator trgen = new RepetitiveRandomTraceGenerator(
+					DCFJob.class);
+			trgen.setJobNum(Integer.parseInt(args[1]));
+			trgen.setParallel(Integer.parseInt(params[0]));
+			trgen.setMaxStartSpread(Integer.parseInt(params[1]));
+			trgen.setExecmin(Integer.parseInt(params[2]));
+			trgen.setExecmax(Integer.parseInt(params[3]));
+			trgen.setMingap(Integer.parseInt(params[4]));
+			trgen.setMaxgap(Integer.parseInt(params[5]));
+			trgen.setMinNodeProcs(Integer.parseInt(params[6]));
+			trgen.setMaxNodeprocs(Integer.parseInt(params[7]));
+			trgen.setMaxTotalProcs(Integer.parseInt(params[8]));
+			List<Job> jobList = trgen.getAllJobs();
+			Collections.sort(jobList, JobListAnalyser.submitTimeComparator);
+			jobs = jobList.iterator();
+		}
 		// For every job we record its completion in the jobhits. This event
 		// adapter is created so it can catch the job completion events.
 		final ConsumptionEventAdapter cae = new ConsumptionEventAdapter() {
@@ -111,19 +138,21 @@ public class SingleVMOverloader {
 		};
 		// JSender starts up the jobs on our single VM once the trace demands it
 		class JSender extends Timed {
-			int currentcount = 0;
+			/**
+			 * The next job to be sent to the VM
+			 */
+			Job nextJob = jobs.hasNext() ? jobs.next() : null;
 
 			public JSender() {
 				// Makes sure the first event will come upon the first job's
 				// arrival.
-				subscribe(getConvertedFirecount(currentcount)
-						- Timed.getFireCount());
+				subscribe(getConvertedFirecount() - Timed.getFireCount());
 			}
 
-			// Transforms job arrival times to be in the VMs lifetime
-			public long getConvertedFirecount(int count) {
-				return count >= jobslen ? -1 : jobs.get(count)
-						.getSubmittimeSecs() * 1000 + basetime;
+			// Transforms the next job's arrival time to be in the VMs lifetime
+			public long getConvertedFirecount() {
+				return nextJob == null ? -1 : nextJob.getSubmittimeSecs()
+						* 1000 + basetime;
 			}
 
 			@Override
@@ -131,14 +160,15 @@ public class SingleVMOverloader {
 				long nextSubscriptionTime;
 				do {
 					try {
-						Job j = jobs.get(currentcount);
 						// Injects a new job when its due
-						vm.newComputeTask(j.getExectimeSecs(), j.nprocs, cae);
+						vm.newComputeTask(nextJob.getExectimeSecs(),
+								nextJob.nprocs, cae);
 					} catch (Exception e) {
 						throw new IllegalStateException(e);
 					}
-					currentcount++;
-				} while ((nextSubscriptionTime = getConvertedFirecount(currentcount)) == fires);
+					jobslen++;
+					nextJob = jobs.hasNext() ? jobs.next() : null;
+				} while ((nextSubscriptionTime = getConvertedFirecount()) == fires);
 				if (nextSubscriptionTime > fires) {
 					// Calculates when the next job is going to be due and
 					// orders an event for that occasion
@@ -163,7 +193,7 @@ public class SingleVMOverloader {
 		long afterSimu = Timed.getFireCount();
 		System.err.println("Total simulated time " + (afterSimu - basetime)
 				+ " ms");
-		if (jobhits == jobs.size()) {
+		if (jobhits == jobslen) {
 			System.err.println("All jobs terminated successfully..");
 		} else {
 			System.err
@@ -30,6 +30,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 import hu.mta.sztaki.lpds.cloud.simulator.io.StorageObject;
 import hu.mta.sztaki.lpds.cloud.simulator.util.SeedSyncer;
 
+import java.io.File;
 import java.util.Calendar;
 import java.util.HashMap;
 
@@ -119,15 +120,15 @@ public class TransferDemo extends ConsumptionEventAdapter {
 	 *            size, then there will be no size randomization applied, all
 	 *            transfers will be generated with uniform size.
 	 *            </ul>
-	 *            <li>[[wait]/[verbose]]<br>
+	 *            <li>[[profile]/[verbose]]<br>
 	 *            This parameter is optional.
 	 *            <ul>
-	 *            <li>If the third parameter contains the term 'wait' then after
-	 *            the JVM launches the program, it immediately starts a 50
-	 *            second sleep allowing a profiler to be attached that will not
-	 *            evaluate JVM related activities. This delay is especially
-	 *            useful for simulations with sub second runtimes as in those
-	 *            cases the JVM's activities might bias the profiler outputs.
+	 *            <li>If the third parameter contains the term 'profile' then
+	 *            the main event loop of the simulation is recorded with Java
+	 *            Flight Recorder and the recording is written to
+	 *            TransferDemo.jfr. The recording does not include the JVM's
+	 *            startup and the preparation of the transfers, thus it is
+	 *            useful even for simulations with sub second runtimes.
 	 *            <li>If the third parameter contains the term 'verbose' then
 	 *            all kinds of useful logging information is printed on the
 	 *            program's standard output allowing the simple evaluation of
@@ -149,10 +150,9 @@ public class TransferDemo extends ConsumptionEventAdapter {
 		long fixedSize = -1; // the default transfer size comes from the
 								// StorageObject class.
 		boolean varyVASize = false;
+		boolean profile = false;
 		if (args.length > 2) {
-			if (args[2].contains("wait")) {
-				Thread.sleep(50000);
-			}
+			profile = args[2].contains("profile");
 			verbose = args[2].contains("verbose");
 		}
 		if (args.length > 1) {
@@ -258,6 +258,9 @@ public class TransferDemo extends ConsumptionEventAdapter {
 		}
 		// Doing the simulation iteratively until the completed transfer count
 		// reaches the total transfers generated.
+		if (profile) {
+			SimulationProfiler.start(new File("TransferDemo.jfr"));
+		}
 		while (completeCount != trNum) {
 			// "Manually" advancing the simulation time
 			Timed.jumpTime(Long.MAX_VALUE);
@@ -266,6 +269,7 @@ public class TransferDemo extends ConsumptionEventAdapter {
 				System.out.print("!");
 			}
 		}
+		SimulationProfiler.stop();
 		// Simulation is done, let's print some useful data
 		if (verbose) {
 			System.out
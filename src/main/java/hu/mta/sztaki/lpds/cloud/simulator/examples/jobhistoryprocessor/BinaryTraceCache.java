@@ -0,0 +1,365 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.FileBasedTraceProducerFactory;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.TraceManagementException;
+
+/**
+ * Converts workload files (e.g. gwf, swf, srtg) to a fixed width binary job
+ * format once, so later runs can read the jobs through a
+ * {@link MappedTraceProducer} instead of parsing the text file again.
+ *
+ * The cache file is placed next to the workload file (or in the temporary
+ * directory if the workload's directory is not writable) and its name contains
+ * the fingerprint of the workload file. Thus a modified workload file is
+ * converted again, as long as the modification changes its fingerprint (see
+ * {@link #fingerprint(File)}, it is only a staleness heuristic, not a hash of
+ * the complete file). The cache is written to a temporary file
+ * first and then atomically renamed, so concurrent processes either see a
+ * complete cache or no cache at all.
+ *
+ * The format of the cache file:
+ * <ul>
+ * <li>header: magic (int), version (int), number of jobs (long), offset of the
+ * dictionary (long)
+ * <li>one {@value #RECORD_SIZE} byte record per job: submit, queue and
+ * execution time (3 longs), per processor CPU time (double), per processor
+ * memory (long), delay after the preceding job (long), index of the preceding
+ * job or -1 (long), number of processors (int), dictionary index of the user,
+ * group and executable (3 ints), number of dependant jobs (int), length and
+ * UTF-8 bytes of the job id (1+{@value #MAX_ID_LENGTH} bytes)
+ * <li>dictionary: number of entries (int) followed by the entries in modified
+ * UTF-8
+ * </ul>
+ *
+ * The cache always contains the jobs of the complete workload file, job ranges
+ * are selected by the mapped producer. Jobs can be selected by time with the
+ * {@link TraceTimeIndex} of the cache.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class BinaryTraceCache {
+	static final int MAGIC = 0x44434654; // DCFT
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 24;
+	static final int MAX_ID_LENGTH = 31;
+	static final int RECORD_SIZE = 7 * 8 + 5 * 4 + 1 + MAX_ID_LENGTH;
+	/**
+	 * The position of the dependant count within a record
+	 */
+	private static final int DEPENDANTS_OFFSET = 7 * 8 + 4 * 4;
+	/**
+	 * The number of jobs fetched at once from the text based producer during
+	 * the conversion
+	 */
+	private static final int CONVERSION_CHUNK = 10000;
+	/**
+	 * The amount of bytes read from the beginning and the end of the workload
+	 * file for its fingerprint
+	 */
+	private static final int FINGERPRINT_SAMPLE = 1024 * 1024;
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	/**
+	 * Calculates the fingerprint of the workload file that tells if an
+	 * existing cache is stale. To keep the start up of the simulations fast
+	 * even for multi GB workloads, the whole file is not hashed: the
+	 * fingerprint only covers the size and the modification time of the file
+	 * as well as its first and last megabyte. Thus it is a heuristic: an edit
+	 * in the middle of the file that keeps both its size and its modification
+	 * time (e.g., a copy with preserved timestamps) is not noticed, such
+	 * caches have to be deleted by hand.
+	 *
+	 * @param traceFile
+	 *            the workload file
+	 * @return the fingerprint
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static long fingerprint(final File traceFile) throws IOException {
+		final CRC32 crc = new CRC32();
+		final long size = traceFile.length();
+		crc.update(Long.toString(size).getBytes(utf8));
+		crc.update(Long.toString(traceFile.lastModified()).getBytes(utf8));
+		final RandomAccessFile raf = new RandomAccessFile(traceFile, "r");
+		try {
+			final byte[] sample = new byte[(int) Math.min(FINGERPRINT_SAMPLE, size)];
+			raf.readFully(sample);
+			crc.update(sample);
+			if (size > sample.length) {
+				raf.seek(Math.max(sample.length, size - FINGERPRINT_SAMPLE));
+				final int len = raf.read(sample);
+				crc.update(sample, 0, Math.max(0, len));
+			}
+		} finally {
+			raf.close();
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Determines where the cache for a particular workload file should be.
+	 *
+	 * @param traceFile
+	 *            the workload file
+	 * @param maxProcs
+	 *            the processor limit the workload file was parsed with
+	 * @return the cache file (it might not exist yet)
+	 * @throws IOException
+	 *             if the fingerprint cannot be calculated
+	 */
+	public static File getCacheFile(final File traceFile, final int maxProcs) throws IOException {
+		final String name = traceFile.getName() + "." + Long.toHexString(fingerprint(traceFile)) + "-" + maxProcs
+				+ ".dcfbin";
+		final File dir = traceFile.getAbsoluteFile().getParentFile();
+		if (dir != null && dir.canWrite()) {
+			return new File(dir, name);
+		}
+		return new File(System.getProperty("java.io.tmpdir"), name);
+	}
+
+	/**
+	 * A drop in replacement for
+	 * <code>FileBasedTraceProducerFactory.getProducerFromFile</code>: converts
+	 * the workload file if there is no cache for it yet, then returns a
+	 * producer for the requested job range that reads the cache.
+	 *
+	 * @param fileName
+	 *            the workload file
+	 * @param from
+	 *            the index of the first job to be produced
+	 * @param to
+	 *            the index of the job after the last one to be produced
+	 * @param maxProcs
+	 *            the processor limit to be used while parsing the workload
+	 * @param jobType
+	 *            the kind of jobs to produce
+	 * @return the producer reading the cache
+	 * @throws TraceManagementException
+	 *             if the workload file could not be converted or the cache
+	 *             could not be read
+	 */
+	public static MappedTraceProducer getProducerFromFile(final String fileName, final int from, final int to,
+			final int maxProcs, final Class<? extends Job> jobType) throws TraceManagementException {
+		return new MappedTraceProducer(convert(new File(fileName), maxProcs), from, to, jobType);
+	}
+
+	/**
+	 * Ensures the workload file has an up to date binary cache.
+	 *
+	 * @param traceFile
+	 *            the workload file
+	 * @param maxProcs
+	 *            the processor limit to be used while parsing the workload
+	 * @return the cache file
+	 * @throws TraceManagementException
+	 *             if the workload file could not be converted
+	 */
+	public static File convert(final File traceFile, final int maxProcs) throws TraceManagementException {
+		try {
+			final File cache = getCacheFile(traceFile, maxProcs);
+			if (cache.exists()) {
+				return cache;
+			}
+			final File temp = File.createTempFile(cache.getName(), ".tmp", cache.getParentFile());
+			try {
+				final long before = System.currentTimeMillis();
+				final long count = writeCache(traceFile, maxProcs, temp);
+				try {
+					Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) {
+					// another process might have finished the conversion
+					// first
+					if (!cache.exists()) {
+						throw e;
+					}
+				}
+				System.err.println("Converted " + count + " jobs to the binary trace cache " + cache + " in "
+						+ (System.currentTimeMillis() - before) + "ms");
+			} finally {
+				temp.delete();
+			}
+			return cache;
+		} catch (IOException e) {
+			throw new TraceManagementException("Could not create the binary cache for " + traceFile, e);
+		}
+	}
+
+	/**
+	 * Looks up (or adds) a string in the dictionary.
+	 *
+	 * @return the index of the string in the dictionary
+	 */
+	private static int lookup(final String value, final HashMap<String, Integer> index,
+			final List<String> dictionary) {
+		final String key = value == null ? "" : value;
+		Integer idx = index.get(key);
+		if (idx == null) {
+			idx = dictionary.size();
+			dictionary.add(key);
+			index.put(key, idx);
+		}
+		return idx;
+	}
+
+	/**
+	 * Parses the complete workload file chunk by chunk and writes its binary
+	 * representation.
+	 *
+	 * @return the number of jobs written
+	 */
+	private static long writeCache(final File traceFile, final int maxProcs, final File output)
+			throws IOException, TraceManagementException {
+		final GenericTraceProducer producer;
+		try {
+			producer = FileBasedTraceProducerFactory.getProducerFromFile(traceFile.getPath(), 0, Integer.MAX_VALUE,
+					false, maxProcs, DCFJob.class);
+		} catch (TraceManagementException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new TraceManagementException("Could not parse " + traceFile, e);
+		}
+		return writeCache(producer, output);
+	}
+
+	/**
+	 * Writes the binary representation of all jobs of a producer
+	 *
+	 * @param producer
+	 *            the source of the jobs, it must produce DCFJobs
+	 * @param output
+	 *            the file to write the cache to
+	 * @return the number of jobs written
+	 */
+	static long writeCache(final GenericTraceProducer producer, final File output)
+			throws IOException, TraceManagementException {
+		final HashMap<String, Integer> dictIndex = new HashMap<String, Integer>();
+		final List<String> dictionary = new ArrayList<String>();
+		// the number of dependants for the jobs that are preceding others
+		final HashMap<Long, Integer> dependantCounts = new HashMap<Long, Integer>();
+		final byte[] idBuffer = new byte[MAX_ID_LENGTH];
+		long count = 0;
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(output), 1024 * 1024));
+		try {
+			// placeholder for the header
+			out.write(new byte[HEADER_SIZE]);
+			List<Job> chunk;
+			// some producers signal the end of their trace with null
+			while ((chunk = producer.getJobs(CONVERSION_CHUNK)) != null && !chunk.isEmpty()) {
+				for (Job job : chunk) {
+					final DCFJob dcfJob = (DCFJob) job;
+					final byte[] id = job.getId().getBytes(utf8);
+					if (id.length > MAX_ID_LENGTH) {
+						throw new TraceManagementException("Job id '" + job.getId()
+								+ "' is too long for the binary trace cache", null);
+					}
+					long preceding = -1;
+					if (dcfJob.getPredecessor() != null && dcfJob.getPredecessor().traceIndex >= 0) {
+						// predecessors not converted before their dependant
+						// (e.g., listed later in the trace) are not recorded
+						preceding = dcfJob.getPredecessor().traceIndex;
+						final Integer dependants = dependantCounts.get(preceding);
+						dependantCounts.put(preceding, dependants == null ? 1 : dependants + 1);
+					}
+					dcfJob.traceIndex = count;
+					out.writeLong(job.getSubmittimeSecs());
+					out.writeLong(job.getQueuetimeSecs());
+					out.writeLong(job.getExectimeSecs());
+					out.writeDouble(job.perProcCPUTime);
+					out.writeLong(job.usedMemory);
+					out.writeLong(dcfJob.getDelayAfterPredecessor());
+					out.writeLong(preceding);
+					out.writeInt(job.nprocs);
+					out.writeInt(lookup(job.user, dictIndex, dictionary));
+					out.writeInt(lookup(job.group, dictIndex, dictionary));
+					out.writeInt(lookup(job.executable, dictIndex, dictionary));
+					// the dependant count is filled in after the conversion
+					out.writeInt(0);
+					out.writeByte(id.length);
+					System.arraycopy(id, 0, idBuffer, 0, id.length);
+					out.write(idBuffer);
+					count++;
+				}
+				chunk.clear();
+			}
+			out.writeInt(dictionary.size());
+			for (String entry : dictionary) {
+				out.writeUTF(entry);
+			}
+		} finally {
+			out.close();
+		}
+		final RandomAccessFile header = new RandomAccessFile(output, "rw");
+		try {
+			header.writeInt(MAGIC);
+			header.writeInt(VERSION);
+			header.writeLong(count);
+			header.writeLong(HEADER_SIZE + count * RECORD_SIZE);
+			for (Map.Entry<Long, Integer> dependants : dependantCounts.entrySet()) {
+				header.seek(HEADER_SIZE + dependants.getKey() * RECORD_SIZE + DEPENDANTS_OFFSET);
+				header.writeInt(dependants.getValue());
+			}
+		} finally {
+			header.close();
+		}
+		return count;
+	}
+
+	/**
+	 * Converts a workload file to the binary trace cache format in advance.
+	 *
+	 * @param args
+	 *            the workload file and (optionally) the processor limit to
+	 *            parse it with
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("Expected parameters:");
+			System.out.println("1. the workload file to be converted");
+			System.out.println("2. (optional) the processor limit to parse the workload with");
+			System.exit(0);
+		}
+		final File cache = convert(new File(args[0]),
+				args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE);
+		System.out.println(cache);
+	}
+}
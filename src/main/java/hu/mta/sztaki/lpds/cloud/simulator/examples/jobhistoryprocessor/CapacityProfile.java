@@ -0,0 +1,179 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.Arrays;
+
+/**
+ * The expected release of the committed cores of every target cloud over
+ * time. The running jobs (and the jobs whose VMs are still booting) register
+ * the cores of their VMs with the time they are expected to complete
+ * according to the execution time in the trace. Together with the currently
+ * free cores of a cloud, this tells when a given number of cores will be
+ * free in the cloud at the latest, which is the basis of the reservations of
+ * the backfilling dispatcher.
+ *
+ * The releases of a cloud are kept as a step function in primitive arrays
+ * ordered by time, jobs completing at the same time share a step. The steps
+ * are located with binary search, thus registering a job only costs an array
+ * shift, and the reservations only visit the steps until the requested cores
+ * are free.
+ *
+ * @author "agent, (c) 2026"
+ */
+class CapacityProfile {
+	/**
+	 * The times of the steps (in ms) and the cores released at them for every
+	 * cloud
+	 */
+	private final long[][] times;
+	private final double[][] cores;
+	private final int[] sizes;
+
+	/**
+	 * Creates an empty profile
+	 *
+	 * @param clouds
+	 *            the number of target clouds
+	 */
+	CapacityProfile(final int clouds) {
+		times = new long[clouds][16];
+		cores = new double[clouds][16];
+		sizes = new int[clouds];
+	}
+
+	/**
+	 * Registers the VMs of a job
+	 *
+	 * @param clouds
+	 *            the target cloud of each VM
+	 * @param vmCores
+	 *            the cores of each VM
+	 * @param time
+	 *            the time the job is expected to complete (in ms)
+	 */
+	void add(final int[] clouds, final double[] vmCores, final long time) {
+		for (int i = 0; i < clouds.length; i++) {
+			add(clouds[i], time, vmCores[i]);
+		}
+	}
+
+	/**
+	 * Removes the VMs of a job registered before with the same expected
+	 * completion time
+	 */
+	void remove(final int[] clouds, final double[] vmCores, final long time) {
+		for (int i = 0; i < clouds.length; i++) {
+			add(clouds[i], time, -vmCores[i]);
+		}
+	}
+
+	/**
+	 * Changes the cores released at a particular time in a cloud, the steps
+	 * with no cores left are removed
+	 */
+	private void add(final int cloud, final long time, final double delta) {
+		long[] cloudTimes = times[cloud];
+		final int size = sizes[cloud];
+		int pos = Arrays.binarySearch(cloudTimes, 0, size, time);
+		if (pos >= 0) {
+			cores[cloud][pos] += delta;
+			if (cores[cloud][pos] <= 0) {
+				System.arraycopy(cloudTimes, pos + 1, cloudTimes, pos, size - pos - 1);
+				System.arraycopy(cores[cloud], pos + 1, cores[cloud], pos, size - pos - 1);
+				sizes[cloud]--;
+			}
+			return;
+		}
+		if (delta <= 0) {
+			// nothing was registered for this time
+			return;
+		}
+		pos = -pos - 1;
+		if (size == cloudTimes.length) {
+			cloudTimes = times[cloud] = Arrays.copyOf(cloudTimes, 2 * size);
+			cores[cloud] = Arrays.copyOf(cores[cloud], 2 * size);
+		}
+		System.arraycopy(cloudTimes, pos, cloudTimes, pos + 1, size - pos);
+		System.arraycopy(cores[cloud], pos, cores[cloud], pos + 1, size - pos);
+		cloudTimes[pos] = time;
+		cores[cloud][pos] = delta;
+		sizes[cloud]++;
+	}
+
+	/**
+	 * Determines the earliest time a cloud is expected to have the requested
+	 * cores free
+	 *
+	 * @param cloud
+	 *            the cloud
+	 * @param needed
+	 *            the requested cores
+	 * @param free
+	 *            the cores free in the cloud now (negative if the cloud is
+	 *            overcommitted)
+	 * @param now
+	 *            the current time (in ms)
+	 * @return the time in ms or Long.MAX_VALUE if the registered jobs do not
+	 *         release enough cores
+	 */
+	long earliestStart(final int cloud, final double needed, final double free, final long now) {
+		double available = free;
+		if (available >= needed) {
+			return now;
+		}
+		final long[] cloudTimes = times[cloud];
+		final double[] cloudCores = cores[cloud];
+		final int size = sizes[cloud];
+		for (int i = 0; i < size; i++) {
+			available += cloudCores[i];
+			if (available >= needed) {
+				// jobs running longer than expected are completing now
+				return Math.max(now, cloudTimes[i]);
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Determines the cores a cloud is expected to have free at a given time
+	 *
+	 * @param cloud
+	 *            the cloud
+	 * @param free
+	 *            the cores free in the cloud now
+	 * @param time
+	 *            the time in question (in ms)
+	 * @return the free cores
+	 */
+	double freeAt(final int cloud, final double free, final long time) {
+		double available = free;
+		final long[] cloudTimes = times[cloud];
+		final double[] cloudCores = cores[cloud];
+		final int size = sizes[cloud];
+		for (int i = 0; i < size && cloudTimes[i] <= time; i++) {
+			available += cloudCores[i];
+		}
+		return available;
+	}
+}
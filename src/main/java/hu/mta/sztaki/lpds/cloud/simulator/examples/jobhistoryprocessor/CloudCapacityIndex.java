@@ -0,0 +1,251 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+
+/**
+ * Keeps track of the CPU cores not yet committed to VMs in each of the target
+ * clouds of a dispatcher. The clouds are kept ordered by their free cores, so
+ * the cloud which fits a VM request the best can be found in logarithmic time
+ * (relative to the number of clouds) plus the number of clouds the job being
+ * planned has already used (see bestFit).
+ *
+ * A VM's cores are reserved when the dispatcher plans to request the VM and
+ * they are released when the VM is destroyed or it turns out to be non
+ * servable. Thus the VMs still waiting in a cloud's scheduler queue are also
+ * counted, and an overloaded cloud shows negative free capacity.
+ *
+ * @author "agent, (c) 2026"
+ */
+class CloudCapacityIndex implements VirtualMachine.StateChange {
+	/**
+	 * The entry of a single cloud in the ordered index
+	 */
+	private static class CloudEntry implements Comparable<CloudEntry> {
+		final int cloud;
+		double free;
+
+		CloudEntry(final int cloud, final double free) {
+			this.cloud = cloud;
+			this.free = free;
+		}
+
+		@Override
+		public int compareTo(final CloudEntry o) {
+			final int byFree = Double.compare(free, o.free);
+			return byFree == 0 ? cloud - o.cloud : byFree;
+		}
+	}
+
+	/**
+	 * The clouds ordered by their free capacity
+	 */
+	private final TreeSet<CloudEntry> ordered = new TreeSet<CloudEntry>();
+	/**
+	 * The entries of the clouds by their index in the dispatcher's target list
+	 */
+	private final CloudEntry[] entries;
+	/**
+	 * The cloud and the cores committed to the VMs currently tracked by the
+	 * index
+	 */
+	private final HashMap<VirtualMachine, CloudEntry> vmClouds = new HashMap<VirtualMachine, CloudEntry>();
+	private final HashMap<VirtualMachine, Double> vmCores = new HashMap<VirtualMachine, Double>();
+	/**
+	 * The dispatcher to be notified when the cores of a VM are released
+	 */
+	private final MultiIaaSJobDispatcher dispatcher;
+
+	/**
+	 * Initializes the index with the complete core count of each cloud.
+	 *
+	 * @param dispatcher
+	 *            the dispatcher using the index
+	 * @param target
+	 *            the clouds of the dispatcher
+	 */
+	CloudCapacityIndex(final MultiIaaSJobDispatcher dispatcher, final List<IaaSService> target) {
+		this.dispatcher = dispatcher;
+		entries = new CloudEntry[target.size()];
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = new CloudEntry(i, target.get(i).getCapacities().getRequiredCPUs());
+			ordered.add(entries[i]);
+		}
+	}
+
+	/**
+	 * Changes the free capacity of a cloud while keeping the order of the
+	 * index.
+	 */
+	private void update(final CloudEntry entry, final double delta) {
+		ordered.remove(entry);
+		entry.free += delta;
+		ordered.add(entry);
+	}
+
+	/**
+	 * Selects the cloud that has the least free cores while still able to fit
+	 * the requested cores. If no cloud can fit the request, then the cloud with
+	 * the most free cores is selected. The clouds already used by the same job
+	 * are skipped, as a second request to the same cloud could wait forever
+	 * for the VMs of the first one.
+	 *
+	 * Both searches start with a logarithmic lookup in the ordered index and
+	 * then walk it, but the walks only pass the excluded clouds: the fitting
+	 * clouds are walked upwards from the requested core count, and the rest
+	 * downwards from just below it, so no cloud is visited twice. Thus a
+	 * selection costs O(log(C) + k) for C clouds, where k is the number of
+	 * clouds already used by the job (i.e., its parts planned so far), and it
+	 * is independent from the size of the federation for single part jobs.
+	 *
+	 * @param cores
+	 *            the total number of cores to be requested
+	 * @param excluded
+	 *            shows for every cloud if it must not be selected
+	 * @return the index of the selected cloud or -1 if all clouds are
+	 *         excluded
+	 */
+	int bestFit(final double cores, final boolean[] excluded) {
+		final CloudEntry key = new CloudEntry(-1, cores);
+		for (CloudEntry fit : ordered.tailSet(key)) {
+			if (!excluded[fit.cloud]) {
+				return fit.cloud;
+			}
+		}
+		// all fitting clouds are excluded, the rest is walked from the one
+		// with the most free cores
+		final Iterator<CloudEntry> mostFree = ordered.headSet(key).descendingIterator();
+		while (mostFree.hasNext()) {
+			final CloudEntry entry = mostFree.next();
+			if (!excluded[entry.cloud]) {
+				return entry.cloud;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Changes the total capacity of a cloud (e.g., because one of its PMs was
+	 * taken out of order or it was registered again).
+	 *
+	 * @param cloud
+	 *            the cloud whose capacity changed
+	 * @param cores
+	 *            the cores added to the cloud (negative if they were removed)
+	 */
+	void resize(final int cloud, final double cores) {
+		update(entries[cloud], cores);
+	}
+
+	/**
+	 * Reserves cores in a cloud for VMs that are about to be requested.
+	 *
+	 * @param cloud
+	 *            the cloud where the VMs will be requested
+	 * @param cores
+	 *            the total number of cores to be requested
+	 */
+	void reserve(final int cloud, final double cores) {
+		update(entries[cloud], -cores);
+	}
+
+	/**
+	 * Gives back reserved cores (e.g., because the VM request failed).
+	 *
+	 * @param cloud
+	 *            the cloud where the VMs were supposed to be requested
+	 * @param cores
+	 *            the total number of cores to be given back
+	 */
+	void release(final int cloud, final double cores) {
+		update(entries[cloud], cores);
+	}
+
+	/**
+	 * Starts tracking the state of newly requested VMs so their reserved cores
+	 * can be released once they are no longer in use.
+	 *
+	 * @param cloud
+	 *            the cloud where the VMs were requested
+	 * @param vms
+	 *            the array holding the new VMs
+	 * @param from
+	 *            the position of the first VM to be tracked in the array
+	 * @param count
+	 *            the number of VMs to be tracked
+	 * @param cores
+	 *            the cores reserved for each VM
+	 */
+	void track(final int cloud, final VirtualMachine[] vms, final int from, final int count, final double cores) {
+		final CloudEntry entry = entries[cloud];
+		for (int i = from; i < from + count; i++) {
+			final VirtualMachine vm = vms[i];
+			final VirtualMachine.State state = vm.getState();
+			if (VirtualMachine.State.NONSERVABLE.equals(state) || VirtualMachine.State.DESTROYED.equals(state)) {
+				update(entry, cores);
+			} else {
+				vmClouds.put(vm, entry);
+				vmCores.put(vm, cores);
+				vm.subscribeStateChange(this);
+			}
+		}
+	}
+
+	@Override
+	public void stateChanged(final VirtualMachine vm, final VirtualMachine.State oldState,
+			final VirtualMachine.State newState) {
+		switch (newState) {
+		case DESTROYED:
+		case NONSERVABLE:
+			final CloudEntry entry = vmClouds.remove(vm);
+			if (entry != null) {
+				vm.unsubscribeStateChange(this);
+				update(entry, vmCores.remove(vm));
+				// jobs held back for capacity might fit now
+				dispatcher.capacityChanged();
+			}
+			break;
+		default:
+			// the VM still holds its cores
+		}
+	}
+
+	/**
+	 * Tells the cores not yet committed in a particular cloud
+	 *
+	 * @param cloud
+	 *            the index of the cloud
+	 * @return the number of free cores (negative if more cores were requested
+	 *         than the cloud has)
+	 */
+	double getFreeCores(final int cloud) {
+		return entries[cloud].free;
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+
+/**
+ * The capacity characteristics of a single IaaS service that determine how
+ * the jobs sent to it should be split to VMs.
+ *
+ * @author "agent, (c) 2026"
+ */
+class CloudProfile {
+	/**
+	 * maximum number of cores in the biggest physical machine of the cloud
+	 */
+	final double maxCores;
+	/**
+	 * number of physical machines in the cloud
+	 */
+	final int machines;
+	/**
+	 * the smallest per core processing power offered by the physical machines
+	 * of the cloud
+	 */
+	final double procPower;
+
+	/**
+	 * Analyzes the physical machines of the cloud
+	 *
+	 * @param iaas
+	 *            the cloud to be analyzed
+	 */
+	CloudProfile(final IaaSService iaas) {
+		double cores = 0;
+		double pp = Double.MAX_VALUE;
+		for (PhysicalMachine pm : iaas.machines) {
+			cores = Math.max(cores, pm.getCapacities().getRequiredCPUs());
+			pp = Math.min(pp, pm.getCapacities().getRequiredProcessingPower());
+		}
+		maxCores = cores;
+		machines = iaas.machines.size();
+		procPower = pp;
+	}
+}
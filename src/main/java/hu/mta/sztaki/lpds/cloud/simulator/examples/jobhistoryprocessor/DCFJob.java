@@ -49,6 +49,24 @@ public class DCFJob extends Job {
 
 	private boolean firstQuery = true;
 
+	/**
+	 * The job that needs to complete before this job could start (null if
+	 * there is no such job)
+	 */
+	private final DCFJob predecessor;
+
+	/**
+	 * The amount of seconds this job should wait after its predecessor
+	 * completes
+	 */
+	private final long delayAfterPredecessor;
+
+	/**
+	 * The position of the job in its complete trace, filled in by the trace
+	 * converters and indexers of the examples (-1 if unknown)
+	 */
+	long traceIndex = -1;
+
 	/**
 	 * Forwards the constructor to the Job's appropriate constructor
 	 * 
@@ -62,6 +80,8 @@ public class DCFJob extends Job {
 	public DCFJob(String id, long submit, long queue, long exec, int nprocs, double ppCpu, long ppMem, String user,
 			String group, String executable, Job preceding, long delayAfter) {
 		super(id, submit, queue, exec, nprocs, ppCpu, ppMem, user, group, executable, preceding, delayAfter);
+		predecessor = (DCFJob) preceding;
+		delayAfterPredecessor = delayAfter;
 		if (preceding != null) {
 			DCFJob j = (DCFJob) preceding;
 			if (j.afterThisJob == null) {
@@ -86,6 +106,14 @@ public class DCFJob extends Job {
 		setRealstopTime(Timed.getFireCount() / 1000 - getSubmittimeSecs());
 	}
 
+	public DCFJob getPredecessor() {
+		return predecessor;
+	}
+
+	public long getDelayAfterPredecessor() {
+		return delayAfterPredecessor;
+	}
+
 	public List<Job> getDependants() {
 		if (firstQuery) {
 			if (afterThisJob != null) {
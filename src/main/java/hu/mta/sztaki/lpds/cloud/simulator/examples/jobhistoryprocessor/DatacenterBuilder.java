@@ -0,0 +1,125 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+
+import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.PhysicalMachineController;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.Scheduler;
+import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
+import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
+
+/**
+ * Constructs a set of equally sized clouds with uniform PMs (the same setup
+ * JobDispatchingDemo used to build one PM at a time). The PMs of all clouds
+ * are constructed from a single template, and all of them share the same
+ * power transition description and the same rule based latency map (so no
+ * per node latency entries are kept). The simulator does not guarantee that
+ * its objects can be constructed concurrently, thus all clouds are built on
+ * the calling thread.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class DatacenterBuilder {
+	private final int nodesPerCloud;
+	private final int coresPerNode;
+	private final int clouds;
+	private final Class<? extends Scheduler> vmSched;
+	private final Class<? extends PhysicalMachineController> pmSched;
+
+	/**
+	 * Prepares the construction of the clouds
+	 *
+	 * @param nodesPerCloud
+	 *            the number of PMs in each cloud
+	 * @param coresPerNode
+	 *            the number of CPU cores in each PM
+	 * @param clouds
+	 *            the number of clouds to build
+	 * @param vmSched
+	 *            the VM scheduler of the clouds
+	 * @param pmSched
+	 *            the PM controller of the clouds
+	 */
+	public DatacenterBuilder(final int nodesPerCloud, final int coresPerNode, final int clouds,
+			final Class<? extends Scheduler> vmSched, final Class<? extends PhysicalMachineController> pmSched) {
+		this.nodesPerCloud = nodesPerCloud;
+		this.coresPerNode = coresPerNode;
+		this.clouds = clouds;
+		this.vmSched = vmSched;
+		this.pmSched = pmSched;
+	}
+
+	/**
+	 * Constructs the clouds and registers their PMs.
+	 *
+	 * @return the list of the new IaaS services
+	 * @throws Exception
+	 *             if the IaaS services could not be instantiated with the
+	 *             given schedulers
+	 */
+	public List<IaaSService> build() throws Exception {
+		// Specification of the default power behavior in PMs, shared by all
+		final EnumMap<PhysicalMachine.PowerStateKind, EnumMap<PhysicalMachine.State, PowerState>> transitions = PowerTransitionGenerator
+				.generateTransitions(20, 296, 493, 50, 108);
+		final List<IaaSService> iaasList = new ArrayList<IaaSService>(clouds);
+		final double pmBWRatio = Math.max(coresPerNode / 7f, 1);
+		for (int clid = 0; clid < clouds; clid++) {
+			final IaaSService iaas = new IaaSService(vmSched, pmSched);
+			final String repoid = clid + "VHStorageDell";
+			final String machineid = clid + "VHNode";
+			// Only the nodes of the same cloud are reachable: 5 ms latency
+			// from the repo towards the PMs, 3 ms latency between the PMs
+			final ZoneLatencyMap latencyMapRepo = new ZoneLatencyMap(-1).addZone(machineid, 5);
+			final ZoneLatencyMap latencyMapMachine = new ZoneLatencyMap(-1).addZone(machineid, 3);
+
+			// Creating the Repositories for the cloud
+
+			// scaling the bandwidth accroding to the size of the cloud
+			final double bwRatio = (coresPerNode * nodesPerCloud) / (7f * 64f);
+			// A single repo will hold 36T of data
+			iaas.registerRepository(new Repository(36000000000000l, repoid, (long) (bwRatio * 1250000),
+					(long) (bwRatio * 1250000), (long) (bwRatio * 250000), latencyMapRepo));
+			latencyMapMachine.put(repoid, 5); // 5 ms latency towards the
+												// repos
+			iaasList.add(iaas);
+
+			// Creating and registering the PMs for the cloud
+			final PhysicalMachine[] pms = new PhysicalMachine[nodesPerCloud];
+			for (int i = 0; i < nodesPerCloud; i++) {
+				pms[i] = new PhysicalMachine(coresPerNode, 0.001, 256000000000l,
+						new Repository(5000000000000l, machineid + (i + 1), (long) (pmBWRatio * 250000),
+								(long) (pmBWRatio * 250000), (long) (pmBWRatio * 50000), latencyMapMachine),
+						89000, 29000, transitions);
+			}
+			iaas.bulkHostRegistration(Arrays.asList(pms));
+		}
+		return iaasList;
+	}
+}
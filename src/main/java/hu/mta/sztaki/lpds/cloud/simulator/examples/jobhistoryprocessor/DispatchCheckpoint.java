@@ -0,0 +1,326 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+/**
+ * The state of a JobDispatchingDemo run at a quiescent point of its
+ * dispatcher: i.e., at a time when all jobs dispatched so far have completed
+ * and their VMs are destroyed. At such a point the rest of the simulation only
+ * depends on the simulated time, the position of the dispatcher in the trace
+ * and the accumulated statistics. Thus a later run can continue from the
+ * checkpoint by creating its clouds as usual, skipping the already processed
+ * jobs and moving the simulated time to the checkpoint's time (the PMs are
+ * left in the state their controller puts them after the cloud creation, in
+ * the checkpointed run the idle PMs were controlled the same way).
+ *
+ * The checkpoint is taken at the first dispatcher event after the requested
+ * simulated time at which the dispatcher is quiescent. The Timed event queue
+ * and the state of the PMs and VMs are not saved, this is why the checkpoint
+ * waits for the quiescent point. The wait is not bounded: a trace that keeps
+ * at least one job running (or held, or an idle VM pooled) at every
+ * dispatcher event after the requested time never reaches such a point, and
+ * then no checkpoint is written. The dispatcher records when the checkpoint
+ * first had to be deferred, so the run can report how long the checkpoint was
+ * deferred, or why it was never taken (a run whose requested checkpoint was
+ * not taken fails).
+ *
+ * @author "agent, (c) 2026"
+ */
+public class DispatchCheckpoint {
+	private static final int MAGIC = 0x44434350;
+	private static final int VERSION = 2;
+
+	/**
+	 * The simulated time after which the checkpoint should be taken
+	 */
+	final long requestedTime;
+	/**
+	 * Where the checkpoint is written
+	 */
+	final File file;
+	/**
+	 * The time of the first dispatcher event after the requested time at
+	 * which the dispatcher was not quiescent (-1 if there was no such event)
+	 */
+	long deferredSince = -1;
+
+	// The scenario the checkpoint belongs to
+	String trace;
+	String clouds;
+	int from;
+	String filter;
+
+	// The state of the dispatcher
+	long simTime;
+	long minsubmittime;
+	int jobsTaken;
+	int targetIndex;
+	long ignorecounter;
+	long destroycounter;
+	int maxQueueLength;
+	long batchedRequests;
+	long heldJobs;
+	int maxAdmissionQueueLength;
+	long backfilledJobs;
+	long abandonedJobs;
+	long dispatcherEvents;
+	long jobsDispatched;
+	long jobsStarted;
+	long jobsFinished;
+
+	// The totals of the dispatcher's job runners
+	long multiVMJobs;
+	long totalStragglerWait;
+	long maxStragglerWait;
+	double idleCoreSeconds;
+	long failedAttempts;
+	double wastedCoreSeconds;
+	double usefulCoreSeconds;
+	long completedJobs;
+	double totalSlowdown;
+	long completedRetriedJobs;
+	double totalRetriedSlowdown;
+
+	// The statistics of the dispatcher's VM pool (if it has one)
+	long poolHits;
+	long poolMisses;
+	long poolSavedBootTime;
+	long poolExpired;
+	long poolEvicted;
+
+	// The state of the clouds and their monitoring
+	long completedVMs;
+	double consumedEnergy;
+	final ArrayList<OverallSystemState> monitoring = new ArrayList<OverallSystemState>();
+	/**
+	 * The monitor of the checkpointed run (if there is one)
+	 */
+	StateMonitor monitor;
+
+	/**
+	 * Prepares a checkpoint request for the current scenario
+	 *
+	 * @param requestedTime
+	 *            the simulated time after which the checkpoint is taken
+	 * @param file
+	 *            the file to write the checkpoint to
+	 * @param trace
+	 *            the trace specification of the scenario
+	 * @param clouds
+	 *            the cloud specification of the scenario
+	 * @param from
+	 *            the index of the first job of the scenario in the trace
+	 * @param filter
+	 *            the job filter of the scenario (or <code>null</code>)
+	 */
+	public DispatchCheckpoint(final long requestedTime, final File file, final String trace, final String clouds,
+			final int from, final String filter) {
+		this.requestedTime = requestedTime;
+		this.file = file;
+		this.trace = trace;
+		this.clouds = clouds;
+		this.from = from;
+		this.filter = filter;
+	}
+
+	/**
+	 * Checks if the checkpoint can be used for resuming a particular scenario.
+	 * The scenario can only differ in the last job to be processed.
+	 *
+	 * @throws IllegalStateException
+	 *             if the checkpoint was made for a different scenario
+	 */
+	public void checkScenario(final String trace, final String clouds, final int from, final String filter) {
+		if (!this.trace.equals(trace) || !this.clouds.equals(clouds) || this.from != from
+				|| (this.filter == null ? filter != null : !this.filter.equals(filter))) {
+			throw new IllegalStateException("The checkpoint " + file + " was made for a different scenario: "
+					+ this.trace + " " + this.from + (this.filter == null ? "" : "@" + this.filter) + " "
+					+ this.clouds);
+		}
+	}
+
+	/**
+	 * Writes out the checkpoint
+	 *
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	void write() throws IOException {
+		final File temp = new File(file.getPath() + ".tmp");
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(trace);
+			out.writeUTF(clouds);
+			out.writeInt(from);
+			out.writeBoolean(filter != null);
+			if (filter != null) {
+				out.writeUTF(filter);
+			}
+			out.writeLong(simTime);
+			out.writeLong(minsubmittime);
+			out.writeInt(jobsTaken);
+			out.writeInt(targetIndex);
+			out.writeLong(ignorecounter);
+			out.writeLong(destroycounter);
+			out.writeInt(maxQueueLength);
+			out.writeLong(batchedRequests);
+			out.writeLong(heldJobs);
+			out.writeInt(maxAdmissionQueueLength);
+			out.writeLong(backfilledJobs);
+			out.writeLong(abandonedJobs);
+			out.writeLong(dispatcherEvents);
+			out.writeLong(jobsDispatched);
+			out.writeLong(jobsStarted);
+			out.writeLong(jobsFinished);
+			out.writeLong(multiVMJobs);
+			out.writeLong(totalStragglerWait);
+			out.writeLong(maxStragglerWait);
+			out.writeDouble(idleCoreSeconds);
+			out.writeLong(failedAttempts);
+			out.writeDouble(wastedCoreSeconds);
+			out.writeDouble(usefulCoreSeconds);
+			out.writeLong(completedJobs);
+			out.writeDouble(totalSlowdown);
+			out.writeLong(completedRetriedJobs);
+			out.writeDouble(totalRetriedSlowdown);
+			out.writeLong(poolHits);
+			out.writeLong(poolMisses);
+			out.writeLong(poolSavedBootTime);
+			out.writeLong(poolExpired);
+			out.writeLong(poolEvicted);
+			out.writeLong(completedVMs);
+			out.writeDouble(consumedEnergy);
+			out.writeInt(monitoring.size());
+			for (OverallSystemState st : monitoring) {
+				out.writeLong(st.timeStamp);
+				out.writeInt(st.finishedVMs);
+				out.writeInt(st.queueLen);
+				out.writeInt(st.runningVMs);
+				out.writeInt(st.usedCores);
+				out.writeInt(st.runningPMs);
+				out.writeDouble(st.totalTransferredData);
+			}
+		} finally {
+			out.close();
+		}
+		// a crash during the write should not destroy an earlier checkpoint,
+		// thus the old checkpoint is replaced in a single step
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Loads a checkpoint written by an earlier run
+	 *
+	 * @param file
+	 *            the checkpoint file
+	 * @return the loaded checkpoint
+	 * @throws IOException
+	 *             if the file is not readable or it is not a checkpoint
+	 */
+	public static DispatchCheckpoint read(final File file) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Not a dispatcher checkpoint: " + file);
+			}
+			final String trace = in.readUTF();
+			final String clouds = in.readUTF();
+			final int from = in.readInt();
+			final String filter = in.readBoolean() ? in.readUTF() : null;
+			final DispatchCheckpoint cp = new DispatchCheckpoint(-1, file, trace, clouds, from, filter);
+			cp.simTime = in.readLong();
+			cp.minsubmittime = in.readLong();
+			cp.jobsTaken = in.readInt();
+			cp.targetIndex = in.readInt();
+			cp.ignorecounter = in.readLong();
+			cp.destroycounter = in.readLong();
+			cp.maxQueueLength = in.readInt();
+			cp.batchedRequests = in.readLong();
+			cp.heldJobs = in.readLong();
+			cp.maxAdmissionQueueLength = in.readInt();
+			cp.backfilledJobs = in.readLong();
+			cp.abandonedJobs = in.readLong();
+			cp.dispatcherEvents = in.readLong();
+			cp.jobsDispatched = in.readLong();
+			cp.jobsStarted = in.readLong();
+			cp.jobsFinished = in.readLong();
+			cp.multiVMJobs = in.readLong();
+			cp.totalStragglerWait = in.readLong();
+			cp.maxStragglerWait = in.readLong();
+			cp.idleCoreSeconds = in.readDouble();
+			cp.failedAttempts = in.readLong();
+			cp.wastedCoreSeconds = in.readDouble();
+			cp.usefulCoreSeconds = in.readDouble();
+			cp.completedJobs = in.readLong();
+			cp.totalSlowdown = in.readDouble();
+			cp.completedRetriedJobs = in.readLong();
+			cp.totalRetriedSlowdown = in.readDouble();
+			cp.poolHits = in.readLong();
+			cp.poolMisses = in.readLong();
+			cp.poolSavedBootTime = in.readLong();
+			cp.poolExpired = in.readLong();
+			cp.poolEvicted = in.readLong();
+			cp.completedVMs = in.readLong();
+			cp.consumedEnergy = in.readDouble();
+			final int rows = in.readInt();
+			for (int i = 0; i < rows; i++) {
+				final OverallSystemState st = new OverallSystemState();
+				st.timeStamp = in.readLong();
+				st.finishedVMs = in.readInt();
+				st.queueLen = in.readInt();
+				st.runningVMs = in.readInt();
+				st.usedCores = in.readInt();
+				st.runningPMs = in.readInt();
+				st.totalTransferredData = in.readDouble();
+				cp.monitoring.add(st);
+			}
+			return cp;
+		} finally {
+			in.close();
+		}
+	}
+
+	public long getSimTime() {
+		return simTime;
+	}
+
+	public int getJobsTaken() {
+		return jobsTaken;
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+
+/**
+ * Replays a failure trace against the PMs of the clouds used by a dispatcher.
+ * Every record of the trace is an outage of a single node: when the outage
+ * starts, all VMs of the node's PM are destroyed (killing the tasks of the
+ * jobs running in them) and the PM is removed from its cloud, so no new VMs
+ * are placed on it. When the outage ends, the PM is registered with its cloud
+ * again. The jobs hit by the outages are retried according to the retry
+ * policy of the dispatcher.
+ * 
+ * The trace is a text file with one outage per line. Lines with three fields
+ * list the node id, the start and the end of the outage. Lines with at least
+ * eight fields are read as the event trace of the Failure Trace Archive (the
+ * node id, event type, start and end time are the 3rd, 6th, 7th and 8th
+ * fields), only the unavailability events (type 0) are considered from them.
+ * The fields are separated with whitespace or commas, lines starting with #
+ * (and lines that are not numeric, like headers) are skipped. The times are
+ * in seconds, the earliest outage start of the trace is aligned with the time
+ * the injector is created. The nodes are numbered from 0 through the PMs of
+ * the clouds in the order of the cloud list, outages of nodes beyond the last
+ * PM are skipped.
+ * 
+ * The injector stops once the dispatcher has no more jobs to run, and the PMs
+ * still out of order are registered again at that point.
+ * 
+ * @author "agent, (c) 2026"
+ */
+public class FailureInjector extends Timed {
+	/**
+	 * The dispatcher whose jobs are hit by the outages
+	 */
+	private final MultiIaaSJobDispatcher dispatcher;
+	/**
+	 * The PMs the node ids refer to and the cloud of each of them
+	 */
+	private final PhysicalMachine[] pms;
+	private final IaaSService[] owners;
+	private final int[] ownerIndexes;
+	/**
+	 * The outages of the trace ordered by their start: the node, the start
+	 * and the end time (in ms)
+	 */
+	private final int[] nodes;
+	private final long[] starts;
+	private final long[] ends;
+	/**
+	 * The first outage not yet started
+	 */
+	private int next = 0;
+	/**
+	 * The ongoing outages ordered by their end
+	 */
+	private final ReleaseQueue recoveries = new ReleaseQueue();
+	/**
+	 * The number of ongoing outages of every node (the outages of a node can
+	 * overlap in the traces)
+	 */
+	private final int[] outageDepth;
+	/**
+	 * Shows for every node if its PM was removed from its cloud
+	 */
+	private final boolean[] removed;
+	private long outages = 0;
+	private long killedVMs = 0;
+	private long skippedRecords = 0;
+
+	/**
+	 * Loads the failure trace and schedules its first outage.
+	 * 
+	 * @param traceFile
+	 *            the failure trace
+	 * @param dispatcher
+	 *            the dispatcher which runs the jobs in the clouds
+	 * @param clouds
+	 *            the clouds whose PMs can fail, in the order of the
+	 *            dispatcher's target list
+	 * @throws IOException
+	 *             if the trace could not be read
+	 */
+	public FailureInjector(final String traceFile, final MultiIaaSJobDispatcher dispatcher,
+			final List<IaaSService> clouds) throws IOException {
+		this.dispatcher = dispatcher;
+		int pmCount = 0;
+		for (IaaSService cloud : clouds) {
+			pmCount += cloud.machines.size();
+		}
+		pms = new PhysicalMachine[pmCount];
+		owners = new IaaSService[pmCount];
+		ownerIndexes = new int[pmCount];
+		int pmIndex = 0;
+		for (int c = 0; c < clouds.size(); c++) {
+			for (PhysicalMachine pm : clouds.get(c).machines) {
+				pms[pmIndex] = pm;
+				ownerIndexes[pmIndex] = c;
+				owners[pmIndex++] = clouds.get(c);
+			}
+		}
+		outageDepth = new int[pmCount];
+		removed = new boolean[pmCount];
+
+		final ArrayList<long[]> records = new ArrayList<long[]>();
+		final BufferedReader reader = new BufferedReader(new FileReader(traceFile));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				final String[] fields = line.split("[\\s,]+");
+				final long[] record = parseRecord(fields);
+				if (record == null || record[0] < 0 || record[0] >= pmCount || record[2] <= record[1]) {
+					skippedRecords++;
+				} else {
+					records.add(record);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		Collections.sort(records, new Comparator<long[]>() {
+			@Override
+			public int compare(final long[] o1, final long[] o2) {
+				return Long.compare(o1[1], o2[1]);
+			}
+		});
+		nodes = new int[records.size()];
+		starts = new long[records.size()];
+		ends = new long[records.size()];
+		final long now = Timed.getFireCount();
+		final long base = records.isEmpty() ? 0 : records.get(0)[1];
+		for (int i = 0; i < nodes.length; i++) {
+			final long[] record = records.get(i);
+			nodes[i] = (int) record[0];
+			starts[i] = now + record[1] - base;
+			ends[i] = now + record[2] - base;
+		}
+		if (nodes.length > 0) {
+			subscribe(Math.max(1, starts[0] - now));
+		}
+	}
+
+	/**
+	 * Reads a single outage from the fields of a trace line
+	 * 
+	 * @return the node, the start and the end of the outage (in ms) or
+	 *         <code>null</code> if the line does not represent an outage
+	 */
+	private static long[] parseRecord(final String[] fields) {
+		try {
+			if (fields.length >= 8) {
+				// FTA event trace: only the unavailability events are outages
+				if (Integer.parseInt(fields[5]) != 0) {
+					return null;
+				}
+				return new long[] { Long.parseLong(fields[2]), (long) (Double.parseDouble(fields[6]) * 1000),
+						(long) (Double.parseDouble(fields[7]) * 1000) };
+			}
+			if (fields.length >= 3) {
+				return new long[] { Long.parseLong(fields[0]), (long) (Double.parseDouble(fields[1]) * 1000),
+						(long) (Double.parseDouble(fields[2]) * 1000) };
+			}
+		} catch (NumberFormatException e) {
+			// headers and other non numeric lines
+		}
+		return null;
+	}
+
+	/**
+	 * Starts and ends the outages that are due
+	 */
+	@Override
+	public void tick(final long fires) {
+		if (dispatcher.isTraceDone() && dispatcher.getVMsInFlight() == 0) {
+			// the jobs are all done, the remaining outages would not affect
+			// anything
+			unsubscribe();
+			while (!recoveries.isEmpty()) {
+				recover(recoveries.poll());
+			}
+			return;
+		}
+		while (next < starts.length && starts[next] <= fires) {
+			fail(nodes[next]);
+			recoveries.add(ends[next], nodes[next]);
+			next++;
+		}
+		while (!recoveries.isEmpty() && recoveries.peekTime() <= fires) {
+			recover(recoveries.poll());
+		}
+		long nextEvent = next < starts.length ? starts[next] : Long.MAX_VALUE;
+		if (!recoveries.isEmpty()) {
+			nextEvent = Math.min(nextEvent, recoveries.peekTime());
+		}
+		if (nextEvent == Long.MAX_VALUE) {
+			unsubscribe();
+		} else {
+			updateFrequency(nextEvent - fires);
+		}
+	}
+
+	/**
+	 * Takes a PM out of order, its VMs are lost
+	 */
+	private void fail(final int node) {
+		if (outageDepth[node]++ > 0) {
+			// the node is already out of order
+			return;
+		}
+		outages++;
+		final PhysicalMachine pm = pms[node];
+		for (VirtualMachine vm : pm.publicVms.toArray(new VirtualMachine[pm.publicVms.size()])) {
+			try {
+				vm.destroy(true);
+				killedVMs++;
+			} catch (VMManager.VMManagementException e) {
+				// the VM is not in a state where it could be lost
+			}
+		}
+		try {
+			owners[node].deregisterHost(pm);
+			removed[node] = true;
+			dispatcher.hostCapacityChanged(ownerIndexes[node], -pm.getCapacities().getRequiredCPUs());
+		} catch (Exception e) {
+			System.err.println("WARNING: could not remove PM " + node + " from its cloud: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Puts a PM back to its cloud once all of its outages ended
+	 */
+	private void recover(final int node) {
+		if (--outageDepth[node] > 0 || !removed[node]) {
+			return;
+		}
+		removed[node] = false;
+		owners[node].registerHost(pms[node]);
+		dispatcher.hostCapacityChanged(ownerIndexes[node], pms[node].getCapacities().getRequiredCPUs());
+	}
+
+	/**
+	 * @return the number of outages that took a PM out of order
+	 */
+	public long getOutages() {
+		return outages;
+	}
+
+	/**
+	 * @return the number of VMs lost in the outages
+	 */
+	public long getKilledVMs() {
+		return killedVMs;
+	}
+
+	/**
+	 * @return the number of trace records that were not used as outages
+	 */
+	public long getSkippedRecords() {
+		return skippedRecords;
+	}
+}
@@ -0,0 +1,402 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.SchedulingDependentMachines;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
+
+/**
+ * Runs a JobDispatchingDemo like federation experiment with its clouds split
+ * amongst several local JVMs (as the simulator has a single global clock, a
+ * single JVM can only use a single core for the simulation). Every worker
+ * process (see FederationWorker) simulates an equal share of the clouds with
+ * its own dispatcher, while this process reads the trace and acts as the
+ * central dispatcher of the federation.
+ *
+ * The processes are synchronised with a conservative time window protocol
+ * over local sockets. The trace is cut into windows of a fixed simulated
+ * length, and the jobs of a window are all routed to the workers before any
+ * of the workers simulates the window. The routing only uses the state the
+ * workers reported at the end of the previous window: every job is sent to
+ * the worker with the most free cores (after deducting the cores of the jobs
+ * already routed in the window), ties are broken in a round robin fashion.
+ * Windows without jobs are merged, so idle periods of the trace only cost a
+ * single round trip.
+ *
+ * The workers are launched with the same class path and with the dispatcher
+ * options of JobDispatchingDemo this process was started with (see
+ * FederationWorker.forwardedProperties), so these apply to the dispatchers of
+ * the workers as well. The jobs are sent to the workers without their
+ * dependencies, and the workers do not checkpoint, record the job results or
+ * replay failures: the options of these features are rejected in this mode.
+ * The energy monitoring of the clouds is not supported either.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class FederatedJobDispatchingDemo {
+	/**
+	 * The length of the synchronisation windows in simulated seconds
+	 */
+	public static final String windowProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.federation.window";
+	/**
+	 * The heap size of the worker JVMs (e.g., 4g)
+	 */
+	public static final String heapProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.federation.heap";
+
+	/**
+	 * The options of JobDispatchingDemo that cannot be honoured in this mode
+	 */
+	private static final String[] unsupportedProperties = { JobDispatchingDemo.dagProperty,
+			JobDispatchingDemo.checkpointProperty, JobDispatchingDemo.resumeProperty,
+			JobDispatchingDemo.resultsProperty, JobDispatchingDemo.failuresProperty,
+			JobDispatchingDemo.retriesProperty, JobDispatchingDemo.retryDelayProperty };
+
+	/**
+	 * The connection to a single worker process
+	 */
+	private static class Worker {
+		final int id;
+		final int clouds;
+		final Process process;
+		final File log;
+		Socket socket;
+		DataInputStream in;
+		DataOutputStream out;
+		long readyTime;
+		FederationWorker.Report state = new FederationWorker.Report();
+		final List<Job> assigned = new ArrayList<Job>();
+
+		Worker(final int id, final int clouds, final Process process, final File log) {
+			this.id = id;
+			this.clouds = clouds;
+			this.process = process;
+			this.log = log;
+		}
+
+		boolean isTerminated() {
+			try {
+				process.exitValue();
+				return true;
+			} catch (IllegalThreadStateException e) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Starts a worker JVM that will connect back to the coordinator
+	 */
+	private static Worker launch(final int id, final int port, final int nodesPerCloud, final int cores,
+			final int clouds, final String vmSched, final String pmSched) throws IOException {
+		final List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		final String heap = System.getProperty(heapProperty);
+		if (heap != null) {
+			command.add("-Xmx" + heap);
+		}
+		for (String prop : FederationWorker.forwardedProperties) {
+			final String value = System.getProperty(prop);
+			if (value != null) {
+				command.add("-D" + prop + "=" + value);
+			}
+		}
+		command.add(FederationWorker.class.getName());
+		command.add(Integer.toString(port));
+		command.add(Integer.toString(id));
+		command.add(Integer.toString(nodesPerCloud));
+		command.add(Integer.toString(cores));
+		command.add(Integer.toString(clouds));
+		command.add(vmSched);
+		command.add(pmSched);
+		final File log = File.createTempFile("federation-worker-" + id + "-", ".log");
+		final ProcessBuilder pb = new ProcessBuilder(command);
+		pb.redirectErrorStream(true);
+		pb.redirectOutput(log);
+		return new Worker(id, clouds, pb.start(), log);
+	}
+
+	public static void main(String[] args) throws Exception {
+		// The help
+		if (args.length < 3) {
+			System.out.println("Expected parameters:");
+			System.out.println("1. job trace: the same as the first parameter of JobDispatchingDemo");
+			System.out.println("2. the range of jobs (with an optional @ filter) as for JobDispatchingDemo");
+			System.out.println("\t Note: there is no monitoring in this mode");
+			System.out.println("3. cloud definition in the form of nodes@cores@clouds(:vmscheduler:pmscheduler)");
+			System.out.println("3 - example) 50000@16@40 (for 40 clouds with 1250 pms each)");
+			System.out.println(
+					"4. (optional) the number of worker processes the clouds are split amongst (defaults to the number of cores)");
+			System.out.println("Optional system properties:");
+			System.out.println("-D" + windowProperty
+					+ "=N synchronises the workers after every N simulated seconds (defaults to 60)");
+			System.out.println("-D" + heapProperty + "=SIZE sets the maximum heap of the worker JVMs");
+			System.out.println("-D" + JobDispatchingDemo.reportProperty
+					+ "=FILE writes a performance report of the run to FILE");
+			System.out.println(
+					"\t the dispatcher options of JobDispatchingDemo are passed to the workers, its dependency, checkpoint, result, failure and retry options are not supported");
+			System.exit(0);
+		}
+		for (String prop : unsupportedProperties) {
+			if (System.getProperty(prop) != null) {
+				System.err.println("ERROR: -D" + prop + " is not supported with distributed federations!");
+				System.exit(1);
+			}
+		}
+		final long beforeSetup = Calendar.getInstance().getTimeInMillis();
+
+		// The cloud specification
+		final String[] hostSpec = args[2].split("@");
+		if (hostSpec.length != 3) {
+			throw new IllegalStateException("Host specification string '" + args[2] + "' is incorrect:");
+		}
+		final int totNumofNodes = Integer.parseInt(hostSpec[0]);
+		final int numofCores = Integer.parseInt(hostSpec[1]);
+		final String[] cloudSpec = hostSpec[2].split(":");
+		final int numofClouds = Integer.parseInt(cloudSpec[0]);
+		final String vmSched = cloudSpec.length > 1 ? cloudSpec[1] : FirstFitScheduler.class.getName();
+		final String pmSched = cloudSpec.length > 2 ? cloudSpec[2] : SchedulingDependentMachines.class.getName();
+		final int numofWorkers = args.length > 3 ? Integer.parseInt(args[3])
+				: Math.min(numofClouds, Runtime.getRuntime().availableProcessors());
+		if (numofWorkers < 1 || numofWorkers > numofClouds) {
+			throw new IllegalStateException("The number of workers must be between 1 and the number of clouds");
+		}
+		final int numofNodes = totNumofNodes / numofClouds;
+		if (numofNodes * numofClouds != totNumofNodes) {
+			System.err.println(
+					"WARNING: with equally sized clouds we cannot reach the total number of nodes specified!");
+		}
+		final long windowLength = Long.getLong(windowProperty, 60);
+		if (windowLength < 1) {
+			throw new IllegalStateException("The synchronisation window must be at least a second long");
+		}
+
+		// The job range
+		String jobSpec = args[1].startsWith("+") ? args[1].substring(1) : args[1];
+		int from = 0;
+		int to = 0;
+		String filterSpec = null;
+		if (jobSpec.contains("@")) {
+			String[] splitJobSpec = jobSpec.split("@");
+			jobSpec = splitJobSpec[0];
+			filterSpec = splitJobSpec[1];
+		}
+		if (jobSpec.contains("-")) {
+			String[] range = jobSpec.split("-");
+			from = Integer.parseInt(range[0]);
+			to = Integer.parseInt(range[1]);
+		} else {
+			to = Integer.parseInt(jobSpec);
+		}
+
+		// Launching the workers, they connect back once their clouds are
+		// prepared
+		final ServerSocket server = new ServerSocket(0, numofWorkers, InetAddress.getLoopbackAddress());
+		final Worker[] workers = new Worker[numofWorkers];
+		for (int i = 0; i < numofWorkers; i++) {
+			final int clouds = numofClouds / numofWorkers + (i < numofClouds % numofWorkers ? 1 : 0);
+			workers[i] = launch(i, server.getLocalPort(), numofNodes, numofCores, clouds, vmSched, pmSched);
+			System.err.println("Worker " + i + " started with " + clouds + " clouds, its log is "
+					+ workers[i].log.getAbsolutePath());
+		}
+		server.setSoTimeout(1000);
+		int connected = 0;
+		long readyTime = 0;
+		while (connected < numofWorkers) {
+			try {
+				final Socket socket = server.accept();
+				socket.setTcpNoDelay(true);
+				final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				final Worker w = workers[in.readInt()];
+				w.socket = socket;
+				w.in = in;
+				w.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+				w.readyTime = in.readLong();
+				w.state.freeCores = (double) w.clouds * numofNodes * numofCores;
+				readyTime = Math.max(readyTime, w.readyTime);
+				connected++;
+			} catch (SocketTimeoutException e) {
+				for (Worker w : workers) {
+					if (w.socket == null && w.isTerminated()) {
+						throw new IllegalStateException(
+								"Worker " + w.id + " failed during its setup, see " + w.log.getAbsolutePath());
+					}
+				}
+			}
+		}
+		server.close();
+
+		// Loading the trace, the coordinator always streams it
+		final GenericTraceProducer producer = JobDispatchingDemo.loadTrace(args[0], from, to, filterSpec,
+				totNumofNodes * numofCores);
+		final TraceWindow trace = new TraceWindow(producer,
+				Integer.getInteger(JobDispatchingDemo.streamingProperty, 10000));
+		// The first job is submitted right after the slowest worker got ready
+		final long startTime = readyTime / 1000 + 1;
+		if (trace.peek() != null) {
+			trace.adjust(startTime - trace.peek().getSubmittimeSecs());
+		}
+		final long beforeSimu = Calendar.getInstance().getTimeInMillis();
+		System.err.println("Federation of " + numofWorkers + " workers is completely prepared at " + beforeSimu);
+
+		// The actual simulation, window by window
+		long windowStart = startTime;
+		long windows = 0;
+		long jobs = 0;
+		int peakQueuedVMs = 0;
+		int roundRobin = 0;
+		Job next;
+		while ((next = trace.peek()) != null) {
+			long windowEnd = windowStart + windowLength;
+			if (next.getSubmittimeSecs() >= windowEnd) {
+				// The workers just need to catch up with the next job
+				windowEnd = next.getSubmittimeSecs();
+			}
+			final double[] headroom = new double[numofWorkers];
+			for (int i = 0; i < numofWorkers; i++) {
+				headroom[i] = workers[i].state.freeCores;
+			}
+			while ((next = trace.peek()) != null && next.getSubmittimeSecs() < windowEnd) {
+				trace.poll();
+				if (next.getSubmittimeSecs() < windowStart) {
+					// The trace was out of order, the job is late
+					next.adjust(windowStart - next.getSubmittimeSecs());
+				}
+				int target = roundRobin;
+				for (int k = 1; k < numofWorkers; k++) {
+					final int candidate = (roundRobin + k) % numofWorkers;
+					if (headroom[candidate] > headroom[target]) {
+						target = candidate;
+					}
+				}
+				headroom[target] -= next.nprocs;
+				workers[target].assigned.add(next);
+				roundRobin = (target + 1) % numofWorkers;
+				jobs++;
+			}
+			// All workers simulate the window in parallel
+			for (Worker w : workers) {
+				w.out.writeByte(FederationWorker.window);
+				w.out.writeLong(windowEnd * 1000);
+				w.out.writeInt(w.assigned.size());
+				for (Job job : w.assigned) {
+					FederationWorker.writeJob(w.out, job);
+				}
+				w.out.flush();
+				w.assigned.clear();
+			}
+			int queuedVMs = 0;
+			for (Worker w : workers) {
+				w.state = FederationWorker.Report.read(w.in);
+				queuedVMs += w.state.queuedVMs;
+			}
+			peakQueuedVMs = Math.max(peakQueuedVMs, queuedVMs);
+			windowStart = windowEnd;
+			windows++;
+		}
+
+		JobDispatchingDemo.closeTrace(producer);
+		// No more jobs, the workers can complete their simulations
+		for (Worker w : workers) {
+			w.out.writeByte(FederationWorker.finish);
+			w.out.flush();
+		}
+		long simTime = 0;
+		long ignored = 0;
+		long destroyed = 0;
+		long vmcount = 0;
+		long jobsFinished = 0;
+		int peakQueueLength = 0;
+		for (Worker w : workers) {
+			final FederationWorker.Report last = FederationWorker.Report.read(w.in);
+			final long received = w.in.readLong();
+			ignored += w.in.readLong();
+			destroyed += w.in.readLong();
+			vmcount += w.in.readLong();
+			peakQueueLength = Math.max(peakQueueLength, w.in.readInt());
+			simTime = Math.max(simTime, last.simTime);
+			jobsFinished += last.jobsFinished;
+			w.socket.close();
+			if (w.process.waitFor() != 0) {
+				System.err.println("WARNING: worker " + w.id + " terminated abnormally, see "
+						+ w.log.getAbsolutePath());
+			}
+			System.err.println("Worker " + w.id + " - received jobs " + received + " finished jobs "
+					+ last.jobsFinished + " simulated time " + last.simTime);
+		}
+		long afterSimu = Calendar.getInstance().getTimeInMillis();
+		long duration = afterSimu - beforeSimu;
+
+		// Printing out generic timing and performance statistics:
+		System.err.println("Simulation terminated " + afterSimu + " (took " + duration + "ms in realtime)");
+		System.err.println("Current simulation time: " + simTime);
+		System.err.println("Simulated timespan: " + (simTime - startTime * 1000));
+		System.err.println("Final number of: Ignored jobs - " + ignored + " Destroyed VMs - " + destroyed);
+		System.err.println("Peak VM queue length: " + peakQueueLength);
+		System.err.println("Synchronisation windows: " + windows + " Peak federation VM queue length: "
+				+ peakQueuedVMs);
+		System.err.println("Performance: " + (((double) vmcount) / duration) + " VMs/ms ");
+
+		final String reportFile = System.getProperty(JobDispatchingDemo.reportProperty);
+		if (reportFile != null) {
+			final long simulatedTimespan = simTime - startTime * 1000;
+			final RunReport report = new RunReport();
+			report.put("trace", args[0]).put("jobs", args[1]).put("clouds", args[2]);
+			report.put("workers", numofWorkers);
+			report.put("windowLength", windowLength);
+			report.put("setupTimeMs", beforeSimu - beforeSetup);
+			report.put("simulationTimeMs", duration);
+			report.put("simulatedTimespan", simulatedTimespan);
+			report.put("speedup", (double) simulatedTimespan / duration);
+			report.put("windows", windows);
+			report.put("routedJobs", jobs);
+			report.put("jobsFinished", jobsFinished);
+			report.put("jobsPerSecond", jobsFinished * 1000.0 / duration);
+			report.put("completedVMs", vmcount);
+			report.put("vmsPerMs", (double) vmcount / duration);
+			report.put("ignoredJobs", ignored);
+			report.put("destroyedVMs", destroyed);
+			report.put("peakQueueLength", peakQueueLength);
+			report.putJVMStatistics();
+			report.write(new File(reportFile));
+			System.err.println("Run report written to " + reportFile);
+		}
+	}
+}
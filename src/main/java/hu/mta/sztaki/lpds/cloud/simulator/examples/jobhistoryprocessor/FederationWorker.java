@@ -0,0 +1,285 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.PhysicalMachineController;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.Scheduler;
+
+/**
+ * A single process of a federation simulation distributed over several local
+ * JVMs (see FederatedJobDispatchingDemo). The worker simulates its own share
+ * of the federation's clouds with its own dispatcher, and receives the jobs of
+ * the trace from the coordinator process through a local socket.
+ *
+ * The simulated time is synchronised with a conservative time window
+ * protocol: the coordinator sends the jobs submitted in the next window
+ * together with the end of the window, the worker simulates all of its events
+ * up to the end of the window and then reports its state back. As the jobs of
+ * a window are all known before the window is simulated, no worker ever has to
+ * roll back its simulation.
+ *
+ * The class also holds the message formats used between the coordinator and
+ * its workers.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class FederationWorker {
+	/**
+	 * The system properties the worker applies to its dispatcher, the
+	 * coordinator only passes these to its workers
+	 */
+	static final String[] forwardedProperties = { JobDispatchingDemo.streamingProperty,
+			JobDispatchingDemo.capacityIndexProperty, JobDispatchingDemo.heterogeneousProperty,
+			JobDispatchingDemo.batchingProperty, JobDispatchingDemo.vmPoolProperty,
+			JobDispatchingDemo.backpressureProperty, JobDispatchingDemo.coAllocationProperty,
+			JobDispatchingDemo.backfillingProperty, "hu.mta.sztaki.lpds.cloud.simulator.examples.verbosity" };
+	/**
+	 * Message tag: the jobs of the next time window follow
+	 */
+	static final byte window = 1;
+	/**
+	 * Message tag: there are no more jobs, the simulation should be completed
+	 */
+	static final byte finish = 2;
+
+	/**
+	 * The state of a worker at the end of a time window
+	 */
+	static class Report {
+		long simTime;
+		long jobsFinished;
+		int vmsInFlight;
+		int queuedVMs;
+		double freeCores;
+
+		void write(final DataOutputStream out) throws IOException {
+			out.writeLong(simTime);
+			out.writeLong(jobsFinished);
+			out.writeInt(vmsInFlight);
+			out.writeInt(queuedVMs);
+			out.writeDouble(freeCores);
+		}
+
+		static Report read(final DataInputStream in) throws IOException {
+			final Report r = new Report();
+			r.simTime = in.readLong();
+			r.jobsFinished = in.readLong();
+			r.vmsInFlight = in.readInt();
+			r.queuedVMs = in.readInt();
+			r.freeCores = in.readDouble();
+			return r;
+		}
+	}
+
+	/**
+	 * The trace of a worker, it offers the jobs received from the coordinator
+	 * so far to the dispatcher of the worker.
+	 */
+	private static class JobInbox implements GenericTraceProducer {
+		private final ArrayDeque<Job> arrived = new ArrayDeque<Job>();
+
+		@Override
+		public List<Job> getAllJobs() {
+			return getJobs(arrived.size());
+		}
+
+		@Override
+		public List<Job> getJobs(final int num) {
+			final int count = Math.min(num, arrived.size());
+			final List<Job> jobs = new ArrayList<Job>(count);
+			for (int i = 0; i < count; i++) {
+				jobs.add(arrived.poll());
+			}
+			return jobs;
+		}
+	}
+
+	/**
+	 * Sends a job to a worker. The dependencies between the jobs are not
+	 * transferred, thus the coordinator rejects dependency aware dispatching.
+	 */
+	static void writeJob(final DataOutputStream out, final Job job) throws IOException {
+		out.writeUTF(job.getId());
+		out.writeLong(job.getSubmittimeSecs());
+		out.writeLong(job.getQueuetimeSecs());
+		out.writeLong(job.getExectimeSecs());
+		out.writeInt(job.nprocs);
+		out.writeDouble(job.perProcCPUTime);
+		out.writeLong(job.usedMemory);
+		out.writeUTF(job.user == null ? "" : job.user);
+		out.writeUTF(job.group == null ? "" : job.group);
+		out.writeUTF(job.executable == null ? "" : job.executable);
+	}
+
+	static Job readJob(final DataInputStream in) throws IOException {
+		return new DCFJob(in.readUTF(), in.readLong(), in.readLong(), in.readLong(), in.readInt(), in.readDouble(),
+				in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(), null, 0);
+	}
+
+	/**
+	 * Simulates all events that are due before the given time, and moves the
+	 * simulated time to the given instance. Events due at the given time
+	 * remain unprocessed.
+	 * 
+	 * @param limit
+	 *            the time to advance to
+	 */
+	static void advanceTo(final long limit) {
+		long remaining = limit - Timed.getFireCount();
+		while (remaining > 0) {
+			remaining = Timed.jumpTime(remaining);
+			if (remaining > 0) {
+				// We stopped at an event before the limit
+				Timed.fire();
+				remaining = limit - Timed.getFireCount();
+			}
+		}
+	}
+
+	/**
+	 * Collects the state of the worker's clouds and dispatcher
+	 */
+	private static Report report(final List<IaaSService> iaasList, final MultiIaaSJobDispatcher dispatcher) {
+		final Report r = new Report();
+		r.simTime = Timed.getFireCount();
+		if (dispatcher != null) {
+			r.jobsFinished = dispatcher.getJobsFinished();
+			r.vmsInFlight = dispatcher.getVMsInFlight();
+		}
+		for (IaaSService iaas : iaasList) {
+			r.queuedVMs += iaas.sched.getQueueLength();
+			for (PhysicalMachine pm : iaas.machines) {
+				r.freeCores += pm.freeCapacities.getRequiredCPUs();
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Expected arguments: the coordinator's port, the worker's id, the number
+	 * of PMs per cloud, the number of cores per PM, the number of clouds, and
+	 * the class names of the VM scheduler and the PM controller of the clouds.
+	 */
+	public static void main(String[] args) throws Exception {
+		final int port = Integer.parseInt(args[0]);
+		final int id = Integer.parseInt(args[1]);
+		final Class<? extends Scheduler> vmSched = Class.forName(args[5]).asSubclass(Scheduler.class);
+		final Class<? extends PhysicalMachineController> pmSched = Class.forName(args[6])
+				.asSubclass(PhysicalMachineController.class);
+		final DatacenterBuilder builder = new DatacenterBuilder(Integer.parseInt(args[2]),
+				Integer.parseInt(args[3]), Integer.parseInt(args[4]), vmSched, pmSched);
+		final List<IaaSService> iaasList = builder.build();
+		// Wait until the PM Controllers finish their initial activities
+		Timed.simulateUntilLastEvent();
+
+		final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		socket.setTcpNoDelay(true);
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		out.writeInt(id);
+		out.writeLong(Timed.getFireCount());
+		out.flush();
+		System.err.println("Worker " + id + " is ready with " + iaasList.size() + " clouds at "
+				+ Timed.getFireCount());
+
+		final JobInbox inbox = new JobInbox();
+		MultiIaaSJobDispatcher dispatcher = null;
+		long received = 0;
+		byte tag;
+		while ((tag = in.readByte()) == window) {
+			final long end = in.readLong();
+			final int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				inbox.arrived.add(readJob(in));
+			}
+			received += count;
+			if (count > 0) {
+				if (dispatcher == null) {
+					// The dispatcher is only created with the first jobs so
+					// its trace starts at the first job's submission
+					dispatcher = new MultiIaaSJobDispatcher(inbox, iaasList,
+							Integer.getInteger(JobDispatchingDemo.streamingProperty, 10000));
+					dispatcher.setOpenTrace(true);
+					dispatcher.setCapacityIndexedTargetSelection(
+							System.getProperty(JobDispatchingDemo.capacityIndexProperty) != null);
+					dispatcher.setHeterogeneousSplitting(
+							System.getProperty(JobDispatchingDemo.heterogeneousProperty) != null);
+					dispatcher.setBatchedSubmission(System.getProperty(JobDispatchingDemo.batchingProperty) != null);
+					dispatcher.setVMPooling(Long.getLong(JobDispatchingDemo.vmPoolProperty, 0));
+					dispatcher.setAdmissionWatermark(Integer.getInteger(JobDispatchingDemo.backpressureProperty, 0));
+					dispatcher.setCoAllocation(
+							System.getProperty(JobDispatchingDemo.coAllocationProperty) != null);
+					dispatcher.setBackfilling(System.getProperty(JobDispatchingDemo.backfillingProperty) != null);
+				} else {
+					dispatcher.jobsArrived();
+				}
+			}
+			// Events at the end of the window can still be affected by the
+			// jobs of the next window
+			advanceTo(end - 1);
+			report(iaasList, dispatcher).write(out);
+			out.flush();
+		}
+		if (tag != finish) {
+			throw new IOException("Unexpected message from the coordinator: " + tag);
+		}
+		if (dispatcher != null) {
+			dispatcher.setOpenTrace(false);
+		}
+		Timed.simulateUntilLastEvent();
+
+		long vmcount = 0;
+		for (IaaSService iaas : iaasList) {
+			for (PhysicalMachine pm : iaas.machines) {
+				vmcount += pm.getCompletedVMs();
+			}
+		}
+		final Report last = report(iaasList, dispatcher);
+		last.write(out);
+		out.writeLong(received);
+		out.writeLong(dispatcher == null ? 0 : dispatcher.getIgnorecounter());
+		out.writeLong(dispatcher == null ? 0 : dispatcher.getDestroycounter());
+		out.writeLong(vmcount);
+		out.writeInt(dispatcher == null ? 0 : dispatcher.getMaxQueueLength());
+		out.flush();
+		socket.close();
+		System.err.println("Worker " + id + " terminated at " + Timed.getFireCount() + " after " + received
+				+ " jobs");
+	}
+}
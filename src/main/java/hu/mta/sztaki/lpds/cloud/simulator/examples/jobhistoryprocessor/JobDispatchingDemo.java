@@ -25,14 +25,13 @@
 package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.List;
 
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
-import hu.mta.sztaki.lpds.cloud.simulator.energy.powermodelling.PowerState;
+import hu.mta.sztaki.lpds.cloud.simulator.examples.SimulationProfiler;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.FileBasedTraceProducerFactory;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.TraceFilter;
@@ -44,9 +43,7 @@ import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.PhysicalMachineContr
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.SchedulingDependentMachines;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
 import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.Scheduler;
-import hu.mta.sztaki.lpds.cloud.simulator.io.Repository;
 import hu.mta.sztaki.lpds.cloud.simulator.util.CloudLoader;
-import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
 
 /**
  * This command line program sets up one or more cloud infrastructures, sends a
@@ -68,6 +65,209 @@ import hu.mta.sztaki.lpds.cloud.simulator.util.PowerTransitionGenerator;
  *         MTA SZTAKI (c) 2012-5"
  */
 public class JobDispatchingDemo {
+	/**
+	 * If this system property is set, the trace is not loaded completely
+	 * before the simulation. Instead, the dispatcher streams the trace with a
+	 * look-ahead buffer of the specified number of jobs.
+	 */
+	public static final String streamingProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.streaming";
+	/**
+	 * If this system property is set, workload files are read through their
+	 * binary trace cache (which is created on the first use of the workload
+	 * file).
+	 */
+	public static final String traceCacheProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.tracecache";
+	/**
+	 * If this system property is set, the dispatcher sends the VM requests to
+	 * the cloud with the best fitting free capacity instead of the round robin
+	 * selection of the target cloud.
+	 */
+	public static final String capacityIndexProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.capacityindex";
+	/**
+	 * If this system property is set, the dispatcher splits the jobs to VMs
+	 * according to the PMs of the cloud the job is sent to (useful for clouds
+	 * loaded from mixed cloud definitions).
+	 */
+	public static final String heterogeneousProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.heterogeneous";
+	/**
+	 * If this system property is set, the dispatcher collects the VM requests
+	 * of the jobs that are due at the same time and sends them in groups to
+	 * the target clouds.
+	 */
+	public static final String batchingProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.batching";
+	/**
+	 * If this system property is set, the VMs of completed jobs are kept
+	 * running for the specified number of ticks so they can be reused by later
+	 * jobs.
+	 */
+	public static final String vmPoolProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.vmpool";
+	/**
+	 * If this system property is set, the dispatcher holds back the jobs while
+	 * their target cloud has at least the specified number of VM requests in
+	 * its scheduler queue.
+	 */
+	public static final String backpressureProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.backpressure";
+	/**
+	 * If this system property is set (in the form of time@file), the state of
+	 * the run is written to the file at the first point after the given
+	 * simulated time when all jobs dispatched so far have completed (see
+	 * DispatchCheckpoint for how long this can be deferred). The run fails if
+	 * the checkpoint could not be taken.
+	 */
+	public static final String checkpointProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.checkpoint";
+	/**
+	 * If this system property is set, the run continues from the checkpoint
+	 * file specified in the property.
+	 */
+	public static final String resumeProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.resume";
+	/**
+	 * If this system property is set, the synthetic traces are generated on
+	 * demand with the seed specified in the property (instead of generating
+	 * the complete trace before the simulation). The dispatcher streams such
+	 * traces even if the streaming property is not set.
+	 */
+	public static final String lazyTraceProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.lazytrace";
+	/**
+	 * If this system property is set, a machine readable performance report
+	 * of the run is written to the specified file (CSV if the file name ends
+	 * with .csv, JSON otherwise). The simulator does not count the events it
+	 * processes, so the event figure of the report (dispatcherEvents) only
+	 * counts the events delivered to the dispatcher.
+	 */
+	public static final String reportProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.report";
+	/**
+	 * If this system property is set, the outcome of every job is streamed to
+	 * the specified CSV file during the simulation
+	 */
+	public static final String resultsProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.results";
+	/**
+	 * Requests the VMs of a job only when all of them fit their target
+	 * clouds, so they boot together
+	 */
+	public static final String coAllocationProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.coallocation";
+	/**
+	 * Lets the jobs held back by the co-allocation start before the first
+	 * held job if they do not delay its expected start (EASY backfilling),
+	 * cannot be combined with VM pooling
+	 */
+	public static final String backfillingProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.backfilling";
+	/**
+	 * Switches on the dependency aware dispatching of workflow traces (the
+	 * jobs with a predecessor are released once their predecessor completes)
+	 */
+	public static final String dagProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.dag";
+	/**
+	 * If this system property is set, the outages of the specified failure
+	 * trace are replayed against the PMs of the clouds (see FailureInjector)
+	 */
+	public static final String failuresProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.failures";
+	/**
+	 * The number of times a job hit by a failure is tried again (none by
+	 * default)
+	 */
+	public static final String retriesProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.retries";
+	/**
+	 * The seconds to wait before the first retry of a failed job (60 by
+	 * default), doubled for every further retry
+	 */
+	public static final String retryDelayProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.retrydelay";
+
+	/**
+	 * Releases the resources held by a trace producer once the run no longer
+	 * needs its jobs (e.g., the mapping of the binary trace cache).
+	 * 
+	 * @param producer
+	 *            the producer returned by loadTrace
+	 */
+	static void closeTrace(final GenericTraceProducer producer) throws IOException {
+		if (producer instanceof MappedTraceProducer) {
+			((MappedTraceProducer) producer).close();
+		}
+	}
+
+	/**
+	 * Prepares the producer of the jobs for a run (the first command line
+	 * argument of the demo).
+	 * 
+	 * @param trace
+	 *            the workload file or the generic random trace
+	 *            characteristics
+	 * @param from
+	 *            the index of the first job to be processed
+	 * @param to
+	 *            the index of the job after the last one to be processed
+	 * @param filterSpec
+	 *            the time at which the selected jobs should be running or
+	 *            <code>null</code> if all jobs of the range are needed
+	 * @param maxTotalProcs
+	 *            the number of processors in all clouds
+	 * @return the producer of the selected jobs
+	 */
+	static GenericTraceProducer loadTrace(final String trace, final int from, final int to,
+			final String filterSpec, final int maxTotalProcs) throws Exception {
+		GenericTraceProducer producer;
+		// shows if the time filter was applied with the time index of the
+		// trace cache
+		boolean indexedFilter = false;
+		if (new File(trace).exists()) {
+			// The trace comes from a file, we need to see what kind to pick the
+			// right loader
+			if (System.getProperty(traceCacheProperty) != null) {
+				final File cache = BinaryTraceCache.convert(new File(trace), maxTotalProcs);
+				final MappedTraceProducer mapped = new MappedTraceProducer(cache, from, to, DCFJob.class);
+				if (filterSpec != null) {
+					// The running jobs are looked up in the time index of the
+					// cache instead of filtering the complete range
+					final TraceTimeIndex index = TraceTimeIndex.forCache(cache);
+					mapped.select(index.runningAt(Long.parseLong(filterSpec)));
+					index.close();
+					indexedFilter = true;
+				}
+				producer = mapped;
+			} else {
+				producer = FileBasedTraceProducerFactory.getProducerFromFile(trace, from, to, false,
+						maxTotalProcs, DCFJob.class);
+			}
+		} else {
+			// The trace comes in the form of generic random trace
+			// characteristics.
+			String[] params = trace.split("/");
+			if (System.getProperty(lazyTraceProperty) != null) {
+				// The jobs are generated on demand, so the trace is never
+				// completely in the memory
+				final LazyRandomTraceGenerator lazygen = new LazyRandomTraceGenerator(DCFJob.class,
+						Long.getLong(lazyTraceProperty, 0));
+				producer = lazygen;
+				lazygen.setJobNum(to - from);
+				lazygen.setParallel(Integer.parseInt(params[0]));
+				lazygen.setMaxStartSpread(Integer.parseInt(params[1]));
+				lazygen.setExecmin(Integer.parseInt(params[2]));
+				lazygen.setExecmax(Integer.parseInt(params[3]));
+				lazygen.setMingap(Integer.parseInt(params[4]));
+				lazygen.setMaxgap(Integer.parseInt(params[5]));
+				lazygen.setMinNodeProcs(Integer.parseInt(params[6]));
+				lazygen.setMaxNodeprocs(Integer.parseInt(params[7]));
+				lazygen.setMaxTotalProcs(Integer.parseInt(params[8]));
+			} else {
+				RepetitiveRandomTraceGenerator trgen = new RepetitiveRandomTraceGenerator(DCFJob.class);
+				producer = trgen;
+				trgen.setJobNum(to - from);
+				trgen.setParallel(Integer.parseInt(params[0]));
+				trgen.setMaxStartSpread(Integer.parseInt(params[1]));
+				trgen.setExecmin(Integer.parseInt(params[2]));
+				trgen.setExecmax(Integer.parseInt(params[3]));
+				trgen.setMingap(Integer.parseInt(params[4]));
+				trgen.setMaxgap(Integer.parseInt(params[5]));
+				trgen.setMinNodeProcs(Integer.parseInt(params[6]));
+				trgen.setMaxNodeprocs(Integer.parseInt(params[7]));
+				trgen.setMaxTotalProcs(Integer.parseInt(params[8]));
+			}
+		}
+		if (filterSpec != null && !indexedFilter) {
+			producer = new TraceFilter(producer, new RunningAtaGivenTime(Long.parseLong(filterSpec)));
+		}
+		return producer;
+	}
 
 	@SuppressWarnings("unchecked")
 	public static void main(String[] args) throws Exception {
@@ -116,8 +316,51 @@ public class JobDispatchingDemo {
 			System.out.println(
 					"4. energy monitoring polling frequency (only needed when the second parameter does not start with +)");
 			System.out.println("4 - example) 5000");
+			System.out.println(
+					"5. (optional, 4th if there is no monitoring) profile: records the simulation with Java Flight Recorder");
+			System.out.println("\t the recording is written next to the monitoring results (trace file + .jfr) or to "
+					+ "JobDispatchingDemo.jfr for synthetic traces");
+			System.out.println("Optional system properties:");
+			System.out.println("-D" + streamingProperty
+					+ "=N streams the trace through a window of N jobs instead of loading it completely");
+			System.out.println("-D" + lazyTraceProperty
+					+ "=SEED generates synthetic traces on demand in constant memory (implies streaming)");
+			System.out.println("-D" + traceCacheProperty
+					+ " reads workload files through a memory mapped binary cache (created on first use)");
+			System.out.println("\t with a time filter (@time) the running jobs are found with the cache's time index");
+			System.out.println("-D" + capacityIndexProperty
+					+ " selects the target cloud by its free capacity instead of round robin");
+			System.out.println("-D" + heterogeneousProperty
+					+ " sizes the VMs of a job according to the PMs of the cloud it is sent to");
+			System.out.println("-D" + batchingProperty
+					+ " groups the VM requests of simultaneously submitted jobs by target cloud and VM size");
+			System.out.println("-D" + vmPoolProperty
+					+ "=N keeps the VMs of completed jobs running for N ticks so later jobs can reuse them");
+			System.out.println("-D" + backpressureProperty
+					+ "=N holds jobs in the dispatcher while their cloud has N or more queued VM requests");
+			System.out.println("-D" + resultsProperty
+					+ "=FILE streams the outcome of every job (queue and stop times, VMs, clouds) to a CSV file");
+			System.out.println("-D" + coAllocationProperty
+					+ " requests the VMs of a job only when all of them fit the uncommitted capacity of their clouds");
+			System.out.println("-D" + backfillingProperty
+					+ " backfills the jobs held by the co-allocation using the trace's runtimes (implies co-allocation, not with VM pooling)");
+			System.out.println("-D" + dagProperty
+					+ " dispatches the jobs of workflow traces once their predecessor completes (not with streaming)");
+			System.out.println("-D" + failuresProperty
+					+ "=FILE replays the node outages of a failure trace (node id, start, end or FTA events) against the PMs");
+			System.out.println("-D" + retriesProperty
+					+ "=N tries the jobs hit by a failure again at most N times (defaults to 0)");
+			System.out.println("-D" + retryDelayProperty
+					+ "=S waits S seconds before the first retry of a failed job, doubled for further retries (defaults to 60)");
+			System.out.println("-D" + checkpointProperty
+					+ "=T@FILE saves the run to FILE at the first point after simulated time T when no jobs are running");
+			System.out.println("-D" + resumeProperty
+					+ "=FILE continues the run from a checkpoint (the job range can end later than in the original run)");
+			System.out.println("-D" + reportProperty
+					+ "=FILE writes a performance report of the run to FILE (appended as a CSV row for .csv files, JSON otherwise, events are counted for the dispatcher only)");
 			System.exit(0);
 		}
+		final long beforeSetup = Calendar.getInstance().getTimeInMillis();
 
 		// The preparation of the clouds
 		List<IaaSService> iaasList = new ArrayList<IaaSService>();
@@ -165,54 +408,16 @@ public class JobDispatchingDemo {
 			System.err.println(
 					"Using schedulers: " + vmSched.getName() + " for VMs and " + pmSched.getName() + " for PMs");
 			// Creating the each cloud requested
-			for (int clid = 0; clid < numofClouds; clid++) {
-				int numofNodes = totNumofNodes / numofClouds;
+			int numofNodes = totNumofNodes / numofClouds;
+			System.err.println("Scaling " + numofClouds + " datacenter(s) to " + numofNodes + " nodes with "
+					+ numofCores + " cpu cores each");
+			if (numofNodes * numofClouds != totNumofNodes) {
 				System.err.println(
-						"Scaling datacenter to " + numofNodes + " nodes with " + numofCores + " cpu cores each");
-				if (numofNodes * numofClouds != totNumofNodes) {
-					System.err.println(
-							"WARNING: with equally sized clouds we cannot reach the total number of nodes specified!");
-				}
-				// Default constructs
-
-				HashMap<String, Integer> latencyMapRepo = new HashMap<String, Integer>(numofNodes + 2);
-				HashMap<String, Integer> latencyMapMachine = new HashMap<String, Integer>(numofNodes + 2);
-				IaaSService iaas = new IaaSService(vmSched, pmSched);
-				final String repoid = clid + "VHStorageDell";
-				final String machineid = clid + "VHNode";
-
-				// Creating the Repositories for the cloud
-
-				// scaling the bandwidth accroding to the size of the cloud
-				final double bwRatio = (numofCores * numofNodes) / (7f * 64f);
-				// A single repo will hold 36T of data
-				iaas.registerRepository(new Repository(36000000000000l, repoid, (long) (bwRatio * 1250000),
-						(long) (bwRatio * 1250000), (long) (bwRatio * 250000), latencyMapRepo));
-				latencyMapMachine.put(repoid, 5); // 5 ms latency towards the
-													// repos
-
-				// Creating the PMs for the cloud
-
-				// Specification of the default power behavior in PMs
-				final EnumMap<PhysicalMachine.PowerStateKind, EnumMap<PhysicalMachine.State, PowerState>> transitions = PowerTransitionGenerator
-						.generateTransitions(20, 296, 493, 50, 108);
-				ArrayList<PhysicalMachine> completePMList = new ArrayList<PhysicalMachine>(numofNodes);
-				for (int i = 1; i <= numofNodes; i++) {
-					String currid = machineid + i;
-					final double pmBWRatio = Math.max(numofCores / 7f, 1);
-					PhysicalMachine pm = new PhysicalMachine(numofCores, 0.001, 256000000000l,
-							new Repository(5000000000000l, currid, (long) (pmBWRatio * 250000),
-									(long) (pmBWRatio * 250000), (long) (pmBWRatio * 50000), latencyMapMachine),
-							89000, 29000, transitions);
-					latencyMapRepo.put(currid, 5);
-					latencyMapMachine.put(currid, 3);
-					completePMList.add(pm);
-				}
-
-				// registering the hosts and the IaaS services
-				iaas.bulkHostRegistration(completePMList);
-				iaasList.add(iaas);
+						"WARNING: with equally sized clouds we cannot reach the total number of nodes specified!");
 			}
+			final DatacenterBuilder builder = new DatacenterBuilder(numofNodes, numofCores, numofClouds, vmSched,
+					pmSched);
+			iaasList.addAll(builder.build());
 		}
 		// Wait until the PM Controllers finish their initial activities
 		Timed.simulateUntilLastEvent();
@@ -239,50 +444,59 @@ public class JobDispatchingDemo {
 		}
 
 		// Loading the trace
-		GenericTraceProducer producer;
-		if (new File(args[0]).exists()) {
-			// The trace comes from a file, we need to see what kind to pick the
-			// right loader
-			int maxTotalProcs = 0;
-			for (IaaSService curr : iaasList) {
-				maxTotalProcs += curr.getCapacities().getRequiredCPUs();
-			}
-			producer = FileBasedTraceProducerFactory.getProducerFromFile(args[0], from, to, false, maxTotalProcs,
-					DCFJob.class);
-		} else {
-			// The trace comes in the form of generic random trace
-			// characteristics.
-			String[] params = args[0].split("/");
-			RepetitiveRandomTraceGenerator trgen = new RepetitiveRandomTraceGenerator(DCFJob.class);
-			producer = trgen;
-			trgen.setJobNum(to - from);
-			trgen.setParallel(Integer.parseInt(params[0]));
-			trgen.setMaxStartSpread(Integer.parseInt(params[1]));
-			trgen.setExecmin(Integer.parseInt(params[2]));
-			trgen.setExecmax(Integer.parseInt(params[3]));
-			trgen.setMingap(Integer.parseInt(params[4]));
-			trgen.setMaxgap(Integer.parseInt(params[5]));
-			trgen.setMinNodeProcs(Integer.parseInt(params[6]));
-			trgen.setMaxNodeprocs(Integer.parseInt(params[7]));
-			trgen.setMaxTotalProcs(Integer.parseInt(params[8]));
-		}
-
-		if (filterSpec != null) {
-			producer = new TraceFilter(producer, new RunningAtaGivenTime(Long.parseLong(filterSpec)));
+		int maxTotalProcs = 0;
+		for (IaaSService curr : iaasList) {
+			maxTotalProcs += curr.getCapacities().getRequiredCPUs();
 		}
+		final GenericTraceProducer producer = loadTrace(args[0], from, to, filterSpec, maxTotalProcs);
 
 		// Preparing for sending the jobs to the clouds with the dispatcher
-		MultiIaaSJobDispatcher dispatcher = new MultiIaaSJobDispatcher(producer, iaasList);
-		if (args.length > (doMonitoring ? 4 : 3)) {
-			Thread.sleep(50000);
+		int lookahead = Integer.getInteger(streamingProperty, 0);
+		if (lookahead <= 0 && producer instanceof LazyRandomTraceGenerator) {
+			// Loading the complete trace would defeat the lazy generation,
+			// the window covers a few rounds of parallel jobs
+			lookahead = Math.max(1000, 4 * ((LazyRandomTraceGenerator) producer).getParallel());
 		}
+		MultiIaaSJobDispatcher dispatcher = lookahead > 0
+				? new MultiIaaSJobDispatcher(producer, iaasList, lookahead)
+				: new MultiIaaSJobDispatcher(producer, iaasList);
+		dispatcher.setCapacityIndexedTargetSelection(System.getProperty(capacityIndexProperty) != null);
+		dispatcher.setHeterogeneousSplitting(System.getProperty(heterogeneousProperty) != null);
+		dispatcher.setBatchedSubmission(System.getProperty(batchingProperty) != null);
+		dispatcher.setVMPooling(Long.getLong(vmPoolProperty, 0));
+		dispatcher.setAdmissionWatermark(Integer.getInteger(backpressureProperty, 0));
+		dispatcher.setCoAllocation(System.getProperty(coAllocationProperty) != null);
+		dispatcher.setBackfilling(System.getProperty(backfillingProperty) != null);
+		dispatcher.setDependencyAwareDispatching(System.getProperty(dagProperty) != null);
+		dispatcher.setRetryPolicy(Integer.getInteger(retriesProperty, 0), Long.getLong(retryDelayProperty, 60) * 1000);
+		final String failureTrace = System.getProperty(failuresProperty);
+		if (failureTrace != null
+				&& (System.getProperty(checkpointProperty) != null || System.getProperty(resumeProperty) != null)) {
+			System.err.println("ERROR: failure traces cannot be replayed in checkpointed runs!");
+			System.exit(1);
+		}
+		final File recording = args.length > (doMonitoring ? 4 : 3)
+				? new File(new File(args[0]).exists() ? args[0] + ".jfr" : "JobDispatchingDemo.jfr")
+				: null;
 		long beforeSimu = Calendar.getInstance().getTimeInMillis();
-		System.err.println(
-				"Job dispatcher (with " + dispatcher.jobs.length + " jobs)  is completely prepared at " + beforeSimu);
-		// Moving the simulator's time just before the first event would come
-		// from the dispatcher
-		Timed.skipEventsTill(dispatcher.getMinsubmittime() * 1000);
+		System.err.println("Job dispatcher (with "
+				+ (dispatcher.jobs == null ? "a streamed trace" : dispatcher.jobs.length + " jobs")
+				+ ")  is completely prepared at " + beforeSimu);
+		DispatchCheckpoint resumed = null;
+		if (System.getProperty(resumeProperty) != null) {
+			resumed = DispatchCheckpoint.read(new File(System.getProperty(resumeProperty)));
+			resumed.checkScenario(args[0], args[2], from, filterSpec);
+			// Skipping the jobs already processed and moving the simulator's
+			// time to the checkpoint
+			dispatcher.resumeFrom(resumed);
+			System.err.println("Resumed after " + resumed.getJobsTaken() + " jobs");
+		} else {
+			// Moving the simulator's time just before the first event would
+			// come from the dispatcher
+			Timed.skipEventsTill(dispatcher.getMinsubmittime() * 1000);
+		}
 		System.err.println("Current simulation time: " + Timed.getFireCount());
+		StateMonitor monitor = null;
 		if (doMonitoring) {
 			// Final monitoring related CLI arguments parsing
 			final int interval = Integer.parseInt(args[3]);
@@ -292,13 +506,50 @@ public class JobDispatchingDemo {
 			}
 			// Creation of the state monitor object (it will register and
 			// deregister itself with timed once there are no more activites
-			// expected in the cloud, so we don't need to keep its reference)
-			new StateMonitor(args[0], dispatcher, iaasList, interval);
+			// expected in the cloud, its reference is only kept for
+			// checkpointing)
+			monitor = new StateMonitor(args[0], dispatcher, iaasList, interval);
+			if (resumed != null) {
+				monitor.restore(resumed);
+			}
+		}
+		final String checkpointSpec = System.getProperty(checkpointProperty);
+		if (checkpointSpec != null) {
+			final String[] cpParts = checkpointSpec.split("@", 2);
+			final DispatchCheckpoint cp = new DispatchCheckpoint(Long.parseLong(cpParts[0]), new File(cpParts[1]),
+					args[0], args[2], from, filterSpec);
+			cp.monitor = monitor;
+			dispatcher.setCheckpoint(cp);
+		}
+		FailureInjector failures = null;
+		if (failureTrace != null) {
+			failures = new FailureInjector(failureTrace, dispatcher, iaasList);
 		}
 		// Now everything is prepared for launching the simulation
 
+		final String resultsFile = System.getProperty(resultsProperty);
+		final JobResultSink results = resultsFile == null ? null : new JobResultSink(new File(resultsFile), 16);
+		dispatcher.setResultSink(results);
+
 		// The actual simulation
+		if (recording != null) {
+			SimulationProfiler.start(recording);
+		}
 		Timed.simulateUntilLastEvent();
+		SimulationProfiler.stop();
+		closeTrace(producer);
+		if (results != null) {
+			results.close();
+			System.err.println("Results of " + results.getRecords() + " jobs written to " + resultsFile);
+		}
+		final DispatchCheckpoint missedCheckpoint = dispatcher.getPendingCheckpoint();
+		if (missedCheckpoint != null) {
+			System.err.println("ERROR: the checkpoint requested after " + missedCheckpoint.requestedTime
+					+ " was not taken, " + (missedCheckpoint.deferredSince < 0
+							? "the dispatcher had no events after that time"
+							: "the dispatcher had jobs in flight at all of its events since "
+									+ missedCheckpoint.deferredSince));
+		}
 		// The simulation is complete all activities have finished by the
 		// dispatcher and monitor
 		long afterSimu = Calendar.getInstance().getTimeInMillis();
@@ -310,6 +561,32 @@ public class JobDispatchingDemo {
 		System.err.println("Simulated timespan: " + (Timed.getFireCount() - dispatcher.getMinsubmittime() * 1000));
 		System.err.println("Final number of: Ignored jobs - " + dispatcher.getIgnorecounter() + " Destroyed VMs - "
 				+ dispatcher.getDestroycounter());
+		System.err.println("Peak VM queue length: " + dispatcher.getMaxQueueLength());
+		System.err.println("Batched VM requests: " + dispatcher.getBatchedRequests());
+		System.err.println("Held jobs: " + dispatcher.getHeldJobs() + " Peak admission queue length: "
+				+ dispatcher.getMaxAdmissionQueueLength() + " Backfilled jobs: " + dispatcher.getBackfilledJobs());
+		System.err.println("Straggler wait: multi VM jobs - " + dispatcher.getMultiVMJobs() + " total - "
+				+ dispatcher.getTotalStragglerWait() + " ms max - " + dispatcher.getMaxStragglerWait()
+				+ " ms idle core seconds - " + dispatcher.getIdleCoreSeconds());
+		if (System.getProperty(dagProperty) != null) {
+			System.err.println("Released dependants: " + dispatcher.getReleasedDependants());
+		}
+		if (failures != null) {
+			System.err.println("Failures: PM outages - " + failures.getOutages() + " killed VMs - "
+					+ failures.getKilledVMs() + " failed attempts - " + dispatcher.getFailedAttempts()
+					+ " abandoned jobs - " + dispatcher.getAbandonedJobs());
+			System.err.println("Goodput: " + dispatcher.getGoodput() + " useful core seconds - "
+					+ dispatcher.getUsefulCoreSeconds() + " wasted core seconds - "
+					+ dispatcher.getWastedCoreSeconds());
+			System.err.println("Job slowdown: mean - " + dispatcher.getMeanSlowdown() + " retried jobs - "
+					+ dispatcher.getMeanRetriedSlowdown());
+		}
+		final VMPool pool = dispatcher.getVMPool();
+		if (pool != null) {
+			System.err.println("VM pool: hit rate - " + pool.getHitRate() + " reused VMs - " + pool.getHits()
+					+ " saved boot time - " + pool.getSavedBootTime() + " expired - " + pool.getExpired()
+					+ " evicted - " + pool.getEvicted());
+		}
 		long vmcount = 0;
 		for (IaaSService lociaas : iaasList) {
 			for (PhysicalMachine pm : lociaas.machines) {
@@ -317,5 +594,41 @@ public class JobDispatchingDemo {
 			}
 		}
 		System.err.println("Performance: " + (((double) vmcount) / duration) + " VMs/ms ");
+		System.err.println("Dispatcher events (not all simulator events): " + dispatcher.getDispatcherEvents());
+
+		final String reportFile = System.getProperty(reportProperty);
+		if (reportFile != null) {
+			final long simulatedTimespan = Timed.getFireCount() - dispatcher.getMinsubmittime() * 1000;
+			final long jobsFinished = dispatcher.getJobsFinished();
+			final RunReport report = new RunReport();
+			report.put("trace", args[0]).put("jobs", args[1]).put("clouds", args[2]);
+			report.put("setupTimeMs", beforeSimu - beforeSetup);
+			report.put("simulationTimeMs", duration);
+			report.put("simulatedTimespan", simulatedTimespan);
+			report.put("speedup", (double) simulatedTimespan / duration);
+			report.put("dispatcherEvents", dispatcher.getDispatcherEvents());
+			report.put("jobsFinished", jobsFinished);
+			report.put("jobsPerSecond", jobsFinished * 1000.0 / duration);
+			report.put("completedVMs", vmcount);
+			report.put("vmsPerMs", (double) vmcount / duration);
+			report.put("ignoredJobs", dispatcher.getIgnorecounter());
+			report.put("destroyedVMs", dispatcher.getDestroycounter());
+			report.put("peakQueueLength", dispatcher.getMaxQueueLength());
+			report.put("stragglerWaitMs", dispatcher.getTotalStragglerWait());
+			report.put("idleCoreSeconds", dispatcher.getIdleCoreSeconds());
+			report.put("failedAttempts", dispatcher.getFailedAttempts());
+			report.put("wastedCoreSeconds", dispatcher.getWastedCoreSeconds());
+			report.put("goodput", dispatcher.getGoodput());
+			report.put("meanSlowdown", dispatcher.getMeanSlowdown());
+			report.put("backfilledJobs", dispatcher.getBackfilledJobs());
+			report.putJVMStatistics();
+			report.write(new File(reportFile));
+			System.err.println("Run report written to " + reportFile);
+		}
+		if (missedCheckpoint != null) {
+			// the statistics are still printed, but the run did not do what
+			// it was asked for
+			System.exit(1);
+		}
 	}
 }
@@ -0,0 +1,295 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a parameter sweep of JobDispatchingDemo. As the simulator has a single
+ * global clock, every scenario of the sweep is run in its own JVM. A bounded
+ * number of JVMs run in parallel (by default as many as the number of cores in
+ * the machine).
+ *
+ * The sweep is described with a text file, every non empty line (that does not
+ * start with #) is the argument list for a single run of JobDispatchingDemo.
+ * Arguments starting with -D are passed to the JVM of the run as system
+ * properties. Alternatives listed in curly braces (e.g., 1000@{16,32,64}) are
+ * expanded, so a single line can describe a complete grid of runs.
+ *
+ * The output of every run is saved in its own log file, and the statistics
+ * printed by the demo (i.e., the lines in the form of "key: value") are
+ * collected in a single CSV table. Runs that crash or time out are recorded
+ * in the table with their exit status and do not stop the sweep.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class JobDispatchingSweep {
+	/**
+	 * The maximum wall clock time (in seconds) a single run is allowed to take
+	 */
+	public static final String timeoutProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.sweep.timeout";
+	/**
+	 * The heap size of the JVMs running the scenarios (e.g., 4g)
+	 */
+	public static final String heapProperty = "hu.mta.sztaki.lpds.cloud.simulator.examples.sweep.heap";
+
+	private static final Pattern alternatives = Pattern.compile("\\{([^{}]*)\\}");
+	private static final Pattern statistic = Pattern.compile("^([A-Za-z][A-Za-z ]*[A-Za-z]): (.*)$");
+	private static final Pattern realtime = Pattern.compile("took (\\d+)ms in realtime");
+
+	/**
+	 * The outcome of a single run
+	 */
+	private static class RunResult {
+		final int id;
+		final String spec;
+		int exitCode = -1;
+		volatile boolean timedOut = false;
+		long wallClock;
+		final LinkedHashMap<String, String> stats = new LinkedHashMap<String, String>();
+
+		RunResult(final int id, final String spec) {
+			this.id = id;
+			this.spec = spec;
+		}
+	}
+
+	/**
+	 * Expands the alternatives in a single line of the sweep description.
+	 *
+	 * @param line
+	 *            the line with zero or more sets of alternatives
+	 * @param into
+	 *            the list where all the expanded lines are added
+	 */
+	static void expand(final String line, final List<String> into) {
+		final Matcher m = alternatives.matcher(line);
+		if (!m.find()) {
+			into.add(line);
+			return;
+		}
+		final String prefix = line.substring(0, m.start());
+		final String suffix = line.substring(m.end());
+		for (String alternative : m.group(1).split(",")) {
+			expand(prefix + alternative.trim() + suffix, into);
+		}
+	}
+
+	/**
+	 * Runs a single scenario in a new JVM and collects its statistics.
+	 */
+	private static RunResult runScenario(final int id, final String spec, final File logDir,
+			final ScheduledExecutorService watchdog, final long timeout) throws IOException {
+		final RunResult result = new RunResult(id, spec);
+		final List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		final String heap = System.getProperty(heapProperty);
+		if (heap != null) {
+			command.add("-Xmx" + heap);
+		}
+		final List<String> demoArgs = new ArrayList<String>();
+		for (String arg : spec.trim().split("\\s+")) {
+			if (arg.startsWith("-D")) {
+				command.add(arg);
+			} else {
+				demoArgs.add(arg);
+			}
+		}
+		command.add(JobDispatchingDemo.class.getName());
+		command.addAll(demoArgs);
+
+		final File log = new File(logDir, "run-" + id + ".log");
+		final ProcessBuilder pb = new ProcessBuilder(command);
+		pb.redirectErrorStream(true);
+		pb.redirectOutput(log);
+		final long before = System.currentTimeMillis();
+		final Process p = pb.start();
+		ScheduledFuture<?> killer = null;
+		if (timeout > 0) {
+			killer = watchdog.schedule(new Runnable() {
+				@Override
+				public void run() {
+					result.timedOut = true;
+					p.destroy();
+				}
+			}, timeout, TimeUnit.SECONDS);
+		}
+		try {
+			result.exitCode = p.waitFor();
+		} catch (InterruptedException e) {
+			p.destroy();
+			Thread.currentThread().interrupt();
+		}
+		if (killer != null) {
+			killer.cancel(false);
+		}
+		result.wallClock = System.currentTimeMillis() - before;
+
+		final BufferedReader br = new BufferedReader(new FileReader(log));
+		try {
+			String line;
+			while ((line = br.readLine()) != null) {
+				final Matcher sm = statistic.matcher(line);
+				if (sm.matches()) {
+					result.stats.put(sm.group(1), sm.group(2).trim());
+				}
+				final Matcher rm = realtime.matcher(line);
+				if (rm.find()) {
+					result.stats.put("Simulation realtime ms", rm.group(1));
+				}
+			}
+		} finally {
+			br.close();
+		}
+		return result;
+	}
+
+	private static String csv(final String value) {
+		if (value == null) {
+			return "";
+		}
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * Writes out the merged table of all runs
+	 */
+	private static void writeTable(final List<RunResult> results, final PrintStream out) {
+		final LinkedHashSet<String> columns = new LinkedHashSet<String>();
+		for (RunResult r : results) {
+			columns.addAll(r.stats.keySet());
+		}
+		final StringBuilder sb = new StringBuilder("run,status,exit code,wall clock ms,arguments");
+		for (String c : columns) {
+			sb.append(',').append(csv(c));
+		}
+		out.println(sb);
+		for (RunResult r : results) {
+			sb.setLength(0);
+			sb.append(r.id).append(',').append(r.timedOut ? "TIMEOUT" : r.exitCode == 0 ? "OK" : "FAILED")
+					.append(',').append(r.exitCode).append(',').append(r.wallClock).append(',').append(csv(r.spec));
+			for (String c : columns) {
+				sb.append(',').append(csv(r.stats.get(c)));
+			}
+			out.println(sb);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.out.println("Expected parameters:");
+			System.out.println("1. sweep description file: every line is the argument list of a JobDispatchingDemo run");
+			System.out.println("\t -D prefixed arguments are passed as system properties of the run");
+			System.out.println("\t alternatives in curly braces are expanded, e.g.: 2/10/10/90/200/200/1/2/4 +1000 {500,1000}@16");
+			System.out.println("2. output directory for the run logs and the merged results.csv");
+			System.out.println("3. (optional) number of runs in parallel, defaults to the number of cores");
+			System.out.println("Optional system properties:");
+			System.out.println("-D" + timeoutProperty + "=N kills runs that take more than N seconds");
+			System.out.println("-D" + heapProperty + "=SIZE sets the maximum heap of the runs (e.g., 4g)");
+			System.exit(0);
+		}
+		final List<String> specs = new ArrayList<String>();
+		final BufferedReader br = new BufferedReader(new FileReader(args[0]));
+		try {
+			String line;
+			while ((line = br.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					expand(line, specs);
+				}
+			}
+		} finally {
+			br.close();
+		}
+		final File outDir = new File(args[1]);
+		if (!outDir.isDirectory() && !outDir.mkdirs()) {
+			throw new IOException("Cannot create the output directory " + outDir);
+		}
+		final int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		final long timeout = Long.getLong(timeoutProperty, 0);
+		System.err.println("Sweeping " + specs.size() + " runs with " + workers + " parallel JVMs");
+
+		final ExecutorService pool = Executors.newFixedThreadPool(workers);
+		final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
+		final List<Future<RunResult>> futures = new ArrayList<Future<RunResult>>(specs.size());
+		for (int i = 0; i < specs.size(); i++) {
+			final int id = i;
+			final String spec = specs.get(i);
+			futures.add(pool.submit(new Callable<RunResult>() {
+				@Override
+				public RunResult call() throws Exception {
+					final RunResult r = runScenario(id, spec, outDir, watchdog, timeout);
+					System.err.println("Run " + id + " finished in " + r.wallClock + "ms with exit code "
+							+ r.exitCode + (r.timedOut ? " (timed out)" : "") + ": " + spec);
+					return r;
+				}
+			}));
+		}
+		final List<RunResult> results = new ArrayList<RunResult>(specs.size());
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				results.add(futures.get(i).get());
+			} catch (Exception e) {
+				// the JVM of the run could not even be started
+				System.err.println("Run " + i + " could not be executed: " + e.getMessage());
+				results.add(new RunResult(i, specs.get(i)));
+			}
+		}
+		pool.shutdown();
+		watchdog.shutdownNow();
+
+		final PrintStream out = new PrintStream(new File(outDir, "results.csv"));
+		try {
+			writeTable(results, out);
+		} finally {
+			out.close();
+		}
+		int failed = 0;
+		for (RunResult r : results) {
+			if (r.exitCode != 0) {
+				failed++;
+			}
+		}
+		System.err.println("Sweep complete, " + failed + " of " + results.size() + " runs failed. Results: "
+				+ new File(outDir, "results.csv").getAbsolutePath());
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+
+/**
+ * The dispatcher's plan for a single job: the job is split to one or more
+ * parts, each part is a set of uniform VMs to be requested from a particular
+ * target cloud. Once the parts are requested, the VMs of the job are collected
+ * here as well.
+ *
+ * @author "agent, (c) 2026"
+ */
+class JobRequest {
+	/**
+	 * the job to be executed, only passed to its runner
+	 */
+	final Job job;
+	final int nprocs;
+	final long exectime;
+	final double perProcCPUTime;
+	/**
+	 * the number of parts planned so far
+	 */
+	int parts = 0;
+	/**
+	 * the target cloud of each part
+	 */
+	final int[] clouds;
+	/**
+	 * the number of VMs in each part
+	 */
+	final int[] counts;
+	/**
+	 * the number of cores for each VM of a part
+	 */
+	final double[] procs;
+	/**
+	 * the per core processing power for each VM of a part
+	 */
+	final double[] procPower;
+	/**
+	 * the position of the first VM of each part in the vms array
+	 */
+	final int[] offsets;
+	/**
+	 * the total number of VMs planned for the job
+	 */
+	int vmCount = 0;
+	/**
+	 * the VMs of the job (allocated when the planning is complete)
+	 */
+	VirtualMachine[] vms;
+	/**
+	 * the target cloud of each VM
+	 */
+	int[] targetIndexes;
+	/**
+	 * the number of cores of each VM
+	 */
+	double[] vmCores;
+	/**
+	 * shows if any of the parts could not be requested
+	 */
+	boolean failed = false;
+	/**
+	 * the time (in ms) a job hit by a failure can be dispatched again
+	 */
+	long releaseTime;
+
+	JobRequest(final Job job, final int nprocs, final long exectime, final double perProcCPUTime,
+			final int maxParts) {
+		this.job = job;
+		this.nprocs = nprocs;
+		this.exectime = exectime;
+		this.perProcCPUTime = perProcCPUTime;
+		clouds = new int[maxParts];
+		counts = new int[maxParts];
+		procs = new double[maxParts];
+		procPower = new double[maxParts];
+		offsets = new int[maxParts];
+	}
+
+	/**
+	 * Plans a new part for the job
+	 */
+	void addPart(final int cloud, final int count, final double cores, final double pp) {
+		clouds[parts] = cloud;
+		counts[parts] = count;
+		procs[parts] = cores;
+		procPower[parts] = pp;
+		offsets[parts] = vmCount;
+		vmCount += count;
+		parts++;
+	}
+
+	/**
+	 * Prepares the arrays for collecting the VMs of the planned parts
+	 */
+	void planningComplete() {
+		vms = new VirtualMachine[vmCount];
+		targetIndexes = new int[vmCount];
+		vmCores = new double[vmCount];
+	}
+
+	/**
+	 * Records the VMs requested for a particular part.
+	 *
+	 * @param part
+	 *            the part the VMs were requested for
+	 * @param from
+	 *            the VMs received from the target cloud
+	 * @param fromIndex
+	 *            the position of the part's first VM in the received array
+	 */
+	void setVMs(final int part, final VirtualMachine[] from, final int fromIndex) {
+		System.arraycopy(from, fromIndex, vms, offsets[part], counts[part]);
+		for (int i = offsets[part] + counts[part] - 1; i >= offsets[part]; i--) {
+			targetIndexes[i] = clouds[part];
+			vmCores[i] = procs[part];
+		}
+	}
+}
@@ -0,0 +1,274 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+
+/**
+ * Streams the outcome of every job of a run to a CSV file. The records are
+ * formatted on the simulation thread into fixed size chunks, and the full
+ * chunks are written out by a background thread. The chunks travel through a
+ * bounded queue and they are reused once written, thus the memory used by the
+ * sink does not depend on the number of jobs. If the disk cannot keep up, the
+ * simulation waits for a free chunk.
+ *
+ * Every record has the following fields: the job's id, its status (completed,
+ * ignored, or failed if it was hit by failures more times than its retries
+ * allowed), its submission time in the trace, its real queue and stop time
+ * (in seconds relative to the submission, as recorded in DCFJob), the number
+ * of processors and VMs it used, the target clouds of its VMs (separated with
+ * |), its straggler wait (in ms) and the idle core-seconds of its VMs while
+ * waiting for the straggler. The fields that do not apply to a job that was
+ * not executed are left empty.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class JobResultSink implements Runnable {
+	public static final String HEADER = "id,status,submit,queue,stop,nprocs,vms,clouds,stragglerwait,idlecoresecs";
+
+	/**
+	 * The size of a chunk in characters, a chunk is handed over to the writer
+	 * thread once it is filled up to this size
+	 */
+	private static final int chunkSize = 64 * 1024;
+	/**
+	 * Marks the end of the records for the writer thread
+	 */
+	private static final StringBuilder endOfRecords = new StringBuilder(0);
+
+	/**
+	 * The chunks waiting to be written
+	 */
+	private final ArrayBlockingQueue<StringBuilder> filled;
+	/**
+	 * The chunks already written and ready for reuse
+	 */
+	private final ArrayBlockingQueue<StringBuilder> empty;
+	/**
+	 * The chunk the records are currently formatted to
+	 */
+	private StringBuilder current;
+	private final Writer out;
+	private final Thread writerThread;
+	/**
+	 * The problem the writer thread ran into (if any)
+	 */
+	private volatile IOException failure = null;
+	private long records = 0;
+
+	/**
+	 * Creates the result file and starts the writer thread
+	 *
+	 * @param file
+	 *            the CSV file to be written
+	 * @param queuedChunks
+	 *            the maximum number of filled chunks waiting for the writer
+	 * @throws IOException
+	 *             if the file could not be created
+	 */
+	public JobResultSink(final File file, final int queuedChunks) throws IOException {
+		if (queuedChunks < 1) {
+			throw new IllegalArgumentException("At least a single chunk should be queueable");
+		}
+		filled = new ArrayBlockingQueue<StringBuilder>(queuedChunks + 1);
+		empty = new ArrayBlockingQueue<StringBuilder>(queuedChunks + 1);
+		for (int i = 0; i < queuedChunks; i++) {
+			empty.add(new StringBuilder(chunkSize + 256));
+		}
+		current = new StringBuilder(chunkSize + 256);
+		out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8")));
+		out.write(HEADER);
+		out.write('\n');
+		writerThread = new Thread(this, "Job result writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Records a completed job
+	 *
+	 * @param job
+	 *            the job
+	 * @param start
+	 *            the time the job started (in ms)
+	 * @param stop
+	 *            the time the job completed (in ms)
+	 * @param vms
+	 *            the number of VMs the job used
+	 * @param clouds
+	 *            the target cloud of each VM of the job
+	 * @param stragglerWait
+	 *            the straggler wait of the job (in ms)
+	 * @param idleCoreSeconds
+	 *            the idle core-seconds of the job's VMs
+	 */
+	void completed(final Job job, final long start, final long stop, final int vms, final int[] clouds,
+			final long stragglerWait, final double idleCoreSeconds) {
+		final long submit = job.getSubmittimeSecs();
+		appendId(job.getId());
+		current.append(",completed,").append(submit).append(',').append(start / 1000 - submit).append(',')
+				.append(stop / 1000 - submit).append(',').append(job.nprocs).append(',').append(vms).append(',');
+		int last = -1;
+		for (int i = 0; i < clouds.length; i++) {
+			if (clouds[i] != last) {
+				if (last >= 0) {
+					current.append('|');
+				}
+				current.append(clouds[i]);
+				last = clouds[i];
+			}
+		}
+		current.append(',').append(stragglerWait).append(',').append(idleCoreSeconds).append('\n');
+		recorded();
+	}
+
+	/**
+	 * Records a job that was not executed
+	 *
+	 * @param job
+	 *            the job
+	 */
+	void ignored(final Job job) {
+		notExecuted(job, ",ignored,");
+	}
+
+	/**
+	 * Records a job that was given up after it was hit by failures
+	 *
+	 * @param job
+	 *            the job
+	 */
+	void failed(final Job job) {
+		notExecuted(job, ",failed,");
+	}
+
+	private void notExecuted(final Job job, final String status) {
+		appendId(job.getId());
+		current.append(status).append(job.getSubmittimeSecs()).append(",,,").append(job.nprocs)
+				.append(",,,,\n");
+		recorded();
+	}
+
+	private void appendId(final String id) {
+		if (id.indexOf(',') < 0 && id.indexOf('"') < 0 && id.indexOf('\n') < 0) {
+			current.append(id);
+		} else {
+			current.append('"').append(id.replace("\"", "\"\"")).append('"');
+		}
+	}
+
+	/**
+	 * Hands over the current chunk if it is full
+	 */
+	private void recorded() {
+		records++;
+		if (current.length() >= chunkSize) {
+			handOver(current);
+			try {
+				current = empty.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the job result writer", e);
+			}
+		}
+	}
+
+	private void handOver(final StringBuilder chunk) {
+		if (failure != null) {
+			throw new IllegalStateException("Could not write the job results", failure);
+		}
+		try {
+			filled.put(chunk);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the job result writer", e);
+		}
+	}
+
+	/**
+	 * @return the number of jobs recorded so far
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	/**
+	 * Writes out the remaining records and closes the file
+	 *
+	 * @throws IOException
+	 *             if the records could not be written
+	 */
+	public void close() throws IOException {
+		handOver(current);
+		handOver(endOfRecords);
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while closing the job results", e);
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * The writer thread's loop
+	 */
+	@Override
+	public void run() {
+		try {
+			StringBuilder chunk;
+			while ((chunk = filled.take()) != endOfRecords) {
+				if (failure == null) {
+					try {
+						out.append(chunk);
+					} catch (IOException e) {
+						failure = e;
+					}
+				}
+				chunk.setLength(0);
+				empty.put(chunk);
+			}
+		} catch (InterruptedException e) {
+			failure = new IOException("The job result writer was interrupted");
+		} finally {
+			try {
+				out.close();
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,654 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.Arrays;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.examples.SimulationProfiler;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.resourcemodel.ResourceConsumption.ConsumptionEvent;
+
+/**
+ * Runs all jobs handed over by a dispatcher to its clouds: waits until all VMs
+ * of a job are running, sends the job's parts to its VMs, and gets rid of the
+ * VMs once all parts of the job are complete.
+ *
+ * A single registry serves all jobs of a dispatcher. The jobs occupy slots in
+ * parallel arrays, and a slot (together with the consumption event handler
+ * that belongs to it) is reused by later jobs once its job completes. The VMs
+ * of the jobs that have not started yet are mapped to the slot of their job in
+ * an open addressing table, and the registry only listens to their state
+ * changes until their job starts. Thus, the jobs do not leave garbage behind
+ * apart from what the simulator itself allocates for their VMs and compute
+ * tasks.
+ *
+ * The registry also accounts for the cost of starting the parallel jobs
+ * together: the VMs of a job that are running before the job's last VM
+ * (the straggler) sit idle. For every job, the time between its first and
+ * last VM becoming ready (the straggler wait) and the cores held idle in the
+ * meantime (in core-seconds) are kept in the slot of the job until it
+ * completes (when they are handed to the dispatcher's result sink), and they
+ * are aggregated for the complete run.
+ *
+ * If a VM of a job is lost before the job completes (e.g., because its PM
+ * failed, see FailureInjector), the attempt is abandoned: the other VMs of the
+ * job are terminated, the core-seconds the job's VMs were running are
+ * accounted as wasted, and the job is handed back to the dispatcher which
+ * decides about retrying it. For the completed jobs, the core-seconds of
+ * their execution (the goodput) and their bounded slowdown are aggregated.
+ *
+ * @author "agent, (c) 2026"
+ */
+class JobRunnerRegistry implements VirtualMachine.StateChange {
+	/**
+	 * Receives the completion of a job's parts, there is one for every slot
+	 */
+	private class SlotCompletion implements ConsumptionEvent {
+		private final int slot;
+		/**
+		 * Shows if the attempt of the job this handler was created for is
+		 * abandoned, the parts of the job that are cancelled or complete
+		 * afterwards should not affect the next job of the slot
+		 */
+		private boolean abandoned = false;
+
+		SlotCompletion(final int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public void conComplete() {
+			if (!abandoned) {
+				partCompleted(slot);
+			}
+		}
+
+		@Override
+		public void conCancelled(final ResourceConsumption problematic) {
+			// the VM of the part was killed before the part completed
+			if (!abandoned && !parent.isStopped()) {
+				jobFailed(slot);
+			}
+		}
+	}
+
+	/**
+	 * The execution time (in seconds) below which the jobs are considered
+	 * equally short when their slowdown is calculated
+	 */
+	private static final long slowdownBound = 10;
+
+	private final MultiIaaSJobDispatcher parent;
+
+	/**
+	 * The columns of the slots: the job, its VMs, the execution time of the
+	 * job in seconds, the ratio of the job's actual CPU use and its allocated
+	 * processors, the number of its VMs already running, the number of its
+	 * completed parts
+	 */
+	private Job[] jobs;
+	private VirtualMachine[][] vmSets;
+	private long[] exectimes;
+	private double[] cpuUtilisations;
+	private int[] readyVMs;
+	private int[] completedParts;
+	/**
+	 * The columns of the straggler accounting: the time the first VM of the
+	 * job got ready (in ms), the cores of the VMs ready so far, and the sum of
+	 * the cores of the ready VMs weighted with the time they got ready
+	 * (relative to the first VM)
+	 */
+	private long[] firstReady;
+	private double[] readyCores;
+	private double[] readyCoreTime;
+	/**
+	 * The columns of the job results: the time the job started (in ms), the
+	 * idle core-seconds of its VMs before the start, and the target cloud of
+	 * each of its VMs
+	 */
+	private long[] startTimes;
+	private double[] idleCores;
+	private int[][] vmClouds;
+	/**
+	 * The columns of the capacity profile (only used if the dispatcher has
+	 * one): the cores of each VM of the job, and the time the job is expected
+	 * to complete (in ms)
+	 */
+	private double[][] vmCores;
+	private long[] expectedEnds;
+	private SlotCompletion[] completions;
+	/**
+	 * The slots that were used before but their jobs have completed
+	 */
+	private int[] freeSlots;
+	private int freeCount = 0;
+	/**
+	 * The number of slots ever used
+	 */
+	private int usedSlots = 0;
+
+	/**
+	 * The totals of the straggler accounting
+	 */
+	private long multiVMJobs = 0;
+	private long totalStragglerWait = 0;
+	private long maxStragglerWait = 0;
+	private double idleCoreSeconds = 0;
+	/**
+	 * The totals of the failure accounting: the number of abandoned attempts,
+	 * the core-seconds used by the abandoned attempts and by the completed
+	 * jobs
+	 */
+	private long failedAttempts = 0;
+	private double wastedCoreSeconds = 0;
+	private double usefulCoreSeconds = 0;
+	/**
+	 * The sum of the bounded slowdowns of the completed jobs (and of the
+	 * completed jobs that were retried)
+	 */
+	private long completedJobs = 0;
+	private double totalSlowdown = 0;
+	private long completedRetriedJobs = 0;
+	private double totalRetriedSlowdown = 0;
+
+	/**
+	 * The VMs of the jobs not yet started and the slots of their jobs
+	 */
+	private final SlotTable<VirtualMachine> waiting;
+
+	JobRunnerRegistry(final MultiIaaSJobDispatcher parent) {
+		this.parent = parent;
+		final int capacity = 64;
+		jobs = new Job[capacity];
+		vmSets = new VirtualMachine[capacity][];
+		exectimes = new long[capacity];
+		cpuUtilisations = new double[capacity];
+		readyVMs = new int[capacity];
+		completedParts = new int[capacity];
+		firstReady = new long[capacity];
+		readyCores = new double[capacity];
+		readyCoreTime = new double[capacity];
+		startTimes = new long[capacity];
+		idleCores = new double[capacity];
+		vmClouds = new int[capacity][];
+		vmCores = new double[capacity][];
+		expectedEnds = new long[capacity];
+		completions = new SlotCompletion[capacity];
+		freeSlots = new int[capacity];
+		waiting = new SlotTable<VirtualMachine>(4 * capacity);
+	}
+
+	/**
+	 * Takes over a job whose VMs were all successfully requested. The job is
+	 * started as soon as all of its VMs are running.
+	 * 
+	 * @param job
+	 *            the job to run, it is not dereferenced until the job starts
+	 * @param nprocs
+	 *            the number of processors the job needs
+	 * @param exectime
+	 *            the execution time of the job in seconds
+	 * @param perProcCPUTime
+	 *            the average CPU time the job uses on a single processor
+	 * @param vms
+	 *            the VMs of the job (VMs reused from a pool could be already
+	 *            running)
+	 * @param clouds
+	 *            the target cloud of each VM
+	 * @param cores
+	 *            the cores of each VM
+	 */
+	void start(final Job job, final int nprocs, final long exectime, final double perProcCPUTime,
+			final VirtualMachine[] vms, final int[] clouds, final double[] cores) {
+		final int slot = allocateSlot();
+		jobs[slot] = job;
+		vmSets[slot] = vms;
+		vmClouds[slot] = clouds;
+		vmCores[slot] = cores;
+		final CapacityProfile profile = parent.getCapacityProfile();
+		if (profile != null) {
+			// the boot of the VMs is not known yet, so the job is expected
+			// to complete as early as possible
+			expectedEnds[slot] = Timed.getFireCount() + exectime * 1000;
+			profile.add(clouds, cores, expectedEnds[slot]);
+		}
+		exectimes[slot] = exectime;
+		cpuUtilisations[slot] = perProcCPUTime * nprocs / exectime;
+		readyVMs[slot] = 0;
+		completedParts[slot] = 0;
+		readyCores[slot] = 0;
+		readyCoreTime[slot] = 0;
+		for (int i = 0; i < vms.length; i++) {
+			// Ensuring we receive state dependent events about the VMs until
+			// the job starts, so a VM lost while waiting for the others is
+			// noticed
+			waiting.put(vms[i], slot);
+			vms[i].subscribeStateChange(this);
+			if (VirtualMachine.State.RUNNING.equals(vms[i].getState())) {
+				// VMs reused from the pool are already running
+				vmReady(slot, vms[i]);
+			}
+		}
+		// Increasing ignorecounter in order to sign that the job in this slot
+		// is not yet finished (so the premature termination of the simulation
+		// will show the job ignored)
+		parent.ignorecounter++;
+		parent.vmsInFlight += vms.length;
+		if (readyVMs[slot] == vms.length) {
+			startJob(slot);
+		}
+	}
+
+	/**
+	 * @return the number of jobs taken over but not yet completed
+	 */
+	int getActiveJobs() {
+		return usedSlots - freeCount;
+	}
+
+	/**
+	 * @return the number of slots ever used (i.e., the most jobs that were
+	 *         active at the same time)
+	 */
+	int getUsedSlots() {
+		return usedSlots;
+	}
+
+	/**
+	 * @return the number of started jobs that had more than one VM
+	 */
+	long getMultiVMJobs() {
+		return multiVMJobs;
+	}
+
+	/**
+	 * @return the sum of the straggler waits of the started jobs (in ms)
+	 */
+	long getTotalStragglerWait() {
+		return totalStragglerWait;
+	}
+
+	long getMaxStragglerWait() {
+		return maxStragglerWait;
+	}
+
+	/**
+	 * @return the core-seconds the VMs of the started jobs spent idle waiting
+	 *         for the other VMs of their job
+	 */
+	double getIdleCoreSeconds() {
+		return idleCoreSeconds;
+	}
+
+	/**
+	 * @return the number of job attempts abandoned because of lost VMs
+	 */
+	long getFailedAttempts() {
+		return failedAttempts;
+	}
+
+	/**
+	 * @return the core-seconds the VMs of the abandoned attempts were running
+	 */
+	double getWastedCoreSeconds() {
+		return wastedCoreSeconds;
+	}
+
+	/**
+	 * @return the core-seconds the completed jobs were executing
+	 */
+	double getUsefulCoreSeconds() {
+		return usefulCoreSeconds;
+	}
+
+	/**
+	 * @return the average bounded slowdown of the completed jobs (1 if no
+	 *         job has completed)
+	 */
+	double getMeanSlowdown() {
+		return completedJobs == 0 ? 1 : totalSlowdown / completedJobs;
+	}
+
+	/**
+	 * @return the average bounded slowdown of the completed jobs that were
+	 *         retried at least once (1 if there were no such jobs)
+	 */
+	double getMeanRetriedSlowdown() {
+		return completedRetriedJobs == 0 ? 1 : totalRetriedSlowdown / completedRetriedJobs;
+	}
+
+	@Override
+	public void stateChanged(final VirtualMachine vm, final VirtualMachine.State oldState,
+			final VirtualMachine.State newState) {
+		// If the dispatching process was cancelled
+		if (parent.isStopped()) {
+			switch (newState) {
+			case NONSERVABLE:
+			case DESTROYED:
+			case INITIAL_TR:
+				// OK
+				break;
+			default:
+				try {
+					waiting.remove(vm);
+					vm.unsubscribeStateChange(this);
+					vm.destroy(true);
+				} catch (VMManager.VMManagementException ex) {
+					// Ignore as we want to get rid of the VM
+				}
+			}
+			return;
+		}
+
+		// Now to the real business of having a VM that is actually capable of
+		// running the job
+		if (newState.equals(VirtualMachine.State.RUNNING)) {
+			if (VirtualMachine.State.MIGRATING.equals(oldState) || VirtualMachine.State.RESUME_TR.equals(oldState)) {
+				// the VM was already counted as ready
+				return;
+			}
+			// Ensures that jobs inteded for parallel execution are really run
+			// in parallel
+			final int slot = waiting.get(vm);
+			if (slot >= 0) {
+				vmReady(slot, vm);
+				if (readyVMs[slot] == vmSets[slot].length) {
+					startJob(slot);
+				}
+			}
+			// the VM has left its scheduler queue
+			parent.progressEvent(Timed.getFireCount());
+		} else if (newState.equals(VirtualMachine.State.DESTROYED)) {
+			// The VM was lost before its job could start (either while
+			// booting or while waiting for the other VMs of the job)
+			final int slot = waiting.remove(vm);
+			vm.unsubscribeStateChange(this);
+			if (slot >= 0) {
+				jobFailed(slot);
+			}
+		}
+	}
+
+	/**
+	 * Records the totals of the registry in a checkpoint (the registry has no
+	 * active jobs at the checkpoints)
+	 * 
+	 * @param cp
+	 *            the checkpoint to be written
+	 */
+	void snapshot(final DispatchCheckpoint cp) {
+		cp.multiVMJobs = multiVMJobs;
+		cp.totalStragglerWait = totalStragglerWait;
+		cp.maxStragglerWait = maxStragglerWait;
+		cp.idleCoreSeconds = idleCoreSeconds;
+		cp.failedAttempts = failedAttempts;
+		cp.wastedCoreSeconds = wastedCoreSeconds;
+		cp.usefulCoreSeconds = usefulCoreSeconds;
+		cp.completedJobs = completedJobs;
+		cp.totalSlowdown = totalSlowdown;
+		cp.completedRetriedJobs = completedRetriedJobs;
+		cp.totalRetriedSlowdown = totalRetriedSlowdown;
+	}
+
+	/**
+	 * Continues the accounting of a run resumed from a checkpoint
+	 * 
+	 * @param cp
+	 *            the checkpoint the run is resumed from
+	 */
+	void restore(final DispatchCheckpoint cp) {
+		multiVMJobs = cp.multiVMJobs;
+		totalStragglerWait = cp.totalStragglerWait;
+		maxStragglerWait = cp.maxStragglerWait;
+		idleCoreSeconds = cp.idleCoreSeconds;
+		failedAttempts = cp.failedAttempts;
+		wastedCoreSeconds = cp.wastedCoreSeconds;
+		usefulCoreSeconds = cp.usefulCoreSeconds;
+		completedJobs = cp.completedJobs;
+		totalSlowdown = cp.totalSlowdown;
+		completedRetriedJobs = cp.completedRetriedJobs;
+		totalRetriedSlowdown = cp.totalRetriedSlowdown;
+	}
+
+	/**
+	 * Records that a VM of a job is running
+	 */
+	private void vmReady(final int slot, final VirtualMachine vm) {
+		final long now = Timed.getFireCount();
+		if (readyVMs[slot]++ == 0) {
+			firstReady[slot] = now;
+		}
+		final double cores = vm.getResourceAllocation().allocated.getRequiredCPUs();
+		readyCores[slot] += cores;
+		readyCoreTime[slot] += cores * (now - firstReady[slot]);
+	}
+
+	/**
+	 * Sends the job's parts to its VMs once all of them are running
+	 */
+	private void startJob(final int slot) {
+		final Job job = jobs[slot];
+		// No further state changes are relevant until the job completes, the
+		// loss of a VM is signalled by the cancellation of its compute task
+		for (VirtualMachine vm : vmSets[slot]) {
+			waiting.remove(vm);
+			vm.unsubscribeStateChange(this);
+		}
+		final long wait = Timed.getFireCount() - firstReady[slot];
+		// the earlier VMs were idle until the last one got ready
+		final double idle = (wait * readyCores[slot] - readyCoreTime[slot]) / 1000;
+		startTimes[slot] = Timed.getFireCount();
+		idleCores[slot] = idle;
+		final CapacityProfile profile = parent.getCapacityProfile();
+		if (profile != null) {
+			profile.remove(vmClouds[slot], vmCores[slot], expectedEnds[slot]);
+			expectedEnds[slot] = startTimes[slot] + exectimes[slot] * 1000;
+			profile.add(vmClouds[slot], vmCores[slot], expectedEnds[slot]);
+		}
+		if (vmSets[slot].length > 1) {
+			multiVMJobs++;
+			totalStragglerWait += wait;
+			maxStragglerWait = Math.max(maxStragglerWait, wait);
+			idleCoreSeconds += idle;
+		}
+		// Mark that we start the job / no further queuing
+		job.started();
+		parent.jobsStarted++;
+		// the job's VMs have left the scheduler queues
+		parent.capacityChanged();
+		final VirtualMachine[] vmSet = vmSets[slot];
+		final long exectime = exectimes[slot];
+		final double cpuUtilisation = cpuUtilisations[slot];
+		try {
+			// the slot could get freed if the compute task is rapidly
+			// terminating!
+			for (int i = 0; vmSets[slot] == vmSet && i < vmSet.length; i++) {
+				// run the job's relevant part in the VM
+				vmSet[i].newComputeTask(
+						exectime * vmSet[i].getResourceAllocation().allocated.getTotalProcessingPower()
+								* cpuUtilisation,
+						vmSet[i].getPerTickProcessingPower() * cpuUtilisation, completions[slot]);
+			}
+		} catch (Exception e) {
+			// one of the VMs is no longer able to run its part (e.g., it was
+			// lost in the very same instant), the attempt is abandoned
+			if (vmSets[slot] == vmSet) {
+				jobFailed(slot);
+			}
+		}
+	}
+
+	/**
+	 * Event handler for the completion of a job's part, the job is complete
+	 * once all of its parts are
+	 */
+	private void partCompleted(final int slot) {
+		final VirtualMachine[] vmSet = vmSets[slot];
+		if (++completedParts[slot] < vmSet.length) {
+			return;
+		}
+		// everything went smoothly we mark it in the job
+		final Job job = jobs[slot];
+		job.completed();
+		final VMPool pool = parent.getVMPool();
+		int destroyed = 0;
+		try {
+			// the VMs are no longer needed by this job
+			for (int i = 0; i < vmSet.length; i++) {
+				if (pool == null || !pool.release(vmSet[i])) {
+					vmSet[i].destroy(false);
+					destroyed++;
+				}
+				vmSet[i] = null;
+			}
+		} catch (VMManager.VMManagementException e) {
+			System.err.println("VM could not be destroyed after job completion.");
+			e.printStackTrace();
+			System.exit(1);
+		}
+		final long now = Timed.getFireCount();
+		usefulCoreSeconds += readyCores[slot] * (now - startTimes[slot]) / 1000;
+		// the bounded slowdown does not let the very short jobs dominate
+		final double slowdown = Math.max(1,
+				(now / 1000.0 - job.getSubmittimeSecs()) / Math.max(exectimes[slot], slowdownBound));
+		completedJobs++;
+		totalSlowdown += slowdown;
+		if (parent.wasRetried(job)) {
+			completedRetriedJobs++;
+			totalRetriedSlowdown += slowdown;
+		}
+		final JobResultSink sink = parent.getResultSink();
+		if (sink != null) {
+			sink.completed(job, startTimes[slot], now, vmSet.length, vmClouds[slot],
+					startTimes[slot] - firstReady[slot], idleCores[slot]);
+		}
+		forgetJob(slot);
+		if (destroyed > 0) {
+			parent.increaseDestroyCounter(destroyed);
+		}
+		parent.ignorecounter--;
+		parent.jobsFinished++;
+		parent.vmsInFlight -= vmSet.length;
+		parent.progressEvent(now);
+		SimulationProfiler.jobFinished(job.getId(), vmSet.length, now);
+		parent.capacityChanged();
+		parent.jobCompleted(job);
+	}
+
+	/**
+	 * Abandons the current attempt of a job after one of its VMs was lost.
+	 * The remaining VMs of the job are terminated and the job is handed back
+	 * to the dispatcher.
+	 */
+	private void jobFailed(final int slot) {
+		final long now = Timed.getFireCount();
+		final Job job = jobs[slot];
+		final VirtualMachine[] vmSet = vmSets[slot];
+		final int[] clouds = vmClouds[slot];
+		// the cancellations of the other parts arrive to the old handler
+		completions[slot].abandoned = true;
+		completions[slot] = new SlotCompletion(slot);
+		failedAttempts++;
+		if (readyVMs[slot] > 0) {
+			// every ready VM was held by the job since it got ready
+			wastedCoreSeconds += ((now - firstReady[slot]) * readyCores[slot] - readyCoreTime[slot]) / 1000;
+		}
+		final boolean started = readyVMs[slot] == vmSet.length;
+		for (int i = 0; i < vmSet.length; i++) {
+			final VirtualMachine vm = vmSet[i];
+			if (waiting.remove(vm) >= 0) {
+				vm.unsubscribeStateChange(this);
+			}
+			if (!VirtualMachine.State.NONSERVABLE.equals(vm.getState())) {
+				try {
+					parent.target.get(clouds[i]).terminateVM(vm, true);
+				} catch (VMManager.NoSuchVMException e) {
+					// the VM is already gone
+				} catch (VMManager.VMManagementException e) {
+					// Ignore as we want to get rid of the VM
+				}
+			}
+		}
+		forgetJob(slot);
+		// the dispatcher learns about the job before its VMs are no longer
+		// counted, so the job is never seen as finished
+		parent.jobFailed(job);
+		parent.ignorecounter--;
+		if (started) {
+			parent.jobsStarted--;
+		}
+		parent.vmsInFlight -= vmSet.length;
+		parent.progressEvent(now);
+		parent.capacityChanged();
+	}
+
+	/**
+	 * Frees the slot of a job that has either completed or failed
+	 */
+	private void forgetJob(final int slot) {
+		final CapacityProfile profile = parent.getCapacityProfile();
+		if (profile != null) {
+			profile.remove(vmClouds[slot], vmCores[slot], expectedEnds[slot]);
+		}
+		jobs[slot] = null;
+		vmSets[slot] = null;
+		vmClouds[slot] = null;
+		vmCores[slot] = null;
+		freeSlots[freeCount++] = slot;
+	}
+
+	/**
+	 * Finds a slot for a new job, the slot columns are enlarged if all slots
+	 * are occupied
+	 */
+	private int allocateSlot() {
+		if (freeCount > 0) {
+			return freeSlots[--freeCount];
+		}
+		if (usedSlots == jobs.length) {
+			final int capacity = 2 * jobs.length;
+			jobs = Arrays.copyOf(jobs, capacity);
+			vmSets = Arrays.copyOf(vmSets, capacity);
+			exectimes = Arrays.copyOf(exectimes, capacity);
+			cpuUtilisations = Arrays.copyOf(cpuUtilisations, capacity);
+			readyVMs = Arrays.copyOf(readyVMs, capacity);
+			completedParts = Arrays.copyOf(completedParts, capacity);
+			firstReady = Arrays.copyOf(firstReady, capacity);
+			readyCores = Arrays.copyOf(readyCores, capacity);
+			readyCoreTime = Arrays.copyOf(readyCoreTime, capacity);
+			startTimes = Arrays.copyOf(startTimes, capacity);
+			idleCores = Arrays.copyOf(idleCores, capacity);
+			vmClouds = Arrays.copyOf(vmClouds, capacity);
+			vmCores = Arrays.copyOf(vmCores, capacity);
+			expectedEnds = Arrays.copyOf(expectedEnds, capacity);
+			completions = Arrays.copyOf(completions, capacity);
+			freeSlots = Arrays.copyOf(freeSlots, capacity);
+		}
+		completions[usedSlots] = new SlotCompletion(usedSlots);
+		return usedSlots++;
+	}
+}
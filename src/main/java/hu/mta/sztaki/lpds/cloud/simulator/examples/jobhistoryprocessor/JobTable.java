@@ -0,0 +1,137 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.List;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+
+/**
+ * A columnar representation of a trace. The properties the dispatcher needs
+ * for every job (submission time, execution time, processor count and per
+ * processor CPU time) are stored in primitive arrays, so walking through the
+ * trace does not need to touch the job objects themselves. The job objects are
+ * still kept as handles, but they are only dereferenced when the job's
+ * lifecycle is recorded (i.e., when it starts and when it completes). The
+ * handles are not lazy, they are strong references: the table speeds up the
+ * walk over the trace, but it retains the job objects on top of its columns
+ * (see benchmarks/results/job-table-comparison.txt for the figures of a 10M
+ * job trace).
+ *
+ * @author "agent, (c) 2026"
+ */
+public class JobTable {
+	/**
+	 * Submission times of the jobs in seconds
+	 */
+	final long[] submit;
+	/**
+	 * Execution times of the jobs in seconds
+	 */
+	final long[] exec;
+	/**
+	 * Number of processors requested by the jobs
+	 */
+	final int[] nprocs;
+	/**
+	 * The average CPU time the jobs used on a single processor
+	 */
+	final double[] cpu;
+	/**
+	 * The original job objects the columns were filled from
+	 */
+	final Job[] handles;
+
+	/**
+	 * Transforms a job list to the columnar representation. The order of the
+	 * jobs is kept.
+	 *
+	 * @param jobs
+	 *            the jobs to be stored in the table
+	 */
+	public JobTable(final List<Job> jobs) {
+		final int size = jobs.size();
+		submit = new long[size];
+		exec = new long[size];
+		nprocs = new int[size];
+		cpu = new double[size];
+		handles = jobs.toArray(new Job[size]);
+		for (int i = 0; i < size; i++) {
+			final Job job = handles[i];
+			submit[i] = job.getSubmittimeSecs();
+			exec[i] = job.getExectimeSecs();
+			nprocs[i] = job.nprocs;
+			cpu[i] = job.perProcCPUTime;
+		}
+	}
+
+	/**
+	 * Shifts the submission time of all jobs in the table (both in the columns
+	 * and in the handles).
+	 *
+	 * @param adjustTime
+	 *            the shift in seconds
+	 */
+	void adjust(final long adjustTime) {
+		for (int i = 0; i < handles.length; i++) {
+			submit[i] += adjustTime;
+			handles[i].adjust(adjustTime);
+		}
+	}
+
+	/**
+	 * The number of jobs in the table
+	 *
+	 * @return
+	 */
+	public int size() {
+		return handles.length;
+	}
+
+	public long getSubmittimeSecs(final int index) {
+		return submit[index];
+	}
+
+	public long getExectimeSecs(final int index) {
+		return exec[index];
+	}
+
+	public int getNprocs(final int index) {
+		return nprocs[index];
+	}
+
+	public double getPerProcCPUTime(final int index) {
+		return cpu[index];
+	}
+
+	/**
+	 * Dereferences the handle of a particular job in the table
+	 *
+	 * @param index
+	 *            the position of the job in the table
+	 * @return the original job object
+	 */
+	public Job getJob(final int index) {
+		return handles[index];
+	}
+}
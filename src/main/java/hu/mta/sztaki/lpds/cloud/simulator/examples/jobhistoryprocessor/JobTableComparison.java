@@ -0,0 +1,150 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.JobListAnalyser;
+
+/**
+ * This command line program compares the memory footprint and the walking
+ * throughput of the two trace representations the dispatcher could use: the
+ * plain job object array and the columnar job table. The walk reads the same
+ * properties the dispatcher's tick function and its job runners read
+ * for every job (submission time, processor count, per processor CPU time and
+ * execution time).
+ *
+ * The table keeps the original job objects as handles, so it does not save
+ * memory: its retained size is the size of the job objects plus its columns.
+ * The program reports both this retained size and the columns' overhead.
+ *
+ * The program expects two optional arguments: the number of synthetic jobs to
+ * generate (10 million by default) and the number of walks to be timed (5 by
+ * default). To get realistic figures, the JVM should be started with a heap
+ * large enough to hold the synthetic trace (e.g., -Xmx4g for 10M jobs). The
+ * figures of such a run are in benchmarks/results/job-table-comparison.txt.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class JobTableComparison {
+
+	/**
+	 * Determines the currently used heap after requesting a garbage
+	 * collection.
+	 *
+	 * @return the used heap in bytes
+	 */
+	private static long usedHeap() {
+		final Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	/**
+	 * Reads the dispatcher relevant properties of every job in the array.
+	 *
+	 * @return a checksum so the JIT cannot optimise the walk away
+	 */
+	private static double walkObjects(final Job[] jobs) {
+		double sum = 0;
+		for (int i = 0; i < jobs.length; i++) {
+			final Job job = jobs[i];
+			sum += job.getSubmittimeSecs() + job.nprocs + job.perProcCPUTime + job.getExectimeSecs();
+		}
+		return sum;
+	}
+
+	/**
+	 * Reads the dispatcher relevant properties of every job in the table.
+	 *
+	 * @return a checksum so the JIT cannot optimise the walk away
+	 */
+	private static double walkColumns(final JobTable table) {
+		double sum = 0;
+		final long[] submit = table.submit;
+		final int[] nprocs = table.nprocs;
+		final double[] cpu = table.cpu;
+		final long[] exec = table.exec;
+		for (int i = 0; i < submit.length; i++) {
+			sum += submit[i] + nprocs[i] + cpu[i] + exec[i];
+		}
+		return sum;
+	}
+
+	public static void main(String[] args) {
+		final int jobCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		final int walks = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		final Random rnd = new Random(1);
+
+		final long baseHeap = usedHeap();
+		List<Job> jobs = new ArrayList<Job>(jobCount);
+		for (int i = 0; i < jobCount; i++) {
+			final int nprocs = 1 + rnd.nextInt(64);
+			final long exec = 1 + rnd.nextInt(3600);
+			jobs.add(new DCFJob("" + i, rnd.nextInt(jobCount), 0, exec, nprocs, rnd.nextDouble() * exec, 512, "u",
+					"g", "e", null, 0));
+		}
+		Collections.sort(jobs, JobListAnalyser.submitTimeComparator);
+		final long objectHeap = usedHeap() - baseHeap;
+		final JobTable table = new JobTable(jobs);
+		jobs.clear();
+		jobs = null;
+		// The table's handles keep every job object reachable, so its real
+		// retained size is everything above the base heap from now on
+		final long tableHeap = usedHeap() - baseHeap;
+		final long columnHeap = tableHeap - objectHeap;
+		// The object path walks the very same job objects the table holds
+		final Job[] jobArray = table.handles;
+
+		System.err.println("Jobs: " + jobCount);
+		System.err.println("Job[] path heap (objects and array): " + objectHeap + " bytes, "
+				+ ((double) objectHeap / jobCount) + " bytes/job");
+		System.err.println("JobTable retained heap (columns, handle array and job objects): " + tableHeap
+				+ " bytes, " + ((double) tableHeap / jobCount) + " bytes/job");
+		System.err.println("JobTable overhead over the Job[] path (columns only): " + columnHeap + " bytes, "
+				+ ((double) columnHeap / jobCount) + " bytes/job");
+
+		double checksum = 0;
+		// warming up both paths
+		checksum += walkObjects(jobArray) - walkColumns(table);
+		long objectTime = 0;
+		long columnTime = 0;
+		for (int i = 0; i < walks; i++) {
+			long before = System.nanoTime();
+			checksum += walkObjects(jobArray);
+			objectTime += System.nanoTime() - before;
+			before = System.nanoTime();
+			checksum -= walkColumns(table);
+			columnTime += System.nanoTime() - before;
+		}
+		System.err.println("Job[] path throughput: " + ((double) jobCount * walks * 1000 / objectTime) + " jobs/us");
+		System.err.println("JobTable path throughput: " + ((double) jobCount * walks * 1000 / columnTime) + " jobs/us");
+		System.err.println("Checksum (should be close to 0): " + checksum);
+	}
+}
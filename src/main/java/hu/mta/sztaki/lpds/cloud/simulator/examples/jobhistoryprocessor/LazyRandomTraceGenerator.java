@@ -0,0 +1,253 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.JobListAnalyser;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.TraceManagementException;
+
+/**
+ * A random trace generator with the same characteristics as the
+ * RepetitiveRandomTraceGenerator, but it generates the jobs on demand instead
+ * of generating the complete trace at once. Its memory use only depends on the
+ * number of parallel jobs, thus it can produce traces with hundreds of millions
+ * of jobs when its jobs are consumed in a streaming fashion (e.g., through an
+ * iterator or with a streaming dispatcher).
+ *
+ * The trace is generated in rounds. Every round has at most
+ * <code>parallel</code> jobs, submitted within <code>maxStartSpread</code>
+ * seconds from the start of the round. Each job uses between
+ * <code>minNodeProcs</code> and <code>maxNodeProcs</code> processors (the
+ * jobs of a round use at most <code>maxTotalProcs</code> processors together)
+ * and executes between <code>execmin</code> and <code>execmax</code> seconds.
+ * The next round starts after the last job of the previous round completes
+ * plus a random gap between <code>mingap</code> and <code>maxgap</code>
+ * seconds. Thus the rounds do not overlap, and the jobs are produced in the
+ * order of their submission.
+ *
+ * The generated trace only depends on the parameters and the seed, so the same
+ * seed reproduces the same trace.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class LazyRandomTraceGenerator implements GenericTraceProducer, Iterator<Job> {
+	/**
+	 * The constructor used to instantiate the jobs
+	 */
+	private final Constructor<? extends Job> jobCreator;
+	private final Random rnd;
+
+	private long jobNum = 0;
+	private int parallel = 1;
+	private int maxStartSpread = 0;
+	private int execmin = 1;
+	private int execmax = 1;
+	private int mingap = 0;
+	private int maxgap = 0;
+	private int minNodeProcs = 1;
+	private int maxNodeProcs = 1;
+	private int maxTotalProcs = Integer.MAX_VALUE;
+
+	/**
+	 * The number of jobs generated so far
+	 */
+	private long generated = 0;
+	/**
+	 * The start time of the next round (in seconds)
+	 */
+	private long roundStart = 0;
+	/**
+	 * The jobs of the current round not yet produced (ordered by their
+	 * submission time)
+	 */
+	private final ArrayList<Job> round = new ArrayList<Job>();
+	private int roundPos = 0;
+
+	/**
+	 * Prepares the generator. The trace characteristics should be set with the
+	 * setters before the first job is requested.
+	 *
+	 * @param jobType
+	 *            the kind of jobs to produce
+	 * @param seed
+	 *            the seed of the random number generator
+	 * @throws TraceManagementException
+	 *             if the job type cannot be instantiated
+	 */
+	public LazyRandomTraceGenerator(final Class<? extends Job> jobType, final long seed)
+			throws TraceManagementException {
+		try {
+			jobCreator = jobType.getConstructor(String.class, long.class, long.class, long.class, int.class,
+					double.class, long.class, String.class, String.class, String.class, Job.class, long.class);
+		} catch (NoSuchMethodException e) {
+			throw new TraceManagementException("The job type has no suitable constructor: " + jobType, e);
+		}
+		rnd = new Random(seed);
+	}
+
+	public void setJobNum(final long jobNum) {
+		this.jobNum = jobNum;
+	}
+
+	public void setParallel(final int parallel) {
+		this.parallel = Math.max(1, parallel);
+	}
+
+	/**
+	 * @return the number of jobs generated in a single round
+	 */
+	public int getParallel() {
+		return parallel;
+	}
+
+	public void setMaxStartSpread(final int maxStartSpread) {
+		this.maxStartSpread = maxStartSpread;
+	}
+
+	public void setExecmin(final int execmin) {
+		this.execmin = execmin;
+	}
+
+	public void setExecmax(final int execmax) {
+		this.execmax = execmax;
+	}
+
+	public void setMingap(final int mingap) {
+		this.mingap = mingap;
+	}
+
+	public void setMaxgap(final int maxgap) {
+		this.maxgap = maxgap;
+	}
+
+	public void setMinNodeProcs(final int minNodeProcs) {
+		this.minNodeProcs = Math.max(1, minNodeProcs);
+	}
+
+	public void setMaxNodeprocs(final int maxNodeProcs) {
+		this.maxNodeProcs = maxNodeProcs;
+	}
+
+	public void setMaxTotalProcs(final int maxTotalProcs) {
+		this.maxTotalProcs = maxTotalProcs;
+	}
+
+	/**
+	 * Uniformly distributed random value in the range of [min, max]
+	 */
+	private long between(final int min, final int max) {
+		return max <= min ? min : min + (long) (rnd.nextDouble() * (max - min + 1));
+	}
+
+	/**
+	 * Generates the jobs of the next round
+	 */
+	private void nextRound() throws TraceManagementException {
+		round.clear();
+		roundPos = 0;
+		if (maxTotalProcs < minNodeProcs) {
+			throw new TraceManagementException(
+					"A single job needs more processors than the total allowed for the parallel jobs", null);
+		}
+		long roundEnd = roundStart;
+		int freeProcs = maxTotalProcs;
+		while (round.size() < parallel && generated < jobNum && freeProcs >= minNodeProcs) {
+			final long submit = roundStart + between(0, maxStartSpread);
+			final long exec = between(execmin, execmax);
+			final int procs = (int) Math.min(freeProcs, between(minNodeProcs, maxNodeProcs));
+			freeProcs -= procs;
+			try {
+				round.add(jobCreator.newInstance(Long.toString(generated), submit, 0l, exec, procs, (double) exec,
+						0l, "U", "G", "E", null, 0l));
+			} catch (Exception e) {
+				throw new TraceManagementException("Could not instantiate job #" + generated, e);
+			}
+			generated++;
+			roundEnd = Math.max(roundEnd, submit + exec);
+		}
+		Collections.sort(round, JobListAnalyser.submitTimeComparator);
+		roundStart = roundEnd + between(mingap, maxgap);
+	}
+
+	@Override
+	public boolean hasNext() {
+		return roundPos < round.size() || generated < jobNum;
+	}
+
+	@Override
+	public Job next() {
+		if (roundPos == round.size()) {
+			if (generated >= jobNum) {
+				throw new NoSuchElementException();
+			}
+			try {
+				nextRound();
+			} catch (TraceManagementException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		final Job job = round.get(roundPos);
+		// the round should not keep the already produced jobs alive
+		round.set(roundPos++, null);
+		return job;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Generates all remaining jobs of the trace. Only useful for small traces,
+	 * as it defeats the purpose of this generator.
+	 */
+	@Override
+	public List<Job> getAllJobs() throws TraceManagementException {
+		return getJobs((int) Math.min(Integer.MAX_VALUE, jobNum - generated + round.size() - roundPos));
+	}
+
+	@Override
+	public List<Job> getJobs(final int num) throws TraceManagementException {
+		final List<Job> jobs = new ArrayList<Job>(Math.max(0, Math.min(num, 1 << 16)));
+		try {
+			while (jobs.size() < num && hasNext()) {
+				jobs.add(next());
+			}
+		} catch (IllegalStateException e) {
+			if (e.getCause() instanceof TraceManagementException) {
+				throw (TraceManagementException) e.getCause();
+			}
+			throw e;
+		}
+		return jobs;
+	}
+}
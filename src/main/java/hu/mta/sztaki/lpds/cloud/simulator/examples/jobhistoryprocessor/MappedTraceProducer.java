@@ -0,0 +1,317 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.TraceManagementException;
+
+/**
+ * Produces the jobs of a binary trace cache (see {@link BinaryTraceCache} for
+ * the file format). The cache file is memory mapped read-only, thus the
+ * operating system's page cache is shared between all processes that read the
+ * same cache. As the records are fixed width, any range of jobs can be
+ * reached without reading the jobs before it.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class MappedTraceProducer implements GenericTraceProducer {
+	/**
+	 * The maximum number of records mapped with a single buffer
+	 */
+	private static final int SEGMENT_RECORDS = 1 << 24;
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	/**
+	 * Remembers a job that is the predecessor of other jobs not yet produced
+	 */
+	private static class PendingPredecessor {
+		final Job job;
+		int remainingDependants;
+
+		PendingPredecessor(final Job job, final int dependants) {
+			this.job = job;
+			remainingDependants = dependants;
+		}
+	}
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	/**
+	 * The lazily mapped parts of the record section
+	 */
+	private final MappedByteBuffer[] segments;
+	/**
+	 * The user, group and executable names referred by the records
+	 */
+	private final String[] dictionary;
+	/**
+	 * The constructor used to instantiate the jobs
+	 */
+	private final Constructor<? extends Job> jobCreator;
+	/**
+	 * The number of jobs in the cache
+	 */
+	private final long count;
+	/**
+	 * The index of the job after the last one to be produced
+	 */
+	private final long to;
+	/**
+	 * The index of the next job to be produced
+	 */
+	private long next;
+	/**
+	 * Jobs in the produced range that have dependants not yet produced, they
+	 * are dropped once the range (or the selection) is exhausted as their
+	 * remaining dependants are outside of it
+	 */
+	private final HashMap<Long, PendingPredecessor> predecessors = new HashMap<Long, PendingPredecessor>();
+	/**
+	 * The record indexes of the jobs to be produced if only a selection of
+	 * the range is needed, <code>null</code> if the complete range is produced
+	 */
+	private long[] selection = null;
+	/**
+	 * The position of the next job to be produced in the selection
+	 */
+	private int selectionPos = 0;
+
+	/**
+	 * Opens a binary trace cache and prepares the production of a range of
+	 * its jobs.
+	 *
+	 * @param cache
+	 *            the binary trace cache file
+	 * @param from
+	 *            the index of the first job to be produced
+	 * @param to
+	 *            the index of the job after the last one to be produced (it is
+	 *            capped with the number of jobs in the cache)
+	 * @param jobType
+	 *            the kind of jobs to produce
+	 * @throws TraceManagementException
+	 *             if the cache is not readable or the job type cannot be
+	 *             instantiated
+	 */
+	public MappedTraceProducer(final File cache, final long from, final long to,
+			final Class<? extends Job> jobType) throws TraceManagementException {
+		try {
+			jobCreator = jobType.getConstructor(String.class, long.class, long.class, long.class, int.class,
+					double.class, long.class, String.class, String.class, String.class, Job.class, long.class);
+			file = new RandomAccessFile(cache, "r");
+			channel = file.getChannel();
+			final ByteBuffer header = ByteBuffer.allocate(BinaryTraceCache.HEADER_SIZE);
+			channel.read(header, 0);
+			header.flip();
+			if (header.getInt() != BinaryTraceCache.MAGIC || header.getInt() != BinaryTraceCache.VERSION) {
+				throw new TraceManagementException("Not a binary trace cache: " + cache, null);
+			}
+			count = header.getLong();
+			final long dictionaryOffset = header.getLong();
+			file.seek(dictionaryOffset);
+			dictionary = new String[file.readInt()];
+			for (int i = 0; i < dictionary.length; i++) {
+				dictionary[i] = file.readUTF();
+			}
+		} catch (IOException e) {
+			throw new TraceManagementException("Could not open the binary trace cache " + cache, e);
+		} catch (NoSuchMethodException e) {
+			throw new TraceManagementException("The job type has no suitable constructor: " + jobType, e);
+		}
+		segments = new MappedByteBuffer[(int) ((count + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+		this.next = Math.max(0, from);
+		this.to = Math.min(to, count);
+	}
+
+	/**
+	 * The number of jobs in the complete cache
+	 *
+	 * @return
+	 */
+	public long getCachedJobCount() {
+		return count;
+	}
+
+	/**
+	 * Positions the producer so the next produced job will be the one with the
+	 * given index. Predecessors of the jobs produced after the repositioning
+	 * are only resolved if they were produced already (and the end of the
+	 * range was not reached since).
+	 *
+	 * @param index
+	 *            the index of the next job to be produced
+	 */
+	public void seek(final long index) {
+		next = index;
+	}
+
+	/**
+	 * Restricts the production to particular jobs of the range (e.g., the
+	 * jobs found with a {@link TraceTimeIndex}). The jobs are produced in the
+	 * order of their indexes. Predecessors of the selected jobs are only
+	 * resolved if they are selected too.
+	 *
+	 * @param indexes
+	 *            the record indexes of the jobs to produce in increasing
+	 *            order, the indexes outside of the range are ignored
+	 */
+	public void select(final long[] indexes) {
+		int size = 0;
+		final long[] inRange = new long[indexes.length];
+		for (long index : indexes) {
+			if (index >= next && index < to) {
+				inRange[size++] = index;
+			}
+		}
+		selection = Arrays.copyOf(inRange, size);
+		selectionPos = 0;
+	}
+
+	/**
+	 * Provides the buffer in which a particular record is mapped.
+	 *
+	 * @param index
+	 *            the index of the record
+	 * @return the buffer positioned to the start of the record
+	 * @throws IOException
+	 *             if the mapping failed
+	 */
+	private ByteBuffer recordAt(final long index) throws IOException {
+		final int segment = (int) (index / SEGMENT_RECORDS);
+		MappedByteBuffer buffer = segments[segment];
+		if (buffer == null) {
+			final long first = (long) segment * SEGMENT_RECORDS;
+			final long records = Math.min(SEGMENT_RECORDS, count - first);
+			buffer = segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY,
+					BinaryTraceCache.HEADER_SIZE + first * BinaryTraceCache.RECORD_SIZE,
+					records * BinaryTraceCache.RECORD_SIZE);
+		}
+		buffer.position((int) (index % SEGMENT_RECORDS) * BinaryTraceCache.RECORD_SIZE);
+		return buffer;
+	}
+
+	/**
+	 * Instantiates the job stored in a particular record.
+	 *
+	 * @param index
+	 *            the index of the record
+	 * @return the new job object
+	 */
+	Job readJob(final long index) throws TraceManagementException {
+		try {
+			final ByteBuffer rec = recordAt(index);
+			final long submit = rec.getLong();
+			final long queue = rec.getLong();
+			final long exec = rec.getLong();
+			final double ppCpu = rec.getDouble();
+			final long ppMem = rec.getLong();
+			final long delayAfter = rec.getLong();
+			final long preceding = rec.getLong();
+			final int nprocs = rec.getInt();
+			final String user = dictionary[rec.getInt()];
+			final String group = dictionary[rec.getInt()];
+			final String executable = dictionary[rec.getInt()];
+			final int dependants = rec.getInt();
+			final byte[] idBytes = new byte[rec.get()];
+			rec.get(idBytes);
+			final String id = new String(idBytes, utf8);
+
+			Job precedingJob = null;
+			if (preceding >= 0) {
+				final PendingPredecessor pp = predecessors.get(preceding);
+				if (pp != null) {
+					precedingJob = pp.job;
+					if (--pp.remainingDependants == 0) {
+						predecessors.remove(preceding);
+					}
+				}
+			}
+			final Job job = jobCreator.newInstance(id, submit, queue, exec, nprocs, ppCpu, ppMem, user, group,
+					executable, precedingJob, delayAfter);
+			if (dependants > 0) {
+				predecessors.put(index, new PendingPredecessor(job, dependants));
+			}
+			return job;
+		} catch (IOException e) {
+			throw new TraceManagementException("Could not map the binary trace cache", e);
+		} catch (Exception e) {
+			throw new TraceManagementException("Could not instantiate job #" + index, e);
+		}
+	}
+
+	@Override
+	public List<Job> getAllJobs() throws TraceManagementException {
+		if (selection != null) {
+			return getJobs(selection.length - selectionPos);
+		}
+		return getJobs((int) Math.min(Integer.MAX_VALUE, to - next));
+	}
+
+	@Override
+	public List<Job> getJobs(final int num) throws TraceManagementException {
+		if (selection != null) {
+			final int size = Math.max(0, Math.min(num, selection.length - selectionPos));
+			final List<Job> jobs = new ArrayList<Job>(size);
+			for (int i = 0; i < size; i++) {
+				jobs.add(readJob(selection[selectionPos++]));
+			}
+			if (selectionPos == selection.length) {
+				predecessors.clear();
+			}
+			return jobs;
+		}
+		final int size = (int) Math.max(0, Math.min(num, to - next));
+		final List<Job> jobs = new ArrayList<Job>(size);
+		for (int i = 0; i < size; i++) {
+			jobs.add(readJob(next++));
+		}
+		if (next >= to) {
+			predecessors.clear();
+		}
+		return jobs;
+	}
+
+	/**
+	 * Releases the mapping and the underlying file
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		channel.close();
+		file.close();
+	}
+}
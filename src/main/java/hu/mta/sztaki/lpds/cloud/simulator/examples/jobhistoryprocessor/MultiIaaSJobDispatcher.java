@@ -24,12 +24,20 @@
  */
 package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 
+import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
 import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.examples.SimulationProfiler;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.JobListAnalyser;
 import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
@@ -70,11 +78,29 @@ public class MultiIaaSJobDispatcher extends Timed {
 	 */
 	private boolean isStopped = false;
 	/**
-	 * The list of jobs (i.e., the trace) in a more rapidly processable form
+	 * Shows if further jobs could arrive to a streamed trace after the window
+	 * got empty (see jobsArrived)
+	 */
+	private boolean openTrace = false;
+	/**
+	 * The list of jobs (i.e., the trace) in a more rapidly processable form.
+	 * <code>null</code> if the trace is streamed through a window.
 	 */
 	protected Job[] jobs;
 	/**
-	 * The first unprocessed job in the trace
+	 * The columnar form of the jobs array, the dispatcher and the single job
+	 * runners use this to avoid touching the job objects while they process
+	 * the trace. <code>null</code> if the trace is streamed through a window.
+	 */
+	protected JobTable table;
+	/**
+	 * The bounded look-ahead buffer for the streamed traces. <code>null</code>
+	 * if the complete trace was loaded to the jobs array.
+	 */
+	private TraceWindow window;
+	/**
+	 * The first unprocessed job in the trace (i.e., the number of jobs already
+	 * processed)
 	 */
 	protected int minindex = 0;
 	/**
@@ -121,10 +147,207 @@ public class MultiIaaSJobDispatcher extends Timed {
 	 * should be guaranteed
 	 */
 	protected boolean isMinimumProcPower = false;
+	/**
+	 * shows if the processing power share was specified with
+	 * setUsableProcPower (otherwise each cloud's own minimum is used when the
+	 * jobs are split according to the cloud profiles)
+	 */
+	private boolean userDefinedProcPower = false;
+	/**
+	 * the capacity characteristics of each target cloud
+	 */
+	protected CloudProfile[] profiles;
+	/**
+	 * if set, the jobs are split to VMs according to the profile of the cloud
+	 * they are sent to (instead of the global maximum core count)
+	 */
+	private boolean heterogeneousSplitting = false;
 	/**
 	 * current IaaS service to be used for VM creation
 	 */
 	private int targetIndex = 0;
+	/**
+	 * the free capacity index of the target clouds, if it is present, the
+	 * target IaaS service is selected with it instead of the round robin
+	 * approach
+	 */
+	private CloudCapacityIndex capacityIndex = null;
+	/**
+	 * the clouds already used by the job being planned (reused for every job)
+	 */
+	private boolean[] usedClouds;
+	/**
+	 * shows if the VMs of a job are only requested when all of them fit the
+	 * uncommitted capacity of their target clouds
+	 */
+	private boolean coAllocation = false;
+	/**
+	 * the longest VM scheduler queue observed in the target clouds right after
+	 * a VM request
+	 */
+	protected int maxQueueLength = 0;
+	/**
+	 * the number of events the dispatcher received from the simulator
+	 */
+	private long dispatcherEvents = 0;
+	/**
+	 * the jobs due in the current tick if the dispatcher batches the VM
+	 * requests, <code>null</code> if every job is requested separately
+	 */
+	private ArrayList<JobRequest> batch = null;
+	/**
+	 * the number of job parts in the current batch per target cloud, these
+	 * are not yet in the clouds' scheduler queues but the backpressure has to
+	 * count them
+	 */
+	private int[] batchedParts = null;
+	/**
+	 * the number of VM requests that served more than a single job
+	 */
+	protected long batchedRequests = 0;
+	/**
+	 * the pool of idle VMs kept for reuse, <code>null</code> if the VMs are
+	 * destroyed right after their job completes
+	 */
+	private VMPool pool = null;
+	/**
+	 * the progress of the dispatcher: the jobs taken from the trace, the jobs
+	 * that received all their VMs and started to run, the jobs that completed
+	 * their execution, and the VMs of the jobs handed over to the job runner
+	 * registry but not yet completed (these are only touched by the
+	 * simulation thread)
+	 */
+	long jobsDispatched = 0;
+	long jobsStarted = 0;
+	long jobsFinished = 0;
+	int vmsInFlight = 0;
+	/**
+	 * shows if the dispatcher will not take further jobs from its trace
+	 */
+	private boolean traceDone = false;
+	/**
+	 * publishes the progress of the dispatcher regularly if the verbosity is
+	 * switched on
+	 */
+	private final ProgressReporter progress = new ProgressReporter();
+	/**
+	 * receives the outcome of every job, <code>null</code> if the outcomes are
+	 * not recorded
+	 */
+	private JobResultSink resultSink = null;
+	/**
+	 * runs all jobs whose VMs were successfully requested
+	 */
+	private final JobRunnerRegistry runners = new JobRunnerRegistry(this);
+	/**
+	 * the jobs held back by the dispatcher because their target clouds had
+	 * too many queued VM requests, <code>null</code> if there is no
+	 * backpressure
+	 */
+	private ArrayDeque<JobRequest> admissionQueue = null;
+	/**
+	 * the scheduler queue length from which no new jobs are sent to a cloud
+	 */
+	private int admissionWatermark;
+	/**
+	 * shows if the release of the held jobs is already scheduled
+	 */
+	private boolean admissionPending = false;
+	/**
+	 * the expected release of the committed cores over time, only kept if the
+	 * held jobs are backfilled
+	 */
+	private CapacityProfile capacityProfile = null;
+	/**
+	 * shows if the reservation of the first held job is in effect (i.e., the
+	 * jobs behind it are being backfilled)
+	 */
+	private boolean reserved = false;
+	/**
+	 * the time the first held job is expected to start (in ms)
+	 */
+	private long shadowTime;
+	/**
+	 * the cores of each cloud that the first held job does not need at its
+	 * expected start, and the cores it needs
+	 */
+	private double[] shadowExtra;
+	private double[] headCores;
+	/**
+	 * the number of held jobs that were started before the jobs held in front
+	 * of them
+	 */
+	protected long backfilledJobs = 0;
+	/**
+	 * the number of jobs that were held back at least once
+	 */
+	protected long heldJobs = 0;
+	/**
+	 * the longest admission queue observed
+	 */
+	protected int maxAdmissionQueueLength = 0;
+	/**
+	 * the checkpoint to be taken once the dispatcher reaches a quiescent
+	 * point, <code>null</code> if no checkpoint is requested
+	 */
+	private DispatchCheckpoint checkpoint = null;
+	/**
+	 * the VMs completed before the checkpoint this dispatcher was resumed from
+	 */
+	private long completedVMsBase = 0;
+	/**
+	 * the position of every job in the job table, <code>null</code> if the
+	 * dependencies of the jobs are not considered
+	 */
+	private IdentityHashMap<Job, Integer> tableIndexes = null;
+	/**
+	 * shows for every job in the table if it waits for its predecessor instead
+	 * of being dispatched at its submission time
+	 */
+	private boolean[] dependant;
+	/**
+	 * the dependants whose predecessor has completed, ordered by the time
+	 * they are released
+	 */
+	private ReleaseQueue readyDependants;
+	/**
+	 * the number of dependants still waiting for their predecessor
+	 */
+	private int blockedDependants = 0;
+	/**
+	 * the number of dependants released after their predecessor completed
+	 */
+	protected long releasedDependants = 0;
+	/**
+	 * the number of times a job hit by a failure is tried again
+	 */
+	private int maxRetries = 0;
+	/**
+	 * the time to wait before the first retry of a job (in ms), it is doubled
+	 * for every further retry of the same job
+	 */
+	private long retryDelay = 0;
+	/**
+	 * the jobs waiting for their next attempt, ordered by the time they are
+	 * dispatched again
+	 */
+	private final PriorityQueue<JobRequest> retries = new PriorityQueue<JobRequest>(16,
+			new Comparator<JobRequest>() {
+				@Override
+				public int compare(final JobRequest o1, final JobRequest o2) {
+					return Long.compare(o1.releaseTime, o2.releaseTime);
+				}
+			});
+	/**
+	 * the number of failed attempts of the jobs that were hit by failures and
+	 * did not complete yet
+	 */
+	private final IdentityHashMap<Job, Integer> failedAttempts = new IdentityHashMap<Job, Integer>();
+	/**
+	 * the number of jobs given up after they failed more times than the retry
+	 * policy allows
+	 */
+	protected long abandonedJobs = 0;
 
 	/**
 	 * Dispatcher setup. Fetches all jobs from the given trace producer and
@@ -134,9 +357,10 @@ public class MultiIaaSJobDispatcher extends Timed {
 	 * preparatory step ensures the availability of the VA to be used for
 	 * instantiating the VMs for the jobs.
 	 * 
-	 * WARNING: only uniformly prepared IaaS systems are supported right now
+	 * WARNING: by default only uniformly prepared IaaS systems are supported
 	 * (i.e. all of them having the same amount of PMs and all of their PMs are
-	 * constructed with the same amount of resources)
+	 * constructed with the same amount of resources). For mixed federations
+	 * see setHeterogeneousSplitting.
 	 * 
 	 * @param producer
 	 *            the trace
@@ -145,7 +369,7 @@ public class MultiIaaSJobDispatcher extends Timed {
 	 */
 	public MultiIaaSJobDispatcher(GenericTraceProducer producer, List<IaaSService> target)
 			throws TraceManagementException {
-		this.target = target;
+		this(target);
 		// Collecting the jobs
 		List<Job> jobs = producer.getAllJobs();
 
@@ -154,13 +378,59 @@ public class MultiIaaSJobDispatcher extends Timed {
 		// Analyzing the jobs for min and max submission time
 		minsubmittime = JobListAnalyser.getEarliestSubmissionTime(jobs);
 		// Transforming the job list for rapid access arrays:
-		this.jobs = jobs.toArray(new Job[jobs.size()]);
+		table = new JobTable(jobs);
+		this.jobs = table.handles;
 		jobs.clear();
 
+		startDispatching();
+	}
+
+	/**
+	 * Streaming dispatcher setup. Instead of fetching all jobs in advance, the
+	 * jobs are pulled from the trace producer in submission time ordered
+	 * windows. The dispatcher only keeps a bounded look-ahead buffer, and it
+	 * does not reference the jobs that were already sent to the clouds (the
+	 * job runner registry releases them once they are complete). Thus the
+	 * memory footprint of the dispatcher is independent from the length of the trace.
+	 * 
+	 * The IaaS related analysis and preparation is done the same way as with
+	 * the non-streaming dispatcher.
+	 * 
+	 * @param producer
+	 *            the trace, its jobs are expected to be listed in submission
+	 *            order (or at least in an order that can be corrected with the
+	 *            given look-ahead)
+	 * @param target
+	 *            the iaas systems to be used for submitting the trace to
+	 * @param lookahead
+	 *            the maximum number of jobs to be held in the memory by the
+	 *            dispatcher
+	 */
+	public MultiIaaSJobDispatcher(GenericTraceProducer producer, List<IaaSService> target, int lookahead)
+			throws TraceManagementException {
+		this(target);
+		window = new TraceWindow(producer, lookahead);
+		final Job first = window.peek();
+		minsubmittime = first == null ? Timed.getFireCount() / 1000 : first.getSubmittimeSecs();
+
+		startDispatching();
+	}
+
+	/**
+	 * Analyzes and prepares the target IaaS services (see the public
+	 * constructors for details).
+	 * 
+	 * @param target
+	 *            the iaas systems to be used for submitting the trace to
+	 */
+	private MultiIaaSJobDispatcher(List<IaaSService> target) {
+		this.target = target;
 		// Preparing the repositories with VAs
 		repo = new ArrayList<Repository>(target.size());
+		profiles = new CloudProfile[target.size()];
 		va = new VirtualAppliance("test", 30, 0, false, 100000000);
 		for (IaaSService iaas : target) {
+			profiles[repo.size()] = new CloudProfile(iaas);
 			Repository currentRepo = iaas.repositories.get(0);
 			repo.add(currentRepo);
 			// actually registering the VA
@@ -180,7 +450,13 @@ public class MultiIaaSJobDispatcher extends Timed {
 				maxIaaSmachines = iaas.machines.size();
 			}
 		}
+	}
 
+	/**
+	 * Aligns the trace with the current simulated time and subscribes the
+	 * dispatcher so it receives its first event when the first job is due.
+	 */
+	private void startDispatching() {
 		// Ensuring we will receive a notification once the first job should be
 		// submitted
 
@@ -189,55 +465,16 @@ public class MultiIaaSJobDispatcher extends Timed {
 		if (currentTime > msTime) {
 			final long adjustTime = (long) Math.ceil((currentTime - msTime) / 1000f);
 			minsubmittime += adjustTime;
-			for (Job job : this.jobs) {
-				job.adjust(adjustTime);
+			if (window == null) {
+				table.adjust(adjustTime);
+			} else {
+				window.adjust(adjustTime);
 			}
 		}
 
 		subscribe(minsubmittime * 1000 - currentTime);
 		if (verbosity) {
-			new Thread() {
-				private void printLog(String s) {
-					System.err.println("MIJD ===> realTime=" + new Date() + " " + s);
-				}
-
-				private void printStats() {
-					printLog("subscibed=" + MultiIaaSJobDispatcher.this.isSubscribed() + " simTime="
-							+ Timed.getFireCount() + " destroys=" + getDestroycounter() + " startedjobs=" + minindex);
-				}
-
-				public void run() {
-					printLog("Starting monitoring thread!");
-					boolean keepThread = true;
-					while (keepThread) {
-						printStats();
-						final long cont = System.currentTimeMillis() + 15000;
-						int qlen = -1;
-						while (cont > System.currentTimeMillis() && keepThread) {
-							try {
-								Thread.sleep(100);
-							} catch (InterruptedException e) {
-
-							}
-							if (!MultiIaaSJobDispatcher.this.isSubscribed()) {
-								keepThread = false;
-								for (IaaSService s : MultiIaaSJobDispatcher.this.target) {
-									keepThread |= !s.listVMs().isEmpty();
-									if (keepThread) {
-										qlen = s.sched.getQueueLength();
-										break;
-									}
-								}
-							}
-						}
-						if (qlen > 0) {
-							printLog("queue len: " + qlen);
-						}
-					}
-					printStats();
-					printLog("Exiting monitoring thread!");
-				};
-			}.start();
+			progress.start(15000);
 		}
 	}
 
@@ -247,165 +484,1653 @@ public class MultiIaaSJobDispatcher extends Timed {
 	@Override
 	public void tick(final long currTime) {
 		// One ore more jobs must be submitted as we received this event
-		for (int i = minindex; i < jobs.length; i++) {
-			final Job toprocess = jobs[i];
-			long submittime = toprocess.getSubmittimeSecs() * 1000;
-			if (currTime == submittime) {
-				// the ith job is due now
-
-				// to fulfill the ith job's cpu core requirements we need the
-				// following set of VMs with the following number of CPUs
-				final int requestedTotalInstances = maxmachinecores >= toprocess.nprocs ? 1
-						: (toprocess.nprocs / ((int) maxmachinecores))
-								+ ((toprocess.nprocs % (int) maxmachinecores) == 0 ? 0 : 1);
-				final double requestedprocs = (double) toprocess.nprocs / requestedTotalInstances;
-				// For simplicity, here we have an assumption that our clouds
-				// are uniform...
-				final int requestedClouds = (int) Math.ceil(requestedTotalInstances > maxIaaSmachines
-						? (double) requestedTotalInstances / maxIaaSmachines : 1);
-				final int uniformSpread = requestedTotalInstances / requestedClouds;
-				int remainder = requestedTotalInstances % requestedClouds;
-				int vmpointer = 0;
-				VirtualMachine[] vms = new VirtualMachine[requestedTotalInstances];
-				int[] targetIndexes = new int[requestedTotalInstances];
-
-				for (int j = 0; j < requestedClouds; j++) {
-					final int expectedSpread = uniformSpread + remainder;
-					final int currentRequestSize = (int) Math.min(maxIaaSmachines, expectedSpread);
-					remainder = expectedSpread - currentRequestSize;
-					// Starting the VMs for the job
-					try {
-						final VirtualMachine[] vmsTemp = target.get(targetIndex)
-								.requestVM(
-										va, new ConstantConstraints(requestedprocs, useThisProcPower,
-												isMinimumProcPower, 512000000),
-										repo.get(targetIndex), currentRequestSize);
-						System.arraycopy(vmsTemp, 0, vms, vmpointer, vmsTemp.length);
-						for (int k = vmpointer + vmsTemp.length - 1; k >= vmpointer; k--) {
-							targetIndexes[k] = targetIndex;
-						}
-						vmpointer += vmsTemp.length;
-
-						// doing a round robin scheduling for the target
-						// infrastructures
-						targetIndex++;
-						if (targetIndex == target.size()) {
-							targetIndex = 0;
-						}
-					} catch (VMManager.VMManagementException e) {
-						// VM cannot be served because of too large resource
-						// request
-						if (verbosity) {
-							System.err.println("The oversized job's id: " + toprocess.getId() + " idx: " + i);
-						}
-						ignorecounter++;
-					} catch (Exception e) {
-						System.err.println("Unknown VM creation error: " + e.getMessage());
-						e.printStackTrace();
-						ignorecounter++;
-					}
-				}
-				boolean servability = true;
-				for (int j = 0; j < vms.length && servability; j++) {
-					// check if the job was not servable because it would have
-					// needed more resources than the target clouds could offer
-					// in total.
-					servability &= !vms[j].getState().equals(VirtualMachine.State.NONSERVABLE);
-				}
-				if (servability) {
-					new SingleJobRunner(toprocess, vms, this);
-				} else {
-					for (int j = 0; j < vms.length; j++) {
-						if (!vms[j].getState().equals(VirtualMachine.State.NONSERVABLE)) {
-							try {
-								target.get(targetIndexes[j]).terminateVM(vms[j], true);
-							} catch (VMManager.NoSuchVMException e) {
-								// ignore
-							} catch (VMManagementException e) {
-								// ignore 2
-							}
-						}
-					}
-					ignorecounter++;
-				}
-				minindex = i + 1;
-			} else if (currTime < submittime) {
-				// the ith job is not due yet, we have to ask for a new
-				// notification which will arrive when the ith job is due
-				updateFrequency(submittime - currTime);
+		final Object profiledTick = SimulationProfiler.tickStarted();
+		final long takenBefore = jobsDispatched;
+		dispatcherEvents++;
+		if (checkpoint != null && currTime >= checkpoint.requestedTime) {
+			if (isQuiescent()) {
+				takeCheckpoint(currTime);
+			} else if (checkpoint.deferredSince < 0) {
+				checkpoint.deferredSince = currTime;
+			}
+		}
+		long duetime;
+		while ((duetime = nextDueTime()) >= 0) {
+			if (currTime < duetime) {
+				// the next job is not due yet, we have to ask for a new
+				// notification which will arrive when the job is due
+				updateFrequency(duetime - currTime);
 				break;
 			}
+			if (!retries.isEmpty() && retries.peek().releaseTime <= currTime) {
+				// a failed job is tried again
+				final JobRequest retry = retries.poll();
+				dispatchJob(retry.job, retry.nprocs, retry.exectime, retry.perProcCPUTime);
+				continue;
+			}
+			if (readyDependants != null && !readyDependants.isEmpty() && readyDependants.peekTime() <= currTime) {
+				// a dependant is released before the jobs of the trace due
+				// at the same time, as it is waiting since an earlier time
+				final int released = readyDependants.poll();
+				dispatchJob(table.handles[released], table.nprocs[released], table.exec[released],
+						table.cpu[released]);
+				releasedDependants++;
+				jobsDispatched++;
+				continue;
+			}
+			// the next job is due now (or it was delayed by the trace window)
+			if (window == null) {
+				dispatchJob(table.handles[minindex], table.nprocs[minindex], table.exec[minindex],
+						table.cpu[minindex]);
+			} else {
+				final Job toprocess = window.peek();
+				dispatchJob(toprocess, toprocess.nprocs, toprocess.getExectimeSecs(), toprocess.perProcCPUTime);
+			}
+			takeJob();
 		}
-		if (minindex == jobs.length) {
+		if (batch != null && !batch.isEmpty()) {
+			submitBatch();
+		}
+		if (duetime < 0) {
 			// No more jobs are listed in the trace, we can just make sure no
-			// further events are coming to this dispatcher
+			// further events are coming to this dispatcher (until new jobs
+			// arrive to an open trace, the predecessor of a dependant
+			// completes or a job fails)
 			unsubscribe();
+			if (!openTrace && blockedDependants == 0) {
+				traceDone = true;
+			}
 		}
+		progressEvent(currTime);
+		SimulationProfiler.tickFinished(profiledTick, currTime, (int) (jobsDispatched - takenBefore));
 	}
 
 	/**
-	 * Collects the earilest submission time for the trace
+	 * Checks if all jobs dispatched so far are complete and none of their VMs
+	 * are alive
+	 */
+	private boolean isQuiescent() {
+		return vmsInFlight == 0 && retries.isEmpty()
+				&& (admissionQueue == null || admissionQueue.isEmpty())
+				&& (batch == null || batch.isEmpty()) && (pool == null || pool.getIdleVMs() == 0);
+	}
+
+	/**
+	 * Writes out the state of the dispatcher before the jobs of the current
+	 * tick are dispatched.
 	 * 
-	 * @return
+	 * @param currTime
+	 *            the time of the current tick
 	 */
-	public long getMinsubmittime() {
-		return minsubmittime;
+	private void takeCheckpoint(final long currTime) {
+		final DispatchCheckpoint cp = checkpoint;
+		checkpoint = null;
+		cp.simTime = currTime;
+		cp.minsubmittime = minsubmittime;
+		cp.jobsTaken = minindex;
+		cp.targetIndex = targetIndex;
+		cp.ignorecounter = ignorecounter;
+		cp.destroycounter = destroycounter;
+		cp.maxQueueLength = maxQueueLength;
+		cp.batchedRequests = batchedRequests;
+		cp.heldJobs = heldJobs;
+		cp.maxAdmissionQueueLength = maxAdmissionQueueLength;
+		cp.backfilledJobs = backfilledJobs;
+		cp.abandonedJobs = abandonedJobs;
+		cp.dispatcherEvents = dispatcherEvents;
+		cp.jobsDispatched = jobsDispatched;
+		cp.jobsStarted = jobsStarted;
+		cp.jobsFinished = jobsFinished;
+		runners.snapshot(cp);
+		if (pool != null) {
+			pool.snapshot(cp);
+		}
+		cp.completedVMs = completedVMsBase;
+		for (IaaSService iaas : target) {
+			for (PhysicalMachine pm : iaas.machines) {
+				cp.completedVMs += pm.getCompletedVMs();
+			}
+		}
+		if (cp.monitor != null) {
+			cp.monitor.snapshot(cp);
+		}
+		try {
+			cp.write();
+			System.err.println("Checkpoint written to " + cp.file + " at " + currTime + " after " + minindex
+					+ " jobs" + (cp.deferredSince < 0 ? ""
+							: " (deferred by " + (currTime - cp.deferredSince) + " ms waiting for the running jobs)"));
+		} catch (IOException e) {
+			// the run would silently go on without the requested checkpoint
+			throw new IllegalStateException("Could not write the checkpoint " + cp.file, e);
+		}
 	}
 
 	/**
-	 * Tells how many jobs were unservable in the target clouds
+	 * Requests a checkpoint to be taken at the first quiescent point of the
+	 * dispatcher after the checkpoint's requested time.
 	 * 
-	 * @return
+	 * @param cp
+	 *            the description of the checkpoint
 	 */
-	public long getIgnorecounter() {
-		return ignorecounter;
+	public void setCheckpoint(final DispatchCheckpoint cp) {
+		if (tableIndexes != null) {
+			throw new IllegalStateException("Dependency aware dispatching cannot be checkpointed");
+		}
+		checkpoint = cp;
 	}
 
 	/**
-	 * tells how many VMs executed their tasks successfully (and then
-	 * successively how many of them got destroyed)
+	 * Tells if the requested checkpoint is still waiting for a quiescent point
+	 * of the dispatcher
 	 * 
-	 * @return
+	 * @return the checkpoint not yet taken, <code>null</code> if it was taken
+	 *         or none was requested
 	 */
-	public long getDestroycounter() {
-		return destroycounter;
+	public DispatchCheckpoint getPendingCheckpoint() {
+		return checkpoint;
 	}
 
 	/**
-	 * Allows single job runners to let us know if they have completed the
-	 * execution of their job
+	 * Continues the processing of the trace from a checkpoint. The jobs
+	 * processed before the checkpoint are skipped, the statistics of the
+	 * dispatcher are restored and the simulated time is moved to the time of
+	 * the checkpoint. Must be called before the simulation is started.
 	 * 
-	 * @param finishedVMs
-	 *            the number of VMs that were actually used for the job
+	 * @param cp
+	 *            the checkpoint written by an earlier run of the same scenario
 	 */
-	void increaseDestroyCounter(final int finishedVMs) {
-		if (finishedVMs <= 0) {
-			throw new IllegalStateException("Tried to reduce the destroy counter!");
+	public void resumeFrom(final DispatchCheckpoint cp) {
+		if (cp.minsubmittime != minsubmittime) {
+			throw new IllegalStateException("The checkpoint does not belong to this trace");
 		}
-		destroycounter += finishedVMs;
+		unsubscribe();
+		for (int i = 0; i < cp.jobsTaken && peekSubmittime() >= 0; i++) {
+			takeJob();
+		}
+		targetIndex = cp.targetIndex;
+		ignorecounter = cp.ignorecounter;
+		destroycounter = cp.destroycounter;
+		maxQueueLength = cp.maxQueueLength;
+		batchedRequests = cp.batchedRequests;
+		heldJobs = cp.heldJobs;
+		maxAdmissionQueueLength = cp.maxAdmissionQueueLength;
+		backfilledJobs = cp.backfilledJobs;
+		abandonedJobs = cp.abandonedJobs;
+		dispatcherEvents = cp.dispatcherEvents;
+		jobsDispatched = cp.jobsDispatched;
+		jobsStarted = cp.jobsStarted;
+		jobsFinished = cp.jobsFinished;
+		runners.restore(cp);
+		if (pool != null) {
+			pool.restore(cp);
+		}
+		completedVMsBase = cp.completedVMs;
+		// The checkpoint was taken before the jobs due at its time were
+		// dispatched, so the dispatcher must receive its next event exactly at
+		// the checkpoint's time.
+		Timed.skipEventsTill(cp.simTime - 1);
+		subscribe(1);
 	}
 
 	/**
-	 * Sets the processing power related requirements for the resource
-	 * allocation requests for all VMs.
+	 * Determines when the next unprocessed job in the trace is submitted. The
+	 * dependants waiting for their predecessors are skipped.
 	 * 
-	 * @param usableProcPower
-	 *            the CPU's processing power instructions/ms
-	 * @param minimum
-	 *            is it the minimum required or the total you want to specify
+	 * @return the submission time of the job in seconds or -1 if there are no
+	 *         further jobs
 	 */
-	public void setUsableProcPower(final double usableProcPower, final boolean minimum) {
-		this.useThisProcPower = usableProcPower;
-		isMinimumProcPower = minimum;
+	private long peekSubmittime() {
+		if (window == null) {
+			if (dependant != null) {
+				while (minindex < dependant.length && dependant[minindex]) {
+					minindex++;
+				}
+			}
+			return minindex < table.submit.length ? table.submit[minindex] : -1;
+		}
+		final Job next = window.peek();
+		return next == null ? -1 : next.getSubmittimeSecs();
 	}
 
 	/**
-	 * Do not continue the trace processing, terminate all activities as soon as
-	 * possible.
+	 * Determines when the dispatcher has to handle its next job: either a job
+	 * of the trace is submitted, a dependant is released or a failed job is
+	 * tried again.
+	 * 
+	 * @return the time in ms or -1 if there are no jobs to be handled
 	 */
-	public void stopTraceProcessing() {
-		unsubscribe();
-		isStopped = true;
+	private long nextDueTime() {
+		final long submittime = peekSubmittime();
+		long duetime = submittime < 0 ? -1 : submittime * 1000;
+		if (readyDependants != null && !readyDependants.isEmpty()) {
+			final long releasetime = readyDependants.peekTime();
+			duetime = duetime < 0 ? releasetime : Math.min(releasetime, duetime);
+		}
+		if (!retries.isEmpty()) {
+			final long retrytime = retries.peek().releaseTime;
+			duetime = duetime < 0 ? retrytime : Math.min(retrytime, duetime);
+		}
+		return duetime;
+	}
+
+	/**
+	 * Marks the next unprocessed job in the trace as processed.
+	 */
+	private void takeJob() {
+		if (window != null) {
+			try {
+				window.poll();
+			} catch (TraceManagementException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		minindex++;
+		jobsDispatched++;
+	}
+
+	/**
+	 * Requests the VMs for a single job and hands them over to a single job
+	 * runner that will execute the job once all of its VMs are running. If
+	 * batching is switched on, the VM requests are only planned here, they are
+	 * submitted at the end of the current tick together with the requests of
+	 * the other jobs due at the same time. With backpressure, the job might be
+	 * held back until its target clouds have shorter scheduler queues.
+	 * 
+	 * @param toprocess
+	 *            the job that is due, it is not dereferenced by the
+	 *            dispatcher, only passed to its runner
+	 * @param nprocs
+	 *            the number of processors the job needs
+	 * @param exectime
+	 *            the execution time of the job in seconds
+	 * @param perProcCPUTime
+	 *            the average CPU time the job uses on a single processor
+	 */
+	private void dispatchJob(final Job toprocess, final int nprocs, final long exectime,
+			final double perProcCPUTime) {
+		if (admissionQueue != null && !admissionQueue.isEmpty()
+				|| !admit(toprocess, nprocs, exectime, perProcCPUTime)) {
+			// the jobs are admitted in the order of the trace
+			admissionQueue.add(new JobRequest(toprocess, nprocs, exectime, perProcCPUTime, 0));
+			heldJobs++;
+			if (admissionQueue.size() > maxAdmissionQueueLength) {
+				maxAdmissionQueueLength = admissionQueue.size();
+			}
+			if (capacityProfile != null) {
+				// the new job might fit in front of the others
+				capacityChanged();
+			}
+		}
+	}
+
+	/**
+	 * Plans the job and requests its VMs unless one of its target clouds
+	 * already has too many VM requests queued (with backpressure only).
+	 * 
+	 * @return <code>false</code> if the job was not admitted because of the
+	 *         backpressure
+	 */
+	private boolean admit(final Job toprocess, final int nprocs, final long exectime,
+			final double perProcCPUTime) {
+		final int roundRobinIndex = targetIndex;
+		final JobRequest request = planJob(toprocess, nprocs, exectime, perProcCPUTime);
+		if (request == null) {
+			// the job cannot be split to our clouds
+			jobIgnored(toprocess);
+			return true;
+		}
+		if (coAllocation) {
+			for (int p = 0; p < request.parts; p++) {
+				final int cloud = request.clouds[p];
+				if (capacityIndex.getFreeCores(cloud) < 0) {
+					// the job would not start at once, rolling back its
+					// reservations
+					double jobCores = 0;
+					for (int j = 0; j < request.parts; j++) {
+						partSkipped(request, j);
+						if (request.clouds[j] == cloud) {
+							jobCores += request.procs[j] * request.counts[j];
+						}
+					}
+					targetIndex = roundRobinIndex;
+					if (jobCores > target.get(cloud).getCapacities().getRequiredCPUs()) {
+						// the job would never fit
+						jobIgnored(toprocess);
+						return true;
+					}
+					return false;
+				}
+			}
+			if (reserved && !fitsReservation(request)) {
+				// the job would delay the first held job
+				for (int j = 0; j < request.parts; j++) {
+					partSkipped(request, j);
+				}
+				targetIndex = roundRobinIndex;
+				return false;
+			}
+		}
+		if (admissionWatermark > 0) {
+			for (int p = 0; p < request.parts; p++) {
+				final int cloud = request.clouds[p];
+				final int pending = batch == null ? 0 : batchedParts[cloud];
+				if (target.get(cloud).sched.getQueueLength() + pending >= admissionWatermark) {
+					// rolling back the plan, it will be made again when the
+					// job is admitted
+					for (int j = 0; j < request.parts; j++) {
+						partSkipped(request, j);
+					}
+					targetIndex = roundRobinIndex;
+					return false;
+				}
+			}
+		}
+		if (batch != null) {
+			batch.add(request);
+			for (int p = 0; p < request.parts; p++) {
+				batchedParts[request.clouds[p]]++;
+			}
+			return true;
+		}
+		for (int p = 0; p < request.parts; p++) {
+			if (request.failed) {
+				partSkipped(request, p);
+				continue;
+			}
+			if (fromPool(request, p)) {
+				continue;
+			}
+			// Starting the VMs for the job
+			try {
+				partRequested(request, p,
+						requestVMs(request.clouds[p], request.procs[p], request.procPower[p], request.counts[p]), 0);
+			} catch (Exception e) {
+				partFailed(request, p, e);
+			}
+		}
+		completeDispatch(request);
+		return true;
+	}
+
+	/**
+	 * Signals that some VMs of the dispatcher either started to run or were
+	 * destroyed, thus the target clouds might have shorter scheduler queues.
+	 * If there are jobs held back by the backpressure, the dispatcher will try
+	 * to admit them in a separate event (so no new VMs are requested while the
+	 * clouds are still processing their current state changes).
+	 */
+	void capacityChanged() {
+		if (admissionQueue == null || admissionQueue.isEmpty() || admissionPending) {
+			return;
+		}
+		admissionPending = true;
+		new DeferredEvent(1) {
+			@Override
+			protected void eventAction() {
+				admissionPending = false;
+				releaseHeldJobs();
+			}
+		};
+	}
+
+	/**
+	 * Admits the held jobs in their original order until a job's target cloud
+	 * is found to be overloaded again.
+	 */
+	private void releaseHeldJobs() {
+		while (!admissionQueue.isEmpty()) {
+			final JobRequest held = admissionQueue.peek();
+			if (!admit(held.job, held.nprocs, held.exectime, held.perProcCPUTime)) {
+				break;
+			}
+			admissionQueue.poll();
+		}
+		if (capacityProfile != null && admissionQueue.size() > 1) {
+			backfillHeldJobs();
+		}
+		if (batch != null && !batch.isEmpty()) {
+			submitBatch();
+		}
+	}
+
+	/**
+	 * Admits the held jobs behind the first one if they fit the free cores of
+	 * their clouds and they do not delay the expected start of the first held
+	 * job (EASY backfilling). A job does not delay the first held job if it is
+	 * expected to complete before the first job's reservation, or if it only
+	 * uses cores that the first job will not need at its reservation.
+	 */
+	private void backfillHeldJobs() {
+		final Iterator<JobRequest> it = admissionQueue.iterator();
+		if (!reserveForHead(it.next())) {
+			return;
+		}
+		reserved = true;
+		double free = getTotalFreeCores();
+		while (free > 0 && it.hasNext()) {
+			final JobRequest held = it.next();
+			// every processor of a job needs at least a core, this rules out
+			// most of the held jobs without planning them
+			if (held.nprocs > free) {
+				continue;
+			}
+			final long ignoredBefore = ignorecounter;
+			if (admit(held.job, held.nprocs, held.exectime, held.perProcCPUTime)) {
+				it.remove();
+				if (ignorecounter == ignoredBefore) {
+					backfilledJobs++;
+				}
+				free = getTotalFreeCores();
+			}
+		}
+		reserved = false;
+	}
+
+	/**
+	 * Determines the reservation of the first held job from the capacity
+	 * profile: the earliest time all of its target clouds are expected to
+	 * have enough free cores for it, and the cores of its clouds it will not
+	 * need at that time.
+	 * 
+	 * @return <code>false</code> if the job cannot be planned (it will be
+	 *         ignored when admitted)
+	 */
+	private boolean reserveForHead(final JobRequest head) {
+		final int roundRobinIndex = targetIndex;
+		final JobRequest request = planJob(head.job, head.nprocs, head.exectime, head.perProcCPUTime);
+		if (request == null) {
+			return false;
+		}
+		Arrays.fill(headCores, 0);
+		for (int p = 0; p < request.parts; p++) {
+			partSkipped(request, p);
+			headCores[request.clouds[p]] += request.procs[p] * request.counts[p];
+		}
+		targetIndex = roundRobinIndex;
+		final long now = Timed.getFireCount();
+		shadowTime = now;
+		for (int c = 0; c < headCores.length; c++) {
+			if (headCores[c] > 0) {
+				shadowTime = Math.max(shadowTime,
+						capacityProfile.earliestStart(c, headCores[c], capacityIndex.getFreeCores(c), now));
+			}
+		}
+		for (int c = 0; c < headCores.length; c++) {
+			shadowExtra[c] = headCores[c] > 0
+					? capacityProfile.freeAt(c, capacityIndex.getFreeCores(c), shadowTime) - headCores[c]
+					: Double.POSITIVE_INFINITY;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if a planned job can start without delaying the reservation of
+	 * the first held job. If the job runs beyond the reservation, its cores
+	 * are taken from the ones the first job does not need.
+	 */
+	private boolean fitsReservation(final JobRequest request) {
+		if (Timed.getFireCount() + request.exectime * 1000 <= shadowTime) {
+			return true;
+		}
+		boolean fits = true;
+		for (int p = 0; p < request.parts; p++) {
+			shadowExtra[request.clouds[p]] -= request.procs[p] * request.counts[p];
+			fits &= shadowExtra[request.clouds[p]] >= 0;
+		}
+		if (!fits) {
+			for (int p = 0; p < request.parts; p++) {
+				shadowExtra[request.clouds[p]] += request.procs[p] * request.counts[p];
+			}
+		}
+		return fits;
+	}
+
+	/**
+	 * @return the sum of the free cores of the clouds that are not
+	 *         overcommitted
+	 */
+	private double getTotalFreeCores() {
+		double free = 0;
+		for (int c = 0; c < headCores.length; c++) {
+			free += Math.max(0, capacityIndex.getFreeCores(c));
+		}
+		return free;
+	}
+
+	/**
+	 * Splits the job to parts that will be requested as sets of uniform VMs
+	 * from the target clouds. Selects the target cloud for each part, as well
+	 * as reserves its cores in the capacity index (if there is one).
+	 * 
+	 * @return the plan for the job or <code>null</code> if the job cannot be
+	 *         split to the target clouds
+	 */
+	private JobRequest planJob(final Job toprocess, final int nprocs, final long exectime,
+			final double perProcCPUTime) {
+		final JobRequest request;
+		if (usedClouds == null) {
+			usedClouds = new boolean[target.size()];
+		} else {
+			Arrays.fill(usedClouds, false);
+		}
+		if (heterogeneousSplitting) {
+			// the job is split according to the profile of each cloud it is
+			// sent to, every cloud is tried at most once
+			request = new JobRequest(toprocess, nprocs, exectime, perProcCPUTime, target.size());
+			double remaining = nprocs;
+			for (int tries = 0; remaining > 0 && tries < target.size(); tries++) {
+				final int cloud = capacityIndex == null ? targetIndex : capacityIndex.bestFit(remaining, usedClouds);
+				usedClouds[cloud] = true;
+				final CloudProfile profile = profiles[cloud];
+				final int instances = (int) Math.min(profile.machines, Math.ceil(remaining / profile.maxCores));
+				if (instances < 1) {
+					// a cloud without machines, the next one is tried (in
+					// the round robin order this moves past the cloud)
+					selected(cloud, 0);
+					continue;
+				}
+				final double requestedprocs = Math.min(profile.maxCores, remaining / instances);
+				request.addPart(cloud, instances, requestedprocs,
+						userDefinedProcPower ? useThisProcPower : profile.procPower);
+				selected(cloud, requestedprocs * instances);
+				remaining -= requestedprocs * instances;
+			}
+			if (remaining > 0) {
+				// the job could not be placed even if we split it amongst all
+				// our clouds
+				for (int p = 0; p < request.parts; p++) {
+					partSkipped(request, p);
+				}
+				return null;
+			}
+		} else {
+			// to fulfill the job's cpu core requirements we need the
+			// following set of VMs with the following number of CPUs
+			final int requestedTotalInstances = maxmachinecores >= nprocs ? 1
+					: (nprocs / ((int) maxmachinecores)) + ((nprocs % (int) maxmachinecores) == 0 ? 0 : 1);
+			final double requestedprocs = (double) nprocs / requestedTotalInstances;
+			// For simplicity, here we have an assumption that our clouds
+			// are uniform...
+			final int requestedClouds = (int) Math.ceil(requestedTotalInstances > maxIaaSmachines
+					? (double) requestedTotalInstances / maxIaaSmachines : 1);
+			if (requestedClouds > target.size()) {
+				// two parts would go to the same cloud, which could never
+				// host both of them at once
+				return null;
+			}
+			final int uniformSpread = requestedTotalInstances / requestedClouds;
+			int remainder = requestedTotalInstances % requestedClouds;
+			request = new JobRequest(toprocess, nprocs, exectime, perProcCPUTime, requestedClouds);
+
+			for (int j = 0; j < requestedClouds; j++) {
+				final int expectedSpread = uniformSpread + remainder;
+				final int currentRequestSize = (int) Math.min(maxIaaSmachines, expectedSpread);
+				remainder = expectedSpread - currentRequestSize;
+				// the cloud with the best fitting free capacity (that is not
+				// used by the job yet) or the next one in the round robin
+				// order
+				final int cloud = capacityIndex == null ? targetIndex
+						: capacityIndex.bestFit(requestedprocs * currentRequestSize, usedClouds);
+				usedClouds[cloud] = true;
+				request.addPart(cloud, currentRequestSize, requestedprocs, useThisProcPower);
+				selected(cloud, requestedprocs * currentRequestSize);
+			}
+		}
+		request.planningComplete();
+		return request;
+	}
+
+	/**
+	 * Records that a cloud was selected for a part of a job. With the capacity
+	 * index the part's cores are reserved, otherwise the next cloud is selected
+	 * for the round robin scheduling.
+	 * 
+	 * @param cloud
+	 *            the selected cloud
+	 * @param cores
+	 *            the total number of cores to be requested from the cloud
+	 */
+	private void selected(final int cloud, final double cores) {
+		if (capacityIndex == null) {
+			// doing a round robin scheduling for the target
+			// infrastructures
+			targetIndex = cloud + 1;
+			if (targetIndex == target.size()) {
+				targetIndex = 0;
+			}
+		} else {
+			capacityIndex.reserve(cloud, cores);
+		}
+	}
+
+	/**
+	 * Requests a set of uniform VMs from one of the target clouds (the request
+	 * is recorded if the simulation is profiled).
+	 *
+	 * @param cloud
+	 *            the index of the target cloud
+	 * @param procs
+	 *            the number of cores for each VM
+	 * @param procPower
+	 *            the per core processing power of the VMs
+	 * @param count
+	 *            the number of VMs to request
+	 * @return the VMs received from the cloud
+	 */
+	private VirtualMachine[] requestVMs(final int cloud, final double procs, final double procPower,
+			final int count) throws Exception {
+		final Object profiled = SimulationProfiler.vmRequestStarted();
+		final VirtualMachine[] vms = target.get(cloud).requestVM(va,
+				new ConstantConstraints(procs, procPower, isMinimumProcPower, 512000000), repo.get(cloud), count);
+		SimulationProfiler.vmRequestFinished(profiled, cloud, count, procs,
+				target.get(cloud).sched.getQueueLength());
+		return vms;
+	}
+
+	/**
+	 * Records the VMs received for a particular part of a job.
+	 * 
+	 * @param request
+	 *            the job's plan
+	 * @param part
+	 *            the part the VMs were requested for
+	 * @param vmsTemp
+	 *            the VMs received from the cloud
+	 * @param from
+	 *            the position of the part's first VM in the received array
+	 */
+	private void partRequested(final JobRequest request, final int part, final VirtualMachine[] vmsTemp,
+			final int from) {
+		request.setVMs(part, vmsTemp, from);
+		final int cloud = request.clouds[part];
+		final int queueLength = target.get(cloud).sched.getQueueLength();
+		if (queueLength > maxQueueLength) {
+			maxQueueLength = queueLength;
+		}
+		if (capacityIndex != null) {
+			capacityIndex.track(cloud, request.vms, request.offsets[part], request.counts[part],
+					request.procs[part]);
+		}
+		if (pool != null) {
+			pool.register(cloud, request.procs[part], request.procPower[part], request.vms, request.offsets[part],
+					request.counts[part]);
+			if (queueLength > 0) {
+				// the cloud lacks capacity, idle VMs should give way
+				pool.evict(cloud, request.procs[part] * request.counts[part]);
+			}
+		}
+	}
+
+	/**
+	 * Tries to serve a particular part of a job with idle VMs from the pool.
+	 * 
+	 * @param request
+	 *            the job's plan
+	 * @param part
+	 *            the part to be served
+	 * @return <code>true</code> if the part got its VMs from the pool
+	 */
+	private boolean fromPool(final JobRequest request, final int part) {
+		if (pool == null) {
+			return false;
+		}
+		final VirtualMachine[] vmsTemp = pool.acquire(request.clouds[part], request.procs[part],
+				request.procPower[part], request.counts[part]);
+		if (vmsTemp == null) {
+			return false;
+		}
+		request.setVMs(part, vmsTemp, 0);
+		// the capacity index still tracks the pooled VMs from their original
+		// request
+		partSkipped(request, part);
+		return true;
+	}
+
+	/**
+	 * Records that the VMs of a particular part of a job could not be
+	 * requested.
+	 * 
+	 * @param request
+	 *            the job's plan
+	 * @param part
+	 *            the part that failed
+	 * @param e
+	 *            the reason of the failure
+	 */
+	private void partFailed(final JobRequest request, final int part, final Exception e) {
+		request.failed = true;
+		partSkipped(request, part);
+		if (e instanceof VMManager.VMManagementException) {
+			// VM cannot be served because of too large resource
+			// request
+			if (verbosity) {
+				System.err.println("The oversized job's id: " + request.job.getId() + " idx: " + minindex);
+			}
+		} else {
+			System.err.println("Unknown VM creation error: " + e.getMessage());
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Gives back the cores reserved for a part of a job that is not going to
+	 * be requested.
+	 * 
+	 * @param request
+	 *            the job's plan
+	 * @param part
+	 *            the part that will not be requested
+	 */
+	private void partSkipped(final JobRequest request, final int part) {
+		if (capacityIndex != null) {
+			capacityIndex.release(request.clouds[part], request.procs[part] * request.counts[part]);
+		}
+	}
+
+	/**
+	 * Hands over the job to the runner registry if all of its VMs were
+	 * successfully requested. Otherwise it gets rid of the job's VMs and marks
+	 * the job ignored.
+	 * 
+	 * @param request
+	 *            the job's plan with all its parts already requested
+	 */
+	private void completeDispatch(final JobRequest request) {
+		final VirtualMachine[] vms = request.vms;
+		boolean servability = !request.failed;
+		for (int j = 0; j < vms.length && servability; j++) {
+			// check if the job was not servable because it would have
+			// needed more resources than the target clouds could offer
+			// in total.
+			servability &= vms[j] != null && !vms[j].getState().equals(VirtualMachine.State.NONSERVABLE);
+		}
+		if (servability) {
+			runners.start(request.job, request.nprocs, request.exectime, request.perProcCPUTime, vms,
+					request.targetIndexes, request.vmCores);
+		} else {
+			for (int j = 0; j < vms.length; j++) {
+				if (vms[j] != null && !vms[j].getState().equals(VirtualMachine.State.NONSERVABLE)) {
+					try {
+						target.get(request.targetIndexes[j]).terminateVM(vms[j], true);
+					} catch (VMManager.NoSuchVMException e) {
+						// ignore
+					} catch (VMManagementException e) {
+						// ignore 2
+					}
+				}
+			}
+			jobIgnored(request.job);
+		}
+	}
+
+	/**
+	 * Marks a job ignored. When the dependencies are considered, the
+	 * dependants of the job (and their dependants etc.) are ignored as well.
+	 * 
+	 * @param job
+	 *            the job that could not be served
+	 */
+	private void jobIgnored(final Job job) {
+		jobIgnored(job, false);
+	}
+
+	/**
+	 * @param failed
+	 *            <code>true</code> if the job was given up after failures
+	 */
+	private void jobIgnored(final Job job, final boolean failed) {
+		ignorecounter++;
+		if (resultSink != null) {
+			if (failed) {
+				resultSink.failed(job);
+			} else {
+				resultSink.ignored(job);
+			}
+		}
+		if (tableIndexes == null) {
+			return;
+		}
+		final ArrayDeque<Job> orphans = new ArrayDeque<Job>();
+		orphans.add(job);
+		Job current;
+		while ((current = orphans.poll()) != null) {
+			final List<Job> dependants = ((DCFJob) current).getDependants();
+			if (dependants == null) {
+				continue;
+			}
+			for (Job dep : dependants) {
+				final Integer index = tableIndexes.get(dep);
+				if (index != null && dependant[index]) {
+					blockedDependants--;
+					ignorecounter++;
+					if (resultSink != null) {
+						resultSink.ignored(dep);
+					}
+					orphans.add(dep);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Releases the dependants of a job once the job is complete. A dependant
+	 * is dispatched after the delay its trace specifies (counted from the
+	 * completion of its predecessor).
+	 * 
+	 * @param job
+	 *            the completed job
+	 */
+	void jobCompleted(final Job job) {
+		if (!failedAttempts.isEmpty()) {
+			failedAttempts.remove(job);
+		}
+		if (tableIndexes == null || isStopped) {
+			return;
+		}
+		final List<Job> dependants = ((DCFJob) job).getDependants();
+		if (dependants == null) {
+			return;
+		}
+		final long now = Timed.getFireCount();
+		boolean released = false;
+		for (Job dep : dependants) {
+			final Integer index = tableIndexes.get(dep);
+			if (index != null && dependant[index]) {
+				// traces mark unknown delays with negative values
+				final long releaseTime = now + Math.max(0, ((DCFJob) dep).getDelayAfterPredecessor()) * 1000;
+				// the job's queueing is measured from its release
+				final long shift = releaseTime / 1000 - table.submit[index];
+				table.submit[index] += shift;
+				dep.adjust(shift);
+				readyDependants.add(releaseTime, index);
+				blockedDependants--;
+				released = true;
+			}
+		}
+		if (released) {
+			dueTimeChanged(now);
+		}
+	}
+
+	/**
+	 * Brings the next event of the dispatcher forward (or subscribes the
+	 * dispatcher again) after a job became due earlier than the dispatcher
+	 * expected.
+	 */
+	private void dueTimeChanged(final long now) {
+		final long delay = Math.max(1, nextDueTime() - now);
+		if (isSubscribed()) {
+			updateFrequency(delay);
+		} else {
+			subscribe(delay);
+		}
+	}
+
+	/**
+	 * Decides about the next attempt of a job whose VMs were lost before the
+	 * job completed. The job is dispatched again after the delay of the retry
+	 * policy (see setRetryPolicy), or it is given up (and ignored together
+	 * with its dependants) if it has failed too many times.
+	 * 
+	 * @param job
+	 *            the job whose attempt was abandoned
+	 */
+	void jobFailed(final Job job) {
+		if (isStopped) {
+			return;
+		}
+		final Integer previous = failedAttempts.get(job);
+		final int attempt = previous == null ? 1 : previous + 1;
+		if (attempt > maxRetries) {
+			failedAttempts.remove(job);
+			abandonedJobs++;
+			jobIgnored(job, true);
+			return;
+		}
+		failedAttempts.put(job, attempt);
+		final long now = Timed.getFireCount();
+		final JobRequest retry = new JobRequest(job, job.nprocs, job.getExectimeSecs(), job.perProcCPUTime, 0);
+		// exponential backoff, so the jobs do not keep hitting an outage
+		retry.releaseTime = now + Math.max(1, retryDelay << Math.min(attempt - 1, 20));
+		retries.add(retry);
+		traceDone = false;
+		dueTimeChanged(now);
+	}
+
+	/**
+	 * Signals that a PM was removed from or registered again with one of the
+	 * target clouds, so the capacity index follows the size of the cloud.
+	 * 
+	 * @param cloud
+	 *            the index of the cloud in the target list
+	 * @param cores
+	 *            the cores of the PM, negative if the PM was removed
+	 */
+	void hostCapacityChanged(final int cloud, final double cores) {
+		if (capacityIndex != null) {
+			capacityIndex.resize(cloud, cores);
+		}
+		if (cores > 0) {
+			// held jobs might fit the recovered PM
+			capacityChanged();
+		}
+	}
+
+	/**
+	 * Tells if a job was hit by a failure before (and has not completed
+	 * since then)
+	 */
+	boolean wasRetried(final Job job) {
+		return !failedAttempts.isEmpty() && failedAttempts.containsKey(job);
+	}
+
+	/**
+	 * Sets how the jobs are retried when they are hit by a failure of their
+	 * infrastructure (e.g., see FailureInjector). By default, the failed jobs
+	 * are not retried.
+	 * 
+	 * @param retryCount
+	 *            the number of times a job can be tried again, the job is
+	 *            ignored when it fails once more
+	 * @param delay
+	 *            the time to wait before the first retry of a job (in ms),
+	 *            the delay is doubled for every further retry of the job
+	 */
+	public void setRetryPolicy(final int retryCount, final long delay) {
+		if (retryCount < 0 || delay < 0) {
+			throw new IllegalArgumentException("The retry count and delay cannot be negative");
+		}
+		maxRetries = retryCount;
+		retryDelay = delay;
+	}
+
+	/**
+	 * Switches on the dependency aware dispatching of workflow traces. The
+	 * jobs whose predecessor (see DCFJob) is also in the trace are not
+	 * dispatched at their submission time, but they are released after their
+	 * predecessor completes (and the delay after the predecessor has passed).
+	 * If a job is ignored then its dependants are ignored as well. Only
+	 * available if the complete trace is loaded and no checkpoints are taken,
+	 * it must be set before the simulation starts.
+	 * 
+	 * @param dependencyAware
+	 *            <code>true</code> if the dependencies should be considered
+	 */
+	public void setDependencyAwareDispatching(final boolean dependencyAware) {
+		if (!dependencyAware) {
+			tableIndexes = null;
+			dependant = null;
+			readyDependants = null;
+			blockedDependants = 0;
+			return;
+		}
+		if (table == null) {
+			throw new IllegalStateException("Dependencies can only be considered with a completely loaded trace");
+		}
+		if (checkpoint != null) {
+			throw new IllegalStateException("Dependency aware dispatching cannot be checkpointed");
+		}
+		final Job[] handles = table.handles;
+		tableIndexes = new IdentityHashMap<Job, Integer>(handles.length);
+		for (int i = 0; i < handles.length; i++) {
+			tableIndexes.put(handles[i], i);
+		}
+		dependant = new boolean[handles.length];
+		blockedDependants = 0;
+		for (int i = minindex; i < handles.length; i++) {
+			final Job predecessor = ((DCFJob) handles[i]).getPredecessor();
+			if (predecessor != null && tableIndexes.containsKey(predecessor)) {
+				dependant[i] = true;
+				blockedDependants++;
+			}
+		}
+		readyDependants = new ReleaseQueue();
+	}
+
+	/**
+	 * Tells how many jobs were dispatched after their predecessor completed
+	 * 
+	 * @return
+	 */
+	public long getReleasedDependants() {
+		return releasedDependants;
+	}
+
+	/**
+	 * Submits the VM requests of all jobs collected in the current batch.
+	 * The parts of the jobs are grouped by their target cloud and VM size and
+	 * each group is requested with a single call (so the target cloud's
+	 * scheduler is only invoked once per group). A group is never larger than
+	 * the total core count of its target cloud, otherwise the whole group
+	 * would be rejected as non servable. If a group's request fails, its parts
+	 * are requested one by one.
+	 */
+	private void submitBatch() {
+		// collecting all parts of the batch
+		int partCount = 0;
+		for (JobRequest request : batch) {
+			partCount += request.parts;
+		}
+		final JobRequest[] partRequests = new JobRequest[partCount];
+		final Integer[] partOrder = new Integer[partCount];
+		final int[] partIndexes = new int[partCount];
+		int pointer = 0;
+		for (JobRequest request : batch) {
+			for (int p = 0; p < request.parts; p++) {
+				if (fromPool(request, p)) {
+					continue;
+				}
+				partRequests[pointer] = request;
+				partIndexes[pointer] = p;
+				partOrder[pointer] = pointer;
+				pointer++;
+			}
+		}
+		partCount = pointer;
+		// grouping the parts
+		Arrays.sort(partOrder, 0, partCount, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer o1, final Integer o2) {
+				final JobRequest r1 = partRequests[o1];
+				final JobRequest r2 = partRequests[o2];
+				final int p1 = partIndexes[o1];
+				final int p2 = partIndexes[o2];
+				int result = r1.clouds[p1] - r2.clouds[p2];
+				if (result == 0) {
+					result = Double.compare(r1.procs[p1], r2.procs[p2]);
+				}
+				if (result == 0) {
+					result = Double.compare(r1.procPower[p1], r2.procPower[p2]);
+				}
+				return result == 0 ? o1 - o2 : result;
+			}
+		});
+		int groupStart = 0;
+		while (groupStart < partCount) {
+			final JobRequest first = partRequests[partOrder[groupStart]];
+			final int firstPart = partIndexes[partOrder[groupStart]];
+			final int cloud = first.clouds[firstPart];
+			final double procs = first.procs[firstPart];
+			final double pp = first.procPower[firstPart];
+			final double cloudCores = target.get(cloud).getCapacities().getRequiredCPUs();
+			int groupEnd = groupStart;
+			int groupVMs = 0;
+			while (groupEnd < partCount) {
+				final JobRequest r = partRequests[partOrder[groupEnd]];
+				final int p = partIndexes[partOrder[groupEnd]];
+				if (r.clouds[p] != cloud || r.procs[p] != procs || r.procPower[p] != pp
+						|| groupEnd > groupStart && (groupVMs + r.counts[p]) * procs > cloudCores) {
+					break;
+				}
+				groupVMs += r.counts[p];
+				groupEnd++;
+			}
+			VirtualMachine[] groupVMArray = null;
+			if (groupEnd - groupStart > 1) {
+				try {
+					groupVMArray = requestVMs(cloud, procs, pp, groupVMs);
+					batchedRequests++;
+				} catch (Exception e) {
+					// falling back to the one by one requests below
+				}
+			}
+			int vmPointer = 0;
+			for (int i = groupStart; i < groupEnd; i++) {
+				final JobRequest r = partRequests[partOrder[i]];
+				final int p = partIndexes[partOrder[i]];
+				if (r.failed) {
+					partSkipped(r, p);
+					continue;
+				}
+				if (groupVMArray != null) {
+					partRequested(r, p, groupVMArray, vmPointer);
+					vmPointer += r.counts[p];
+				} else {
+					try {
+						partRequested(r, p, requestVMs(cloud, procs, pp, r.counts[p]), 0);
+					} catch (Exception e) {
+						partFailed(r, p, e);
+					}
+				}
+			}
+			groupStart = groupEnd;
+		}
+		for (JobRequest request : batch) {
+			completeDispatch(request);
+		}
+		batch.clear();
+		Arrays.fill(batchedParts, 0);
+	}
+
+	/**
+	 * Collects the earilest submission time for the trace
+	 * 
+	 * @return
+	 */
+	public long getMinsubmittime() {
+		return minsubmittime;
+	}
+
+	/**
+	 * Tells how many jobs were unservable in the target clouds
+	 * 
+	 * @return
+	 */
+	public long getIgnorecounter() {
+		return ignorecounter;
+	}
+
+	/**
+	 * tells how many VMs executed their tasks successfully (and then
+	 * successively how many of them got destroyed)
+	 * 
+	 * @return
+	 */
+	public long getDestroycounter() {
+		return destroycounter;
+	}
+
+	/**
+	 * Allows the job runner registry to let us know if it has completed the
+	 * execution of a job
+	 * 
+	 * @param finishedVMs
+	 *            the number of VMs that were actually used for the job
+	 */
+	void increaseDestroyCounter(final int finishedVMs) {
+		if (finishedVMs <= 0) {
+			throw new IllegalStateException("Tried to reduce the destroy counter!");
+		}
+		destroycounter += finishedVMs;
+	}
+
+	/**
+	 * Sets the processing power related requirements for the resource
+	 * allocation requests for all VMs.
+	 * 
+	 * @param usableProcPower
+	 *            the CPU's processing power instructions/ms
+	 * @param minimum
+	 *            is it the minimum required or the total you want to specify
+	 */
+	public void setUsableProcPower(final double usableProcPower, final boolean minimum) {
+		this.useThisProcPower = usableProcPower;
+		userDefinedProcPower = true;
+		isMinimumProcPower = minimum;
+	}
+
+	/**
+	 * Switches between the round robin and the capacity indexed target cloud
+	 * selection. With the capacity indexed selection, the dispatcher keeps
+	 * track of the uncommitted cores of each target cloud (updated according
+	 * to the state changes of the dispatched VMs) and sends the VM requests to
+	 * the cloud with the best fitting free capacity. The co-allocation always
+	 * uses the capacity indexed selection, thus it cannot be switched off
+	 * while the co-allocation is on.
+	 * 
+	 * @param capacityIndexed
+	 *            <code>true</code> if the capacity indexed selection should be
+	 *            used from now on
+	 */
+	public void setCapacityIndexedTargetSelection(final boolean capacityIndexed) {
+		if (capacityIndexed || coAllocation) {
+			if (capacityIndex == null) {
+				capacityIndex = new CloudCapacityIndex(this, target);
+			}
+		} else {
+			capacityIndex = null;
+		}
+	}
+
+	/**
+	 * Switches between the uniform and the heterogeneous job splitting. With
+	 * the uniform splitting, every job is split to VMs according to the
+	 * largest PM of all target clouds and the smallest processing power of
+	 * all PMs. With the heterogeneous splitting, the job is split according to
+	 * the profile of the cloud it is sent to: its VMs are sized to the largest
+	 * PM of that cloud, and the part of the job that does not fit the cloud is
+	 * sent to the next one.
+	 * 
+	 * @param heterogeneous
+	 *            <code>true</code> if the heterogeneous splitting should be
+	 *            used from now on
+	 */
+	public void setHeterogeneousSplitting(final boolean heterogeneous) {
+		heterogeneousSplitting = heterogeneous;
+	}
+
+	/**
+	 * Switches the batching of VM requests on or off. With batching, the VM
+	 * requests of all jobs due at the same time are grouped by their target
+	 * cloud and VM size and each group is submitted with a single request.
+	 * Note: the schedulers place the VMs of a single request together, so
+	 * batching suits bursts of small jobs the best. As the VMs of unrelated
+	 * jobs are placed together, the results can differ from the ones without
+	 * batching. With backpressure, every job part waiting in the batch is
+	 * counted as a queued request of its target cloud.
+	 * 
+	 * @param batching
+	 *            <code>true</code> if the VM requests should be batched from
+	 *            now on
+	 */
+	public void setBatchedSubmission(final boolean batching) {
+		batch = batching ? new ArrayList<JobRequest>() : null;
+		batchedParts = batching ? new int[target.size()] : null;
+	}
+
+	/**
+	 * Tells how many VM requests were made for more than a single job
+	 * 
+	 * @return
+	 */
+	public long getBatchedRequests() {
+		return batchedRequests;
+	}
+
+	/**
+	 * Switches on the reuse of VMs between jobs. The VMs of completed jobs are
+	 * kept running for the given time, and they are handed over to the next
+	 * job that needs VMs with the same shape from the same cloud.
+	 * 
+	 * @param keepAlive
+	 *            the time (in ticks) the idle VMs are kept running, if zero or
+	 *            negative then the pooling is switched off
+	 * @throws IllegalStateException
+	 *             if the pooling is switched on while the jobs are backfilled
+	 */
+	public void setVMPooling(final long keepAlive) {
+		if (keepAlive > 0 && capacityProfile != null) {
+			throw new IllegalStateException("VM pooling cannot be used together with backfilling");
+		}
+		pool = keepAlive > 0 ? new VMPool(this, target.size(), keepAlive) : null;
+	}
+
+	/**
+	 * Provides the pool of idle VMs
+	 * 
+	 * @return the pool or <code>null</code> if VMs are not reused
+	 */
+	VMPool getVMPool() {
+		return pool;
+	}
+
+	/**
+	 * Provides the registry running the jobs handed over to the clouds
+	 */
+	JobRunnerRegistry getRunners() {
+		return runners;
+	}
+
+	/**
+	 * Switches on the backpressure on the target clouds' VM schedulers. If a
+	 * cloud's scheduler queue is at or above the watermark, the jobs are held
+	 * in the dispatcher (in the order of the trace) instead of sending further
+	 * VM requests to the cloud. Held jobs are admitted once the VMs of earlier
+	 * jobs start or finish.
+	 * 
+	 * @param watermark
+	 *            the scheduler queue length at which the jobs are held back, if
+	 *            zero or negative then the backpressure is switched off
+	 */
+	public void setAdmissionWatermark(final int watermark) {
+		admissionWatermark = watermark;
+		if (watermark > 0 || coAllocation) {
+			// the co-allocation holds its jobs in the same queue
+			if (admissionQueue == null) {
+				admissionQueue = new ArrayDeque<JobRequest>();
+			}
+		} else {
+			admissionQueue = null;
+		}
+	}
+
+	/**
+	 * Switches on the co-allocation of the VMs of the jobs. The cores of all
+	 * VMs of a job are reserved together in the capacity index, and the VMs
+	 * are only requested if all of them fit the uncommitted capacity of their
+	 * target clouds. Otherwise the job (and the jobs after it) are held back
+	 * until enough VMs are destroyed. Thus the VMs of a job do not wait in the
+	 * scheduler queues and they boot at the same time. Jobs that would not fit
+	 * their clouds even if they were empty are ignored.
+	 * 
+	 * The co-allocation implies the capacity indexed target selection, and
+	 * its holding queue is shared with the backpressure. Both are kept while
+	 * the co-allocation is on, regardless of the order the setters are
+	 * called in.
+	 * 
+	 * @param coAllocate
+	 *            <code>true</code> if the VMs should be co-allocated
+	 */
+	public void setCoAllocation(final boolean coAllocate) {
+		coAllocation = coAllocate;
+		if (coAllocate) {
+			if (capacityIndex == null) {
+				capacityIndex = new CloudCapacityIndex(this, target);
+			}
+			if (admissionQueue == null) {
+				admissionQueue = new ArrayDeque<JobRequest>();
+			}
+		} else {
+			// the backfilling depends on the co-allocation
+			capacityProfile = null;
+			if (admissionWatermark <= 0) {
+				admissionQueue = null;
+			}
+		}
+	}
+
+	/**
+	 * Switches on the EASY backfilling of the jobs held back by the
+	 * co-allocation. The first held job gets a reservation at the earliest
+	 * time its clouds are expected to have enough free cores (according to
+	 * the execution times in the trace), and the jobs held behind it are
+	 * started in the meantime if they do not delay this reservation. Jobs
+	 * that arrive while others are held are also considered for backfilling.
+	 * 
+	 * The backfilling implies the co-allocation, thus it must be set after
+	 * setCoAllocation. It cannot be combined with VM pooling: the pooled VMs
+	 * leave the capacity profile while their cores stay committed in the
+	 * capacity index, so the reservations could never be satisfied.
+	 * 
+	 * @param backfill
+	 *            <code>true</code> if the held jobs should be backfilled
+	 * @throws IllegalStateException
+	 *             if the backfilling is switched on while VMs are pooled
+	 */
+	public void setBackfilling(final boolean backfill) {
+		if (!backfill) {
+			capacityProfile = null;
+			return;
+		}
+		if (pool != null) {
+			throw new IllegalStateException("Backfilling cannot be used together with VM pooling");
+		}
+		if (!coAllocation) {
+			setCoAllocation(true);
+		}
+		capacityProfile = new CapacityProfile(target.size());
+		shadowExtra = new double[target.size()];
+		headCores = new double[target.size()];
+	}
+
+	CapacityProfile getCapacityProfile() {
+		return capacityProfile;
+	}
+
+	/**
+	 * Tells how many held jobs were started before the jobs held in front of
+	 * them
+	 * 
+	 * @return the number of backfilled jobs
+	 */
+	public long getBackfilledJobs() {
+		return backfilledJobs;
+	}
+
+	/**
+	 * Records the outcome of every job from now on
+	 * 
+	 * @param sink
+	 *            where the outcomes should be written, <code>null</code> if
+	 *            they should not be recorded
+	 */
+	public void setResultSink(final JobResultSink sink) {
+		resultSink = sink;
+	}
+
+	JobResultSink getResultSink() {
+		return resultSink;
+	}
+
+	/**
+	 * Tells how many started jobs had more than one VM
+	 * 
+	 * @return
+	 */
+	public long getMultiVMJobs() {
+		return runners.getMultiVMJobs();
+	}
+
+	/**
+	 * Tells how long the first VMs of the multi VM jobs waited for the last
+	 * VM of their job in total
+	 * 
+	 * @return the total straggler wait in ms
+	 */
+	public long getTotalStragglerWait() {
+		return runners.getTotalStragglerWait();
+	}
+
+	public long getMaxStragglerWait() {
+		return runners.getMaxStragglerWait();
+	}
+
+	/**
+	 * Tells how many cores were held idle by the VMs waiting for the other
+	 * VMs of their job
+	 * 
+	 * @return the idle core-seconds
+	 */
+	public double getIdleCoreSeconds() {
+		return runners.getIdleCoreSeconds();
+	}
+
+	/**
+	 * Tells how many job attempts were abandoned because their VMs were lost
+	 * (e.g., their PM failed)
+	 * 
+	 * @return
+	 */
+	public long getFailedAttempts() {
+		return runners.getFailedAttempts();
+	}
+
+	/**
+	 * Tells how many jobs were given up after failing more times than the
+	 * retry policy allows
+	 * 
+	 * @return
+	 */
+	public long getAbandonedJobs() {
+		return abandonedJobs;
+	}
+
+	/**
+	 * Tells how many core-seconds were used by the abandoned job attempts
+	 * 
+	 * @return
+	 */
+	public double getWastedCoreSeconds() {
+		return runners.getWastedCoreSeconds();
+	}
+
+	/**
+	 * Tells how many core-seconds were used by the jobs that completed
+	 * 
+	 * @return
+	 */
+	public double getUsefulCoreSeconds() {
+		return runners.getUsefulCoreSeconds();
+	}
+
+	/**
+	 * Tells the share of the core-seconds used by the jobs that was not wasted
+	 * on abandoned attempts
+	 * 
+	 * @return the goodput between 0 and 1 (1 if no cores were used at all)
+	 */
+	public double getGoodput() {
+		final double useful = runners.getUsefulCoreSeconds();
+		final double used = useful + runners.getWastedCoreSeconds();
+		return used == 0 ? 1 : useful / used;
+	}
+
+	/**
+	 * Tells the average bounded slowdown of the completed jobs (i.e., their
+	 * time from submission to completion relative to their execution time,
+	 * jobs shorter than 10 seconds are considered 10 seconds long)
+	 * 
+	 * @return
+	 */
+	public double getMeanSlowdown() {
+		return runners.getMeanSlowdown();
+	}
+
+	/**
+	 * Tells the average bounded slowdown of the completed jobs that were hit
+	 * by failures
+	 * 
+	 * @return
+	 */
+	public double getMeanRetriedSlowdown() {
+		return runners.getMeanRetriedSlowdown();
+	}
+
+	/**
+	 * Tells how many jobs were held back by the backpressure
+	 * 
+	 * @return
+	 */
+	public long getHeldJobs() {
+		return heldJobs;
+	}
+
+	/**
+	 * Tells the most jobs that were held back at the same time
+	 * 
+	 * @return
+	 */
+	public int getMaxAdmissionQueueLength() {
+		return maxAdmissionQueueLength;
+	}
+
+	/**
+	 * Tells the longest VM scheduler queue observed in any of the target
+	 * clouds right after the dispatcher submitted a VM request
+	 * 
+	 * @return
+	 */
+	public int getMaxQueueLength() {
+		return maxQueueLength;
+	}
+
+	/**
+	 * Tells how many times the dispatcher was notified by the simulator to
+	 * process the due jobs. This is not the number of events the simulation
+	 * processed: the events of the VMs, PMs, job runners and monitors are not
+	 * included.
+	 * 
+	 * @return
+	 */
+	public long getDispatcherEvents() {
+		return dispatcherEvents;
+	}
+
+	/**
+	 * Allows the producer of a streamed trace to offer further jobs after it
+	 * has returned no jobs (e.g., when the jobs are sent to the dispatcher
+	 * while the simulation runs). Once the trace is closed again, the
+	 * dispatcher finishes as usual after its last job.
+	 * 
+	 * @param open
+	 *            <code>true</code> if the trace should be kept open
+	 */
+	public void setOpenTrace(final boolean open) {
+		if (window == null) {
+			throw new IllegalStateException("Only streamed traces can be kept open");
+		}
+		openTrace = open;
+		if (!open && !isSubscribed() && peekSubmittime() < 0) {
+			traceDone = true;
+			progressEvent(Timed.getFireCount());
+		}
+	}
+
+	/**
+	 * Notifies the dispatcher of an open trace that its producer has new jobs.
+	 * The jobs are expected to be submitted not earlier than the jobs offered
+	 * before. If the dispatcher was waiting for jobs then it is subscribed
+	 * again so it receives an event when the first new job is due.
+	 * 
+	 * @throws TraceManagementException
+	 *             if the new jobs could not be fetched from the producer
+	 */
+	public void jobsArrived() throws TraceManagementException {
+		if (!openTrace) {
+			throw new IllegalStateException("New jobs can only arrive to an open trace");
+		}
+		window.reopen();
+		final long submittime = peekSubmittime();
+		if (!isStopped && !isSubscribed() && submittime >= 0) {
+			subscribe(Math.max(1, submittime * 1000 - Timed.getFireCount()));
+		}
+	}
+
+	/**
+	 * Do not continue the trace processing, terminate all activities as soon as
+	 * possible.
+	 */
+	public void stopTraceProcessing() {
+		unsubscribe();
+		isStopped = true;
+		traceDone = true;
+		progressEvent(Timed.getFireCount());
+	}
+
+	/**
+	 * Publishes the progress of the dispatcher if its reporter asked for fresh
+	 * figures, or if the dispatcher has just completed all of its jobs (so the
+	 * reporter learns that it can stop). Called at every event of the
+	 * dispatcher and its job runner registry.
+	 * 
+	 * @param now
+	 *            the current simulated time
+	 */
+	void progressEvent(final long now) {
+		if (progress.isRequested() || (traceDone && vmsInFlight == 0)) {
+			int queuedVMs = 0;
+			for (IaaSService iaas : target) {
+				queuedVMs += iaas.sched.getQueueLength();
+			}
+			progress.publish(now, jobsDispatched, jobsStarted, jobsFinished, vmsInFlight, queuedVMs, traceDone);
+		}
+	}
+
+	/**
+	 * Provides the progress figures last published by the dispatcher (these
+	 * are safe to read from any thread while the simulation runs)
+	 * 
+	 * @return
+	 */
+	public ProgressReporter getProgress() {
+		return progress;
+	}
+
+	/**
+	 * Tells if the dispatcher will not take further jobs from its trace
+	 * (i.e., the trace is exhausted and closed, no dependants are blocked and
+	 * no failed jobs wait for a retry)
+	 * 
+	 * @return <code>true</code> if no further jobs are dispatched
+	 */
+	public boolean isTraceDone() {
+		return traceDone;
+	}
+
+	public long getJobsDispatched() {
+		return jobsDispatched;
+	}
+
+	public long getJobsStarted() {
+		return jobsStarted;
+	}
+
+	public long getJobsFinished() {
+		return jobsFinished;
+	}
+
+	public int getVMsInFlight() {
+		return vmsInFlight;
 	}
 
 	public boolean isStopped() {
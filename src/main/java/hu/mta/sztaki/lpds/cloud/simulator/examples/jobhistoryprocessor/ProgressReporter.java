@@ -0,0 +1,171 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the progress of a dispatcher on the standard error at a fixed wall
+ * clock rate.
+ *
+ * The reporter does not own any state of the dispatcher: the counters the
+ * dispatcher acts on are kept by the dispatcher itself and they are only
+ * touched by the simulation thread. The reporter only reads the figures the
+ * dispatcher publishes. Before each report it asks for fresh figures, and the
+ * dispatcher (or its job runner registry) publishes them at its next event,
+ * together with the current VM scheduler queue lengths of its clouds. Thus the
+ * reporter never touches the simulator's own data structures, and the queue
+ * lengths are refreshed even while the dispatcher itself does not send
+ * further VM requests.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class ProgressReporter implements Runnable {
+	/**
+	 * The figures published by the dispatcher at a particular simulated time
+	 */
+	private static class Snapshot {
+		final long simTime;
+		final long jobsDispatched;
+		final long jobsStarted;
+		final long jobsFinished;
+		final int vmsInFlight;
+		final int queuedVMs;
+		final boolean traceDone;
+
+		Snapshot(final long simTime, final long jobsDispatched, final long jobsStarted, final long jobsFinished,
+				final int vmsInFlight, final int queuedVMs, final boolean traceDone) {
+			this.simTime = simTime;
+			this.jobsDispatched = jobsDispatched;
+			this.jobsStarted = jobsStarted;
+			this.jobsFinished = jobsFinished;
+			this.vmsInFlight = vmsInFlight;
+			this.queuedVMs = queuedVMs;
+			this.traceDone = traceDone;
+		}
+	}
+
+	/**
+	 * shows if the reporter waits for fresh figures from the dispatcher
+	 */
+	private volatile boolean requested = true;
+	/**
+	 * the figures last published by the dispatcher
+	 */
+	private volatile Snapshot last = new Snapshot(0, 0, 0, 0, 0, 0, false);
+
+	private ScheduledExecutorService publisher = null;
+
+	/**
+	 * Tells if the reporter waits for fresh figures (to be called from the
+	 * simulation thread at every event of the dispatcher and its runners)
+	 *
+	 * @return <code>true</code> if the dispatcher should publish its figures
+	 */
+	boolean isRequested() {
+		return requested;
+	}
+
+	/**
+	 * Publishes the current figures of the dispatcher (to be called from the
+	 * simulation thread only).
+	 */
+	void publish(final long simTime, final long jobsDispatched, final long jobsStarted, final long jobsFinished,
+			final int vmsInFlight, final int queuedVMs, final boolean traceDone) {
+		last = new Snapshot(simTime, jobsDispatched, jobsStarted, jobsFinished, vmsInFlight, queuedVMs, traceDone);
+		requested = false;
+	}
+
+	/**
+	 * Starts publishing the counters on a daemon thread
+	 *
+	 * @param periodMillis
+	 *            the wall clock time between two reports
+	 */
+	synchronized void start(final long periodMillis) {
+		if (publisher != null) {
+			return;
+		}
+		publisher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread t = new Thread(r, "MIJD progress reporter");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		printLog("Starting progress reporting!");
+		publisher.scheduleAtFixedRate(this, 0, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private static void printLog(final String s) {
+		System.err.println("MIJD ===> realTime=" + new Date() + " " + s);
+	}
+
+	/**
+	 * Publishes the figures last received from the dispatcher and asks for
+	 * fresh ones for the next report. Stops the publication once the
+	 * dispatcher has no further jobs to process.
+	 */
+	@Override
+	public void run() {
+		final Snapshot s = last;
+		printLog("simTime=" + s.simTime + " dispatchedjobs=" + s.jobsDispatched + " startedjobs=" + s.jobsStarted
+				+ " finishedjobs=" + s.jobsFinished + " vmsinflight=" + s.vmsInFlight + " queuedvms="
+				+ s.queuedVMs);
+		if (s.traceDone && s.vmsInFlight == 0) {
+			printLog("Exiting progress reporting!");
+			publisher.shutdown();
+		} else {
+			requested = true;
+		}
+	}
+
+	public long getJobsDispatched() {
+		return last.jobsDispatched;
+	}
+
+	public long getJobsStarted() {
+		return last.jobsStarted;
+	}
+
+	public long getJobsFinished() {
+		return last.jobsFinished;
+	}
+
+	public int getVMsInFlight() {
+		return last.vmsInFlight;
+	}
+
+	public int getQueuedVMs() {
+		return last.queuedVMs;
+	}
+
+	public long getSimTime() {
+		return last.simTime;
+	}
+}
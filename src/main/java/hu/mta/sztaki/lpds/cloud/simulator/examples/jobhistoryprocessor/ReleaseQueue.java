@@ -0,0 +1,115 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.Arrays;
+
+/**
+ * The jobs of a trace that are ready to be dispatched at a given time,
+ * ordered by that time. The queue is a binary heap kept in primitive arrays,
+ * the jobs are identified with their index in the dispatcher's job table.
+ *
+ * @author "agent, (c) 2026"
+ */
+class ReleaseQueue {
+	/**
+	 * The release times (in ms) and the indexes of the queued jobs, in heap
+	 * order
+	 */
+	private long[] times = new long[16];
+	private int[] jobs = new int[16];
+	private int size = 0;
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Queues a job
+	 *
+	 * @param time
+	 *            the time the job becomes ready
+	 * @param job
+	 *            the index of the job
+	 */
+	void add(final long time, final int job) {
+		if (size == times.length) {
+			times = Arrays.copyOf(times, 2 * size);
+			jobs = Arrays.copyOf(jobs, 2 * size);
+		}
+		int pos = size++;
+		while (pos > 0) {
+			final int parent = (pos - 1) >>> 1;
+			if (times[parent] <= time) {
+				break;
+			}
+			times[pos] = times[parent];
+			jobs[pos] = jobs[parent];
+			pos = parent;
+		}
+		times[pos] = time;
+		jobs[pos] = job;
+	}
+
+	/**
+	 * @return the release time of the earliest job in the queue (the queue
+	 *         must not be empty)
+	 */
+	long peekTime() {
+		return times[0];
+	}
+
+	/**
+	 * Removes the earliest job from the queue (the queue must not be empty)
+	 *
+	 * @return the index of the removed job
+	 */
+	int poll() {
+		final int first = jobs[0];
+		final long lastTime = times[--size];
+		final int lastJob = jobs[size];
+		int pos = 0;
+		while (true) {
+			int child = 2 * pos + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && times[child + 1] < times[child]) {
+				child++;
+			}
+			if (lastTime <= times[child]) {
+				break;
+			}
+			times[pos] = times[child];
+			jobs[pos] = jobs[child];
+			pos = child;
+		}
+		times[pos] = lastTime;
+		jobs[pos] = lastJob;
+		return first;
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A machine readable summary of a single JobDispatchingDemo run. The report
+ * is a flat, ordered list of metrics. The metric names and their order only
+ * change together with the report version, so reports of different builds can
+ * be compared line by line.
+ *
+ * The report is written as a JSON object, or as CSV if the name of the target
+ * file ends with .csv. CSV reports are appended to the target file if it
+ * already has the same header, thus a single file can collect the results of
+ * several runs (e.g., for a performance dashboard).
+ *
+ * @author "agent, (c) 2026"
+ */
+public class RunReport {
+	/**
+	 * Should be increased whenever the set or the order of the metrics change
+	 */
+	public static final int VERSION = 4;
+
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	private final LinkedHashMap<String, String> metrics = new LinkedHashMap<String, String>();
+	/**
+	 * The metrics that need to be quoted in the output
+	 */
+	private final HashSet<String> textual = new HashSet<String>();
+
+	public RunReport() {
+		metrics.put("reportVersion", Integer.toString(VERSION));
+	}
+
+	/**
+	 * Adds a textual metric (e.g., a parameter of the run)
+	 */
+	public RunReport put(final String name, final String value) {
+		metrics.put(name, value);
+		textual.add(name);
+		return this;
+	}
+
+	public RunReport put(final String name, final long value) {
+		metrics.put(name, Long.toString(value));
+		return this;
+	}
+
+	/**
+	 * Adds a fractional metric. Non finite values (e.g., speedups of runs with
+	 * zero duration) are reported as null.
+	 */
+	public RunReport put(final String name, final double value) {
+		metrics.put(name, Double.isNaN(value) || Double.isInfinite(value) ? null
+				: String.format(Locale.ROOT, "%.6f", value));
+		return this;
+	}
+
+	/**
+	 * Adds the memory and garbage collection statistics of the JVM collected
+	 * since its start: the sum of the peak usage of the heap pools and the
+	 * total number and time of the collections.
+	 */
+	public RunReport putJVMStatistics() {
+		long peakHeap = 0;
+		for (MemoryPoolMXBean mp : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (mp.getType() == MemoryType.HEAP && mp.getPeakUsage() != null) {
+				peakHeap += mp.getPeakUsage().getUsed();
+			}
+		}
+		long gcCount = 0;
+		long gcTime = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			// -1 is reported if the collector does not support the measurement
+			gcCount += Math.max(0, gc.getCollectionCount());
+			gcTime += Math.max(0, gc.getCollectionTime());
+		}
+		put("peakHeapBytes", peakHeap);
+		put("gcCount", gcCount);
+		put("gcTimeMs", gcTime);
+		return this;
+	}
+
+	private static String quote(final String value) {
+		final StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private String jsonValue(final Map.Entry<String, String> m) {
+		if (m.getValue() == null) {
+			return "null";
+		}
+		return textual.contains(m.getKey()) ? quote(m.getValue()) : m.getValue();
+	}
+
+	private String csvValue(final Map.Entry<String, String> m) {
+		if (m.getValue() == null) {
+			return "";
+		}
+		return textual.contains(m.getKey()) ? "\"" + m.getValue().replace("\"", "\"\"") + "\"" : m.getValue();
+	}
+
+	/**
+	 * Writes out the report
+	 *
+	 * @param file
+	 *            the target file, its extension determines the format
+	 * @throws IOException
+	 *             if the report could not be written
+	 */
+	public void write(final File file) throws IOException {
+		if (file.getName().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+			writeCSV(file);
+		} else {
+			writeJSON(file);
+		}
+	}
+
+	private void writeJSON(final File file) throws IOException {
+		final PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), utf8));
+		try {
+			out.println("{");
+			int i = 0;
+			for (Map.Entry<String, String> m : metrics.entrySet()) {
+				out.println("  " + quote(m.getKey()) + ": " + jsonValue(m)
+						+ (++i < metrics.size() ? "," : ""));
+			}
+			out.println("}");
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeCSV(final File file) throws IOException {
+		final StringBuilder header = new StringBuilder();
+		final StringBuilder row = new StringBuilder();
+		for (Map.Entry<String, String> m : metrics.entrySet()) {
+			if (header.length() > 0) {
+				header.append(',');
+				row.append(',');
+			}
+			header.append(m.getKey());
+			row.append(csvValue(m));
+		}
+		boolean append = false;
+		if (file.exists()) {
+			final BufferedReader br = new BufferedReader(new FileReader(file));
+			try {
+				append = header.toString().equals(br.readLine());
+			} finally {
+				br.close();
+			}
+		}
+		final PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file, append), utf8));
+		try {
+			if (!append) {
+				out.println(header);
+			}
+			out.println(row);
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+/**
+ * Maps objects (compared by identity) to the slots of their jobs. The table
+ * uses open addressing with linear probing, its length is always a power of
+ * two and it is doubled once it is half full. Removals shift the following
+ * entries of the probe sequence backwards, so no tombstones are left behind.
+ *
+ * @author "agent, (c) 2026"
+ */
+class SlotTable<K> {
+	private Object[] keys;
+	private int[] slots;
+	private int size = 0;
+
+	/**
+	 * Creates an empty table
+	 *
+	 * @param capacity
+	 *            the initial length of the table (must be a power of two)
+	 */
+	SlotTable(final int capacity) {
+		keys = new Object[capacity];
+		slots = new int[capacity];
+	}
+
+	/**
+	 * Determines the hash of a key
+	 */
+	int hash(final Object key) {
+		return System.identityHashCode(key);
+	}
+
+	/**
+	 * Determines the home position of a key in the table
+	 */
+	private int home(final Object key) {
+		final int h = hash(key);
+		return (h ^ (h >>> 16)) & (keys.length - 1);
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Maps a key to a slot, the key must not be in the table already
+	 *
+	 * @param key
+	 *            the key to be added
+	 * @param slot
+	 *            the slot of the key (not negative)
+	 */
+	void put(final K key, final int slot) {
+		if (2 * (size + 1) > keys.length) {
+			final Object[] oldKeys = keys;
+			final int[] oldSlots = slots;
+			keys = new Object[2 * oldKeys.length];
+			slots = new int[2 * oldKeys.length];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != null) {
+					insert(oldKeys[i], oldSlots[i]);
+				}
+			}
+		}
+		insert(key, slot);
+		size++;
+	}
+
+	private void insert(final Object key, final int slot) {
+		final int mask = keys.length - 1;
+		int i = home(key);
+		while (keys[i] != null) {
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		slots[i] = slot;
+	}
+
+	/**
+	 * Looks up the slot of a key
+	 *
+	 * @return the slot of the key or -1 if the key is not in the table
+	 */
+	int get(final K key) {
+		final int mask = keys.length - 1;
+		int i = home(key);
+		while (keys[i] != key) {
+			if (keys[i] == null) {
+				return -1;
+			}
+			i = (i + 1) & mask;
+		}
+		return slots[i];
+	}
+
+	/**
+	 * Removes a key from the table
+	 *
+	 * @return the slot of the key or -1 if the key was not in the table
+	 */
+	int remove(final K key) {
+		final int mask = keys.length - 1;
+		int i = home(key);
+		while (keys[i] != key) {
+			if (keys[i] == null) {
+				return -1;
+			}
+			i = (i + 1) & mask;
+		}
+		final int slot = slots[i];
+		// Backward shift deletion, so the probe sequences stay intact without
+		// tombstones
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (keys[j] == null) {
+				break;
+			}
+			final int k = home(keys[j]);
+			if (j > i ? k <= i || k > j : k <= i && k > j) {
+				keys[i] = keys[j];
+				slots[i] = slots[j];
+				i = j;
+			}
+		}
+		keys[i] = null;
+		size--;
+		return slot;
+	}
+
+}
@@ -74,6 +74,13 @@ class StateMonitor extends Timed {
 	 * monitor.
 	 */
 	final List<IaaSService> iaasList;
+	/**
+	 * The statistics collected before the checkpoint this run was resumed
+	 * from (all zero if the run was not resumed)
+	 */
+	private long finishedVMsBase = 0;
+	private double transferredDataBase = 0;
+	private double consumedEnergyBase = 0;
 
 	/**
 	 * Initiates the state monitoring process by setting up the energy meters,
@@ -135,6 +142,8 @@ class StateMonitor extends Timed {
 			current.totalTransferredData += iaas.repositories.get(0).outbws
 					.getTotalProcessed();
 		}
+		current.finishedVMs += finishedVMsBase;
+		current.totalTransferredData += transferredDataBase;
 		current.timeStamp = Timed.getFireCount();
 		// Recording it
 		monitoringDatabase.add(current);
@@ -161,7 +170,7 @@ class StateMonitor extends Timed {
 			}
 			System.err.println("State information written "
 					+ Calendar.getInstance().getTimeInMillis());
-			double sum = 0;
+			double sum = consumedEnergyBase;
 			// finally we collect and aggregate the energy consumption data
 			for (IaaSEnergyMeter m : meters) {
 				sum += m.getTotalConsumption();
@@ -171,4 +180,36 @@ class StateMonitor extends Timed {
 					/ 3600000 + " kWh");
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Continues the monitoring of a run resumed from a checkpoint, the
+	 * collected data and the energy consumption before the checkpoint are
+	 * included in the output of this monitor.
+	 * 
+	 * @param cp
+	 *            the checkpoint the run is resumed from
+	 */
+	void restore(final DispatchCheckpoint cp) {
+		monitoringDatabase.addAll(cp.monitoring);
+		finishedVMsBase = cp.completedVMs;
+		if (!cp.monitoring.isEmpty()) {
+			transferredDataBase = cp.monitoring.get(cp.monitoring.size() - 1).totalTransferredData;
+		}
+		consumedEnergyBase = cp.consumedEnergy;
+	}
+
+	/**
+	 * Records the data collected so far in a checkpoint
+	 * 
+	 * @param cp
+	 *            the checkpoint to be written
+	 */
+	void snapshot(final DispatchCheckpoint cp) {
+		cp.monitoring.clear();
+		cp.monitoring.addAll(monitoringDatabase);
+		cp.consumedEnergy = consumedEnergyBase;
+		for (IaaSEnergyMeter m : meters) {
+			cp.consumedEnergy += m.getTotalConsumption();
+		}
+	}
+}
@@ -0,0 +1,467 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.TraceManagementException;
+
+/**
+ * A sidecar index of a binary trace cache that allows the selection of jobs by
+ * time without reading the complete cache. The index is built once per cache
+ * file (its name is the name of the cache with the .tidx extension, and as the
+ * name of the cache contains the fingerprint of the workload, a modified
+ * workload gets a new index too).
+ *
+ * The index refers to the jobs with their record index in the cache, the
+ * record of job i is at the byte offset HEADER_SIZE + i * RECORD_SIZE of the
+ * cache (see {@link BinaryTraceCache}). It offers two kinds of lookups:
+ * <ul>
+ * <li>submit time buckets: for every bucket of the trace's timespan it lists
+ * the smallest record index of the jobs submitted in or after the bucket.
+ * Thus a reader can seek to the first job that could be submitted after a
+ * particular time (for traces listed in submission order the seek is exact).
+ * <li>an implicit interval tree of the jobs' runtime intervals: the
+ * [start, stop] intervals of the jobs are stored in the order of their start
+ * and every node of the tree is augmented with the latest stop time in its
+ * subtree. The tree is laid out in the sorted array itself (see H. Li's
+ * cgranges), so it is memory mapped and queried without loading it.
+ * </ul>
+ *
+ * A job is running at a given time if it has started (its submission time
+ * plus its queueing time is not later than the given time) and it has not
+ * completed yet (its start time plus its execution time is not earlier than
+ * the given time).
+ *
+ * The format of the index file:
+ * <ul>
+ * <li>header: magic (int), version (int), number of jobs (long), width of the
+ * submit time buckets (long), start of the first bucket (long), number of
+ * buckets (int), number of levels in the interval tree (int)
+ * <li>buckets: smallest record index per bucket (long each)
+ * <li>tree nodes: start, exclusive end, maximum end in the subtree and record
+ * index of the job (4 longs each), ordered by start
+ * </ul>
+ *
+ * @author "agent, (c) 2026"
+ */
+public class TraceTimeIndex {
+	static final int MAGIC = 0x44435449; // DCTI
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 40;
+	static final int NODE_SIZE = 32;
+	/**
+	 * The default width of the submit time buckets (in seconds)
+	 */
+	public static final long DEFAULT_BUCKET_WIDTH = 3600;
+	/**
+	 * The maximum number of nodes mapped with a single buffer
+	 */
+	private static final int SEGMENT_NODES = 1 << 24;
+	/**
+	 * Subtrees with at most this many levels are scanned linearly
+	 */
+	private static final int SCAN_LEVELS = 3;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long count;
+	private final long bucketWidth;
+	private final long firstBucket;
+	private final long[] buckets;
+	private final int levels;
+	private final long treeOffset;
+	private final MappedByteBuffer[] segments;
+
+	private TraceTimeIndex(final File index) throws IOException {
+		file = new RandomAccessFile(index, "r");
+		channel = file.getChannel();
+		if (file.readInt() != MAGIC || file.readInt() != VERSION) {
+			file.close();
+			throw new IOException("Not a trace time index: " + index);
+		}
+		count = file.readLong();
+		bucketWidth = file.readLong();
+		firstBucket = file.readLong();
+		buckets = new long[file.readInt()];
+		levels = file.readInt();
+		final ByteBuffer bucketData = ByteBuffer.allocate(buckets.length * 8);
+		channel.read(bucketData, HEADER_SIZE);
+		bucketData.flip();
+		bucketData.asLongBuffer().get(buckets);
+		treeOffset = HEADER_SIZE + buckets.length * 8l;
+		segments = new MappedByteBuffer[(int) ((count + SEGMENT_NODES - 1) / SEGMENT_NODES)];
+	}
+
+	/**
+	 * Opens the index of a binary trace cache, the index is built first if it
+	 * does not exist yet.
+	 *
+	 * @param cache
+	 *            the binary trace cache
+	 * @return the index ready for queries
+	 * @throws TraceManagementException
+	 *             if the index could not be built or read
+	 */
+	public static TraceTimeIndex forCache(final File cache) throws TraceManagementException {
+		final File index = new File(cache.getPath() + ".tidx");
+		try {
+			if (!index.exists()) {
+				final File temp = File.createTempFile(index.getName(), ".tmp", index.getAbsoluteFile().getParentFile());
+				try {
+					final long before = System.currentTimeMillis();
+					build(cache, temp, DEFAULT_BUCKET_WIDTH);
+					try {
+						Files.move(temp.toPath(), index.toPath(), StandardCopyOption.ATOMIC_MOVE);
+					} catch (IOException e) {
+						// another process might have built the index first
+						if (!index.exists()) {
+							throw e;
+						}
+					}
+					System.err.println("Built the time index " + index + " in "
+							+ (System.currentTimeMillis() - before) + "ms");
+				} finally {
+					temp.delete();
+				}
+			}
+			return new TraceTimeIndex(index);
+		} catch (IOException e) {
+			throw new TraceManagementException("Could not build the time index for " + cache, e);
+		}
+	}
+
+	private static long floorDiv(final long x, final long y) {
+		final long q = x / y;
+		return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+	}
+
+	/**
+	 * Sorts the record indexes according to a key with a stable merge sort
+	 */
+	private static void sortByKey(final int[] idx, final long[] key) {
+		int[] src = idx;
+		int[] dst = new int[idx.length];
+		for (int width = 1; width < idx.length; width *= 2) {
+			for (int lo = 0; lo < idx.length; lo += 2 * width) {
+				final int mid = Math.min(lo + width, idx.length);
+				final int hi = Math.min(lo + 2 * width, idx.length);
+				int l = lo;
+				int r = mid;
+				for (int o = lo; o < hi; o++) {
+					dst[o] = r >= hi || l < mid && key[src[l]] <= key[src[r]] ? src[l++] : src[r++];
+				}
+			}
+			final int[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		if (src != idx) {
+			System.arraycopy(src, 0, idx, 0, idx.length);
+		}
+	}
+
+	/**
+	 * Builds the index of a binary trace cache
+	 *
+	 * @param cache
+	 *            the binary trace cache to index
+	 * @param index
+	 *            the file to write the index to
+	 * @param bucketWidth
+	 *            the width of the submit time buckets in seconds
+	 * @throws IOException
+	 *             if the cache could not be read or the index could not be
+	 *             written
+	 */
+	static void build(final File cache, final File index, final long bucketWidth) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cache), 1 << 20));
+		final long[] submit;
+		final long[] start;
+		final long[] end;
+		try {
+			if (in.readInt() != BinaryTraceCache.MAGIC || in.readInt() != BinaryTraceCache.VERSION) {
+				throw new IOException("Not a binary trace cache: " + cache);
+			}
+			final long jobs = in.readLong();
+			if (jobs > Integer.MAX_VALUE - 8) {
+				throw new IOException("Too many jobs to index in " + cache);
+			}
+			in.readLong(); // the dictionary is not needed
+			final int n = (int) jobs;
+			submit = new long[n];
+			start = new long[n];
+			end = new long[n];
+			for (int i = 0; i < n; i++) {
+				submit[i] = in.readLong();
+				start[i] = submit[i] + in.readLong();
+				// intervals are stored with exclusive ends
+				end[i] = start[i] + in.readLong() + 1;
+				in.skipBytes(BinaryTraceCache.RECORD_SIZE - 24);
+			}
+		} finally {
+			in.close();
+		}
+		final int n = submit.length;
+
+		// The submit time buckets
+		long minSubmit = Long.MAX_VALUE;
+		long maxSubmit = Long.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			minSubmit = Math.min(minSubmit, submit[i]);
+			maxSubmit = Math.max(maxSubmit, submit[i]);
+		}
+		final long firstBucket = n == 0 ? 0 : floorDiv(minSubmit, bucketWidth);
+		final long bucketCount = n == 0 ? 0 : floorDiv(maxSubmit, bucketWidth) - firstBucket + 1;
+		if (bucketCount > Integer.MAX_VALUE / 8) {
+			throw new IOException("The trace spans too many buckets of " + bucketWidth + "s");
+		}
+		final long[] buckets = new long[(int) bucketCount];
+		Arrays.fill(buckets, n);
+		for (int i = n - 1; i >= 0; i--) {
+			buckets[(int) (floorDiv(submit[i], bucketWidth) - firstBucket)] = i;
+		}
+		for (int b = buckets.length - 2; b >= 0; b--) {
+			buckets[b] = Math.min(buckets[b], buckets[b + 1]);
+		}
+
+		// The implicit interval tree
+		final int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		sortByKey(order, start);
+		final long[] max = new long[n];
+		int levels = -1;
+		if (n > 0) {
+			int lastIndex = 0;
+			long last = 0;
+			for (int i = 0; i < n; i += 2) {
+				last = max[i] = end[order[i]];
+				lastIndex = i;
+			}
+			int k;
+			for (k = 1; 1l << k <= n; k++) {
+				final long x = 1l << (k - 1);
+				final long step = x << 2;
+				for (long i = (x << 1) - 1; i < n; i += step) {
+					final long left = max[(int) (i - x)];
+					final long right = i + x < n ? max[(int) (i + x)] : last;
+					max[(int) i] = Math.max(end[order[(int) i]], Math.max(left, right));
+				}
+				lastIndex = (lastIndex >> k & 1) != 0 ? (int) (lastIndex - x) : (int) (lastIndex + x);
+				if (lastIndex < n && max[lastIndex] > last) {
+					last = max[lastIndex];
+				}
+			}
+			levels = k - 1;
+		}
+
+		final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(index), 1 << 20));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(n);
+			out.writeLong(bucketWidth);
+			out.writeLong(firstBucket);
+			out.writeInt(buckets.length);
+			out.writeInt(levels);
+			for (long b : buckets) {
+				out.writeLong(b);
+			}
+			for (int i = 0; i < n; i++) {
+				out.writeLong(start[order[i]]);
+				out.writeLong(end[order[i]]);
+				out.writeLong(max[i]);
+				out.writeLong(order[i]);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Provides the buffer in which a particular tree node is mapped
+	 *
+	 * @param node
+	 *            the index of the node
+	 * @return the buffer positioned to the start of the node
+	 */
+	private ByteBuffer nodeAt(final long node) throws IOException {
+		final int segment = (int) (node / SEGMENT_NODES);
+		MappedByteBuffer buffer = segments[segment];
+		if (buffer == null) {
+			final long first = (long) segment * SEGMENT_NODES;
+			final long nodes = Math.min(SEGMENT_NODES, count - first);
+			buffer = segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, treeOffset + first * NODE_SIZE,
+					nodes * NODE_SIZE);
+		}
+		buffer.position((int) (node % SEGMENT_NODES) * NODE_SIZE);
+		return buffer;
+	}
+
+	private long startOf(final long node) throws IOException {
+		return nodeAt(node).getLong();
+	}
+
+	private long endOf(final long node) throws IOException {
+		final ByteBuffer b = nodeAt(node);
+		return b.getLong(b.position() + 8);
+	}
+
+	private long maxOf(final long node) throws IOException {
+		final ByteBuffer b = nodeAt(node);
+		return b.getLong(b.position() + 16);
+	}
+
+	private long recordOf(final long node) throws IOException {
+		final ByteBuffer b = nodeAt(node);
+		return b.getLong(b.position() + 24);
+	}
+
+	/**
+	 * Determines the jobs running at a particular time
+	 *
+	 * @param time
+	 *            the time in question (in seconds)
+	 * @return the record indexes of the running jobs in increasing order
+	 * @throws TraceManagementException
+	 *             if the index could not be read
+	 */
+	public long[] runningAt(final long time) throws TraceManagementException {
+		long[] found = new long[16];
+		int foundCount = 0;
+		if (levels < 0) {
+			return new long[0];
+		}
+		// the query interval is [time, time+1)
+		final long qStart = time;
+		final long qEnd = time + 1;
+		try {
+			// stack of (level, node, left child visited)
+			final long[] stackNode = new long[64 * 2];
+			final int[] stackLevel = new int[64 * 2];
+			final boolean[] stackVisited = new boolean[64 * 2];
+			int top = 0;
+			stackLevel[top] = levels;
+			stackNode[top] = (1l << levels) - 1;
+			stackVisited[top++] = false;
+			while (top > 0) {
+				top--;
+				final int k = stackLevel[top];
+				final long x = stackNode[top];
+				final boolean visited = stackVisited[top];
+				if (k <= SCAN_LEVELS) {
+					// small subtree: linear scan
+					final long i0 = x >> k << k;
+					final long i1 = Math.min(count, i0 + (1l << (k + 1)) - 1);
+					for (long i = i0; i < i1 && startOf(i) < qEnd; i++) {
+						if (qStart < endOf(i)) {
+							if (foundCount == found.length) {
+								found = Arrays.copyOf(found, found.length * 2);
+							}
+							found[foundCount++] = recordOf(i);
+						}
+					}
+				} else if (!visited) {
+					final long y = x - (1l << (k - 1));
+					// revisit this node after its left child
+					stackLevel[top] = k;
+					stackNode[top] = x;
+					stackVisited[top++] = true;
+					if (y >= count || maxOf(y) > qStart) {
+						stackLevel[top] = k - 1;
+						stackNode[top] = y;
+						stackVisited[top++] = false;
+					}
+				} else if (x < count && startOf(x) < qEnd) {
+					if (qStart < endOf(x)) {
+						if (foundCount == found.length) {
+							found = Arrays.copyOf(found, found.length * 2);
+						}
+						found[foundCount++] = recordOf(x);
+					}
+					stackLevel[top] = k - 1;
+					stackNode[top] = x + (1l << (k - 1));
+					stackVisited[top++] = false;
+				}
+			}
+		} catch (IOException e) {
+			throw new TraceManagementException("Could not read the time index", e);
+		}
+		final long[] result = Arrays.copyOf(found, foundCount);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Determines where a reader should start to find all jobs submitted at or
+	 * after a particular time
+	 *
+	 * @param time
+	 *            the submission time in question (in seconds)
+	 * @return the smallest record index of the jobs submitted at or after the
+	 *         given time (the number of jobs if there is no such job)
+	 */
+	public long firstSubmittedFrom(final long time) {
+		final long bucket = floorDiv(time, bucketWidth) - firstBucket;
+		if (bucket < 0) {
+			return 0;
+		}
+		return bucket < buckets.length ? buckets[(int) bucket] : count;
+	}
+
+	/**
+	 * The number of jobs in the indexed cache
+	 *
+	 * @return
+	 */
+	public long getJobCount() {
+		return count;
+	}
+
+	/**
+	 * Releases the mapping and the underlying file
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		channel.close();
+		file.close();
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.JobListAnalyser;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.TraceManagementException;
+
+/**
+ * A bounded look-ahead buffer over a trace producer. Instead of loading the
+ * complete trace into the memory, this window pulls the jobs from the producer
+ * in chunks and offers them in submission order. At most
+ * <code>lookahead</code> jobs are kept in the buffer, once a job is taken out
+ * of the window the window no longer references it.
+ *
+ * The ordering is only guaranteed within the window: if the trace has a job
+ * that is submitted earlier than a job already taken out of the window, then
+ * that job will be offered late. Traces that are listed in submission order
+ * (e.g., most GWF and SWF archives) do not suffer from this.
+ *
+ * @author "agent, (c) 2026"
+ */
+class TraceWindow {
+	/**
+	 * Where the jobs are coming from
+	 */
+	private final GenericTraceProducer producer;
+	/**
+	 * The jobs already fetched from the producer but not yet taken out of the
+	 * window, ordered by their submission time
+	 */
+	private final PriorityQueue<Job> buffer;
+	/**
+	 * The maximum number of jobs held by the window
+	 */
+	private final int lookahead;
+	/**
+	 * Shows if the producer did not return any further jobs
+	 */
+	private boolean exhausted = false;
+	/**
+	 * The amount of seconds all jobs fetched from now on should be adjusted
+	 * with
+	 */
+	private long adjustment = 0;
+
+	/**
+	 * Sets up the window and fetches the first chunk of jobs from the
+	 * producer.
+	 *
+	 * @param producer
+	 *            the trace
+	 * @param lookahead
+	 *            the maximum number of jobs to be held in the memory at once
+	 * @throws TraceManagementException
+	 *             if the first chunk could not be fetched
+	 */
+	TraceWindow(final GenericTraceProducer producer, final int lookahead) throws TraceManagementException {
+		if (lookahead < 1) {
+			throw new IllegalArgumentException("The look-ahead of a trace window must be positive");
+		}
+		this.producer = producer;
+		this.lookahead = lookahead;
+		buffer = new PriorityQueue<Job>(lookahead, JobListAnalyser.submitTimeComparator);
+		refill();
+	}
+
+	/**
+	 * Fetches as many jobs from the producer as many needed to fill up the
+	 * window.
+	 *
+	 * @throws TraceManagementException
+	 *             if the producer fails
+	 */
+	private void refill() throws TraceManagementException {
+		final List<Job> fetched = producer.getJobs(lookahead - buffer.size());
+		if (fetched == null || fetched.isEmpty()) {
+			exhausted = true;
+			return;
+		}
+		for (Job job : fetched) {
+			if (adjustment != 0) {
+				job.adjust(adjustment);
+			}
+			buffer.add(job);
+		}
+		fetched.clear();
+	}
+
+	/**
+	 * Allows the window to fetch further jobs from a producer that did not
+	 * have any more jobs earlier (e.g., because its jobs arrive while the
+	 * simulation runs).
+	 *
+	 * @throws TraceManagementException
+	 *             if the refill of the window failed
+	 */
+	void reopen() throws TraceManagementException {
+		exhausted = false;
+		if (buffer.size() < lookahead) {
+			refill();
+		}
+	}
+
+	/**
+	 * Shifts the submission time of all jobs in the window (and all jobs that
+	 * will be fetched later on).
+	 *
+	 * @param adjustTime
+	 *            the shift in seconds
+	 */
+	void adjust(final long adjustTime) {
+		adjustment += adjustTime;
+		for (Job job : buffer) {
+			job.adjust(adjustTime);
+		}
+	}
+
+	/**
+	 * Queries the earliest job in the window without removing it.
+	 *
+	 * @return the job or <code>null</code> if there are no more jobs in the
+	 *         trace
+	 */
+	Job peek() {
+		return buffer.peek();
+	}
+
+	/**
+	 * Removes the earliest job from the window. If the window got half empty
+	 * by this removal then a new chunk of jobs is fetched from the producer.
+	 *
+	 * @return the job or <code>null</code> if there are no more jobs in the
+	 *         trace
+	 * @throws TraceManagementException
+	 *             if the refill of the window failed
+	 */
+	Job poll() throws TraceManagementException {
+		final Job job = buffer.poll();
+		if (!exhausted && buffer.size() <= lookahead / 2) {
+			refill();
+		}
+		return job;
+	}
+}
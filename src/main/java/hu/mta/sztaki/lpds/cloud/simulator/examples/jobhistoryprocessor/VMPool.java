@@ -0,0 +1,401 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+
+/**
+ * Keeps the VMs of finished jobs running for a while, so they can be handed
+ * over to the next job that needs a VM with the same shape (i.e., the same
+ * target cloud, core count and per core processing power). This way the next
+ * job does not need to wait for the VA transfer and the boot of its VMs.
+ *
+ * Idle VMs are destroyed when their keep-alive time passes, or when the cloud
+ * they are running in has VM requests queuing for capacity. In the latter
+ * case the least recently used idle VMs of the cloud are destroyed first.
+ *
+ * @author "agent, (c) 2026"
+ */
+class VMPool extends Timed implements VirtualMachine.StateChange {
+	/**
+	 * The shape of a VM, the pool only hands over VMs with exactly the same
+	 * shape as requested
+	 */
+	private static class Shape {
+		final int cloud;
+		final double cores;
+		final double procPower;
+
+		Shape(final int cloud, final double cores, final double procPower) {
+			this.cloud = cloud;
+			this.cores = cores;
+			this.procPower = procPower;
+		}
+
+		@Override
+		public int hashCode() {
+			final long c = Double.doubleToLongBits(cores);
+			final long p = Double.doubleToLongBits(procPower);
+			return 31 * (31 * cloud + (int) (c ^ (c >>> 32))) + (int) (p ^ (p >>> 32));
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Shape)) {
+				return false;
+			}
+			final Shape o = (Shape) obj;
+			return cloud == o.cloud && cores == o.cores && procPower == o.procPower;
+		}
+	}
+
+	/**
+	 * What the pool knows about a VM it might receive back from a job
+	 */
+	private static class PooledVM {
+		final Shape shape;
+		/**
+		 * the time the VM was requested, or the time it took for the VM to
+		 * reach its running state after its request (in ticks)
+		 */
+		long bootTime;
+		boolean running = false;
+		/**
+		 * the time the VM became idle
+		 */
+		long idleSince;
+
+		PooledVM(final Shape shape, final long requestTime) {
+			this.shape = shape;
+			bootTime = requestTime;
+		}
+	}
+
+	/**
+	 * the dispatcher that uses the pool (notified about VM destructions)
+	 */
+	private final MultiIaaSJobDispatcher dispatcher;
+	/**
+	 * the time an idle VM is kept running (in ticks)
+	 */
+	private final long keepAlive;
+	/**
+	 * All living VMs requested through the dispatcher
+	 */
+	private final HashMap<VirtualMachine, PooledVM> known = new HashMap<VirtualMachine, PooledVM>();
+	/**
+	 * The idle VMs of each shape, the least recently released first
+	 */
+	private final HashMap<Shape, LinkedHashSet<VirtualMachine>> idleByShape = new HashMap<Shape, LinkedHashSet<VirtualMachine>>();
+	/**
+	 * The idle VMs of each cloud, the least recently released first
+	 */
+	private final LinkedHashMap<VirtualMachine, PooledVM>[] idleByCloud;
+
+	private long hits = 0;
+	private long misses = 0;
+	private long savedBootTime = 0;
+	private long expired = 0;
+	private long evicted = 0;
+
+	/**
+	 * Prepares an empty pool.
+	 *
+	 * @param dispatcher
+	 *            the dispatcher that requests the VMs
+	 * @param clouds
+	 *            the number of target clouds of the dispatcher
+	 * @param keepAlive
+	 *            the time an idle VM is kept running (in ticks)
+	 */
+	@SuppressWarnings("unchecked")
+	VMPool(final MultiIaaSJobDispatcher dispatcher, final int clouds, final long keepAlive) {
+		this.dispatcher = dispatcher;
+		this.keepAlive = keepAlive;
+		idleByCloud = new LinkedHashMap[clouds];
+		for (int i = 0; i < clouds; i++) {
+			idleByCloud[i] = new LinkedHashMap<VirtualMachine, PooledVM>();
+		}
+	}
+
+	/**
+	 * Takes idle VMs of a particular shape out of the pool. VMs are only handed
+	 * over if the pool can serve the complete request.
+	 *
+	 * @param cloud
+	 *            the target cloud of the request
+	 * @param cores
+	 *            the number of cores for each VM
+	 * @param procPower
+	 *            the per core processing power for each VM
+	 * @param count
+	 *            the number of VMs needed
+	 * @return the running VMs or <code>null</code> if there are not enough
+	 *         idle VMs with the requested shape
+	 */
+	VirtualMachine[] acquire(final int cloud, final double cores, final double procPower, final int count) {
+		final LinkedHashSet<VirtualMachine> idle = idleByShape.get(new Shape(cloud, cores, procPower));
+		if (idle == null || idle.size() < count) {
+			misses += count;
+			return null;
+		}
+		final VirtualMachine[] vms = new VirtualMachine[count];
+		final Iterator<VirtualMachine> it = idle.iterator();
+		for (int i = 0; i < count; i++) {
+			vms[i] = it.next();
+			it.remove();
+			savedBootTime += idleByCloud[cloud].remove(vms[i]).bootTime;
+		}
+		hits += count;
+		return vms;
+	}
+
+	/**
+	 * Starts following newly requested VMs, so they can be pooled once their
+	 * job is complete.
+	 *
+	 * @param cloud
+	 *            the cloud where the VMs were requested
+	 * @param cores
+	 *            the number of cores for each VM
+	 * @param procPower
+	 *            the per core processing power for each VM
+	 * @param vms
+	 *            the array holding the new VMs
+	 * @param from
+	 *            the position of the first new VM in the array
+	 * @param count
+	 *            the number of new VMs
+	 */
+	void register(final int cloud, final double cores, final double procPower, final VirtualMachine[] vms,
+			final int from, final int count) {
+		final Shape shape = new Shape(cloud, cores, procPower);
+		final long now = Timed.getFireCount();
+		for (int i = from; i < from + count; i++) {
+			final VirtualMachine vm = vms[i];
+			final VirtualMachine.State state = vm.getState();
+			if (!VirtualMachine.State.NONSERVABLE.equals(state) && !VirtualMachine.State.DESTROYED.equals(state)) {
+				known.put(vm, new PooledVM(shape, now));
+				vm.subscribeStateChange(this);
+			}
+		}
+	}
+
+	/**
+	 * Receives a VM from a job that no longer needs it.
+	 *
+	 * @param vm
+	 *            the VM of the completed job
+	 * @return <code>true</code> if the VM is kept in the pool,
+	 *         <code>false</code> if it should be destroyed by the caller
+	 */
+	boolean release(final VirtualMachine vm) {
+		final PooledVM pooled = known.get(vm);
+		if (pooled == null || !pooled.running || dispatcher.isStopped()) {
+			return false;
+		}
+		pooled.idleSince = Timed.getFireCount();
+		LinkedHashSet<VirtualMachine> idle = idleByShape.get(pooled.shape);
+		if (idle == null) {
+			idle = new LinkedHashSet<VirtualMachine>();
+			idleByShape.put(pooled.shape, idle);
+		}
+		idle.add(vm);
+		idleByCloud[pooled.shape.cloud].put(vm, pooled);
+		if (!isSubscribed()) {
+			subscribe(keepAlive);
+		}
+		return true;
+	}
+
+	/**
+	 * Destroys the least recently used idle VMs of a cloud to make room for
+	 * new VMs.
+	 *
+	 * @param cloud
+	 *            the cloud that lacks capacity
+	 * @param cores
+	 *            the number of cores needed in the cloud
+	 */
+	void evict(final int cloud, final double cores) {
+		double freed = 0;
+		final Iterator<VirtualMachine> it = idleByCloud[cloud].keySet().iterator();
+		while (freed < cores && it.hasNext()) {
+			final VirtualMachine vm = it.next();
+			it.remove();
+			freed += known.get(vm).shape.cores;
+			evicted++;
+			destroyIdle(vm);
+		}
+	}
+
+	/**
+	 * Destroys an idle VM already removed from the per cloud idle list
+	 */
+	private void destroyIdle(final VirtualMachine vm) {
+		final PooledVM pooled = known.get(vm);
+		idleByShape.get(pooled.shape).remove(vm);
+		try {
+			vm.destroy(false);
+			dispatcher.increaseDestroyCounter(1);
+		} catch (VMManager.VMManagementException e) {
+			System.err.println("Idle VM could not be destroyed.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Destroys the VMs that were idle for longer than the keep-alive time.
+	 */
+	@Override
+	public void tick(final long fires) {
+		long nextExpiry = Long.MAX_VALUE;
+		for (int i = 0; i < idleByCloud.length; i++) {
+			final Iterator<Map.Entry<VirtualMachine, PooledVM>> it = idleByCloud[i].entrySet().iterator();
+			while (it.hasNext()) {
+				final Map.Entry<VirtualMachine, PooledVM> idle = it.next();
+				final long expiry = idle.getValue().idleSince + keepAlive;
+				if (expiry > fires && !dispatcher.isStopped()) {
+					// the rest of the cloud's VMs became idle later
+					nextExpiry = Math.min(nextExpiry, expiry);
+					break;
+				}
+				it.remove();
+				expired++;
+				destroyIdle(idle.getKey());
+			}
+		}
+		if (nextExpiry == Long.MAX_VALUE) {
+			unsubscribe();
+		} else {
+			updateFrequency(nextExpiry - fires);
+		}
+	}
+
+	@Override
+	public void stateChanged(final VirtualMachine vm, final VirtualMachine.State oldState,
+			final VirtualMachine.State newState) {
+		switch (newState) {
+		case RUNNING:
+			final PooledVM booted = known.get(vm);
+			if (booted != null && !booted.running) {
+				booted.running = true;
+				booted.bootTime = Timed.getFireCount() - booted.bootTime;
+			}
+			break;
+		case DESTROYED:
+		case NONSERVABLE:
+			final PooledVM gone = known.remove(vm);
+			vm.unsubscribeStateChange(this);
+			if (gone != null && idleByCloud[gone.shape.cloud].remove(vm) != null) {
+				idleByShape.get(gone.shape).remove(vm);
+			}
+			break;
+		default:
+			// nothing to do
+		}
+	}
+
+	/**
+	 * Tells the fraction of the VMs requested by the dispatcher that were
+	 * served from the pool
+	 *
+	 * @return
+	 */
+	double getHitRate() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	/**
+	 * Tells the number of VMs currently idle in the pool
+	 *
+	 * @return
+	 */
+	int getIdleVMs() {
+		int idle = 0;
+		for (int i = 0; i < idleByCloud.length; i++) {
+			idle += idleByCloud[i].size();
+		}
+		return idle;
+	}
+
+	long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Tells the total time the VMs served from the pool needed originally to
+	 * reach their running state (i.e., the queuing, transfer and boot time the
+	 * pool has saved for the jobs).
+	 *
+	 * @return the saved time in ticks
+	 */
+	long getSavedBootTime() {
+		return savedBootTime;
+	}
+
+	long getExpired() {
+		return expired;
+	}
+
+	long getEvicted() {
+		return evicted;
+	}
+
+	/**
+	 * Records the statistics of the pool in a checkpoint (the pool has no idle
+	 * VMs at the checkpoints)
+	 *
+	 * @param cp
+	 *            the checkpoint to be written
+	 */
+	void snapshot(final DispatchCheckpoint cp) {
+		cp.poolHits = hits;
+		cp.poolMisses = misses;
+		cp.poolSavedBootTime = savedBootTime;
+		cp.poolExpired = expired;
+		cp.poolEvicted = evicted;
+	}
+
+	/**
+	 * Continues the statistics of a run resumed from a checkpoint
+	 *
+	 * @param cp
+	 *            the checkpoint the run is resumed from
+	 */
+	void restore(final DispatchCheckpoint cp) {
+		hits = cp.poolHits;
+		misses = cp.poolMisses;
+		savedBootTime = cp.poolSavedBootTime;
+		expired = cp.poolExpired;
+		evicted = cp.poolEvicted;
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * A latency map that determines the latency towards a network node with rules
+ * instead of keeping an entry for every node. The rules are evaluated in the
+ * following order:
+ * <ol>
+ * <li>explicit entries (added with put, meant for a few special nodes like
+ * the central repository of a cloud)</li>
+ * <li>racks: nodes with a given id prefix followed by a number in a given
+ * range</li>
+ * <li>zones: nodes with a given id prefix (the longest matching prefix
+ * wins)</li>
+ * <li>the default latency</li>
+ * </ol>
+ *
+ * The map can be passed to the constructors of repositories and physical
+ * machines, and a single instance can be shared by all nodes of a cloud. Thus
+ * its memory use does not depend on the number of nodes.
+ *
+ * Note: the rules answer for any node id, but only the explicit entries are
+ * listed in the entry set (and counted in the size) of the map.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class ZoneLatencyMap extends AbstractMap<String, Integer> {
+	/**
+	 * A set of nodes sharing their id prefix (and optionally an index range
+	 * after the prefix)
+	 */
+	private static class Rule {
+		final String prefix;
+		final int from;
+		final int to;
+		final Integer latency;
+
+		Rule(final String prefix, final int from, final int to, final int latency) {
+			this.prefix = prefix;
+			this.from = from;
+			this.to = to;
+			this.latency = latency;
+		}
+	}
+
+	private final Integer defaultLatency;
+	private final HashMap<String, Integer> explicit = new HashMap<String, Integer>();
+	private final ArrayList<Rule> racks = new ArrayList<Rule>();
+	/**
+	 * the zone rules ordered by decreasing prefix length
+	 */
+	private final ArrayList<Rule> zones = new ArrayList<Rule>();
+
+	/**
+	 * Creates a map where every node is reachable with the same latency
+	 * (until further rules are added).
+	 *
+	 * @param defaultLatency
+	 *            the latency towards the nodes not matching any rule, if
+	 *            negative then such nodes are not reachable
+	 */
+	public ZoneLatencyMap(final int defaultLatency) {
+		this.defaultLatency = defaultLatency < 0 ? null : Integer.valueOf(defaultLatency);
+	}
+
+	/**
+	 * Sets the latency towards the nodes with a particular id prefix
+	 *
+	 * @param prefix
+	 *            the common prefix of the ids of the zone's nodes
+	 * @param latency
+	 *            the latency towards the zone's nodes
+	 * @return this map, so further rules can be chained
+	 */
+	public ZoneLatencyMap addZone(final String prefix, final int latency) {
+		int i = 0;
+		while (i < zones.size() && zones.get(i).prefix.length() >= prefix.length()) {
+			i++;
+		}
+		zones.add(i, new Rule(prefix, 0, 0, latency));
+		return this;
+	}
+
+	/**
+	 * Sets the latency towards the nodes with an id in the form of
+	 * prefix+index where the index is within the given range.
+	 *
+	 * @param prefix
+	 *            the common prefix of the ids of the rack's nodes
+	 * @param from
+	 *            the first index in the rack
+	 * @param to
+	 *            the last index in the rack (inclusive)
+	 * @param latency
+	 *            the latency towards the rack's nodes
+	 * @return this map, so further rules can be chained
+	 */
+	public ZoneLatencyMap addRack(final String prefix, final int from, final int to, final int latency) {
+		racks.add(new Rule(prefix, from, to, latency));
+		return this;
+	}
+
+	/**
+	 * Determines the index of a node in a rack
+	 *
+	 * @return the index or -1 if the id does not end with a number after the
+	 *         prefix
+	 */
+	private static int indexAfter(final String id, final String prefix) {
+		if (!id.startsWith(prefix) || id.length() == prefix.length()
+				|| id.length() - prefix.length() > 9) {
+			return -1;
+		}
+		int index = 0;
+		for (int i = prefix.length(); i < id.length(); i++) {
+			final char c = id.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			index = index * 10 + c - '0';
+		}
+		return index;
+	}
+
+	@Override
+	public Integer get(final Object key) {
+		if (!(key instanceof String)) {
+			return null;
+		}
+		final String id = (String) key;
+		final Integer latency = explicit.get(id);
+		if (latency != null) {
+			return latency;
+		}
+		for (int i = 0; i < racks.size(); i++) {
+			final Rule r = racks.get(i);
+			final int index = indexAfter(id, r.prefix);
+			if (index >= r.from && index <= r.to) {
+				return r.latency;
+			}
+		}
+		for (int i = 0; i < zones.size(); i++) {
+			final Rule r = zones.get(i);
+			if (id.startsWith(r.prefix)) {
+				return r.latency;
+			}
+		}
+		return defaultLatency;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Sets the latency towards a single node, overriding all rules
+	 */
+	@Override
+	public Integer put(final String key, final Integer value) {
+		return explicit.put(key, value);
+	}
+
+	@Override
+	public Integer remove(final Object key) {
+		return explicit.remove(key);
+	}
+
+	@Override
+	public Set<Entry<String, Integer>> entrySet() {
+		return explicit.entrySet();
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+/**
+ * The Java Flight Recorder based profiler. Records with the JDK's built in
+ * "profile" settings and adds the simulation specific events below.
+ *
+ * This class needs Java 11 or later, it is only compiled with the jfr maven
+ * profile.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class JFRSimulationProfiler extends SimulationProfiler {
+	@Name("hu.mta.sztaki.lpds.cloud.simulator.DispatcherTick")
+	@Label("Dispatcher Tick")
+	@Category("DISSECT-CF")
+	@Description("A single event of the job dispatcher")
+	static class DispatcherTickEvent extends Event {
+		@Label("Simulated Time")
+		long simTime;
+		@Label("Dispatched Jobs")
+		int dispatchedJobs;
+	}
+
+	@Name("hu.mta.sztaki.lpds.cloud.simulator.VMRequest")
+	@Label("VM Request")
+	@Category("DISSECT-CF")
+	@Description("A VM request sent to one of the clouds")
+	static class VMRequestEvent extends Event {
+		@Label("Cloud")
+		int cloud;
+		@Label("VMs")
+		int vms;
+		@Label("Cores per VM")
+		double cores;
+		@Label("Queue Length")
+		@Description("The length of the cloud's VM queue after the request")
+		int queueLength;
+	}
+
+	@Name("hu.mta.sztaki.lpds.cloud.simulator.JobCompletion")
+	@Label("Job Completion")
+	@Category("DISSECT-CF")
+	@Description("A job finished in the simulation")
+	static class JobCompletionEvent extends Event {
+		@Label("Job")
+		String jobId;
+		@Label("VMs")
+		int vms;
+		@Label("Simulated Time")
+		long simTime;
+	}
+
+	private final Recording recording;
+
+	public JFRSimulationProfiler(final File output) throws IOException, ParseException {
+		super(output);
+		recording = new Recording(Configuration.getConfiguration("profile"));
+		recording.setName("DISSECT-CF simulation");
+	}
+
+	@Override
+	protected void begin() {
+		recording.start();
+	}
+
+	@Override
+	protected void end(final File output) throws IOException {
+		recording.stop();
+		try {
+			recording.dump(output.toPath());
+		} finally {
+			recording.close();
+		}
+	}
+
+	@Override
+	protected Object tickBegins() {
+		final DispatcherTickEvent ev = new DispatcherTickEvent();
+		ev.begin();
+		return ev;
+	}
+
+	@Override
+	protected void tickEnds(final Object tick, final long simTime, final int dispatchedJobs) {
+		final DispatcherTickEvent ev = (DispatcherTickEvent) tick;
+		ev.end();
+		if (ev.shouldCommit()) {
+			ev.simTime = simTime;
+			ev.dispatchedJobs = dispatchedJobs;
+			ev.commit();
+		}
+	}
+
+	@Override
+	protected Object vmRequestBegins() {
+		final VMRequestEvent ev = new VMRequestEvent();
+		ev.begin();
+		return ev;
+	}
+
+	@Override
+	protected void vmRequestEnds(final Object request, final int cloud, final int vms, final double cores,
+			final int queueLength) {
+		final VMRequestEvent ev = (VMRequestEvent) request;
+		ev.end();
+		if (ev.shouldCommit()) {
+			ev.cloud = cloud;
+			ev.vms = vms;
+			ev.cores = cores;
+			ev.queueLength = queueLength;
+			ev.commit();
+		}
+	}
+
+	@Override
+	protected void jobCompleted(final String jobId, final int vms, final long simTime) {
+		final JobCompletionEvent ev = new JobCompletionEvent();
+		if (ev.isEnabled()) {
+			ev.jobId = jobId;
+			ev.vms = vms;
+			ev.simTime = simTime;
+			ev.commit();
+		}
+	}
+}
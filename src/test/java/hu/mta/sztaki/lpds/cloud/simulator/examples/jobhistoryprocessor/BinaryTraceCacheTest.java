@@ -0,0 +1,201 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.TraceManagementException;
+
+/**
+ * Checks that the jobs written to a binary trace cache are read back
+ * unchanged by the mapped producer.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class BinaryTraceCacheTest {
+	/**
+	 * Offers a fixed list of jobs as if they were parsed from a file
+	 */
+	private static class ListProducer implements GenericTraceProducer {
+		private final List<Job> jobs;
+		private int next = 0;
+
+		ListProducer(final Job... jobs) {
+			this.jobs = Arrays.asList(jobs);
+		}
+
+		@Override
+		public List<Job> getAllJobs() {
+			return getJobs(jobs.size() - next);
+		}
+
+		@Override
+		public List<Job> getJobs(final int num) {
+			final int to = Math.min(jobs.size(), next + num);
+			final List<Job> chunk = new ArrayList<Job>(jobs.subList(next, to));
+			next = to;
+			return chunk;
+		}
+	}
+
+	/**
+	 * Signals the end of its trace with null instead of an empty chunk
+	 */
+	private static class NullTerminatedProducer extends ListProducer {
+		private boolean exhausted = false;
+
+		NullTerminatedProducer(final Job... jobs) {
+			super(jobs);
+		}
+
+		@Override
+		public List<Job> getJobs(final int num) {
+			final List<Job> chunk = super.getJobs(num);
+			if (chunk.isEmpty()) {
+				// asking again after the end is a bug of the consumer
+				assertFalse(exhausted);
+				exhausted = true;
+				return null;
+			}
+			return chunk;
+		}
+	}
+
+	private File cache;
+
+	@Before
+	public void createCacheFile() throws IOException {
+		cache = File.createTempFile("binarytracecache", ".dcfbin");
+	}
+
+	@After
+	public void removeCacheFile() {
+		cache.delete();
+	}
+
+	private List<Job> readBack(final long from, final long to) throws Exception {
+		final MappedTraceProducer producer = new MappedTraceProducer(cache, from, to, DCFJob.class);
+		try {
+			return producer.getAllJobs();
+		} finally {
+			producer.close();
+		}
+	}
+
+	private static void assertSameJob(final Job expected, final Job actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getSubmittimeSecs(), actual.getSubmittimeSecs());
+		assertEquals(expected.getQueuetimeSecs(), actual.getQueuetimeSecs());
+		assertEquals(expected.getExectimeSecs(), actual.getExectimeSecs());
+		assertEquals(expected.nprocs, actual.nprocs);
+		assertEquals(expected.perProcCPUTime, actual.perProcCPUTime, 0);
+		assertEquals(expected.usedMemory, actual.usedMemory);
+		assertEquals(expected.user, actual.user);
+		assertEquals(expected.group, actual.group);
+		assertEquals(expected.executable, actual.executable);
+		assertEquals(((DCFJob) expected).getDelayAfterPredecessor(), ((DCFJob) actual).getDelayAfterPredecessor());
+	}
+
+	@Test(timeout = 1000)
+	public void roundTripKeepsTheJobs() throws Exception {
+		final DCFJob first = new DCFJob("first", 10, 1, 100, 4, 80.5, 512, "alice", "g1", "sim", null, 0);
+		final DCFJob second = new DCFJob("second", 20, 0, 50, 1, 49, 1024, "bob", "g1", "ana", null, 0);
+		final DCFJob third = new DCFJob("third", 30, 2, 10, 2, 9.25, 256, "alice", "g2", "sim", first, 30);
+		final DCFJob fourth = new DCFJob("fourth", 40, 0, 5, 8, 5, 128, "carol", "g2", "post", first, 60);
+		final Job[] jobs = { first, second, third, fourth };
+		assertEquals(jobs.length, BinaryTraceCache.writeCache(new ListProducer(jobs), cache));
+
+		final List<Job> read = readBack(0, Long.MAX_VALUE);
+		assertEquals(jobs.length, read.size());
+		for (int i = 0; i < jobs.length; i++) {
+			assertSameJob(jobs[i], read.get(i));
+		}
+		assertNull(((DCFJob) read.get(0)).getPredecessor());
+		assertNull(((DCFJob) read.get(1)).getPredecessor());
+		assertSame(read.get(0), ((DCFJob) read.get(2)).getPredecessor());
+		assertSame(read.get(0), ((DCFJob) read.get(3)).getPredecessor());
+	}
+
+	@Test(timeout = 1000)
+	public void rangesAreReadFromTheCompleteCache() throws Exception {
+		final DCFJob first = new DCFJob("first", 10, 0, 100, 1, 100, 0, "u", "g", "e", null, 0);
+		final DCFJob second = new DCFJob("second", 20, 0, 100, 1, 100, 0, "u", "g", "e", first, 5);
+		final DCFJob third = new DCFJob("third", 30, 0, 100, 1, 100, 0, "u", "g", "e", null, 0);
+		BinaryTraceCache.writeCache(new ListProducer(first, second, third), cache);
+
+		final List<Job> read = readBack(1, 2);
+		assertEquals(1, read.size());
+		assertSameJob(second, read.get(0));
+		// the predecessor is out of the range
+		assertNull(((DCFJob) read.get(0)).getPredecessor());
+	}
+
+	@Test(timeout = 1000)
+	public void laterPredecessorsAreNotRecorded() throws Exception {
+		final DCFJob predecessor = new DCFJob("pre", 10, 0, 100, 1, 100, 0, "u", "g", "e", null, 0);
+		final DCFJob dependant = new DCFJob("dep", 5, 0, 100, 1, 100, 0, "u", "g", "e", predecessor, 5);
+		// the dependant is listed first, so its predecessor has no record
+		// index yet when the dependant is converted
+		BinaryTraceCache.writeCache(new ListProducer(dependant, predecessor), cache);
+
+		final List<Job> read = readBack(0, Long.MAX_VALUE);
+		assertEquals(2, read.size());
+		assertNull(((DCFJob) read.get(0)).getPredecessor());
+		assertSameJob(predecessor, read.get(1));
+	}
+
+	@Test(timeout = 1000)
+	public void nullChunksEndTheConversion() throws Exception {
+		final DCFJob first = new DCFJob("first", 10, 0, 100, 1, 100, 0, "u", "g", "e", null, 0);
+		final DCFJob second = new DCFJob("second", 20, 0, 100, 1, 100, 0, "u", "g", "e", null, 0);
+		assertEquals(2, BinaryTraceCache.writeCache(new NullTerminatedProducer(first, second), cache));
+
+		final List<Job> read = readBack(0, Long.MAX_VALUE);
+		assertEquals(2, read.size());
+		assertSameJob(first, read.get(0));
+		assertSameJob(second, read.get(1));
+	}
+
+	@Test(timeout = 1000, expected = TraceManagementException.class)
+	public void tooLongIdsAreRejected() throws Exception {
+		final char[] id = new char[BinaryTraceCache.MAX_ID_LENGTH + 1];
+		Arrays.fill(id, 'x');
+		BinaryTraceCache.writeCache(
+				new ListProducer(new DCFJob(new String(id), 10, 0, 100, 1, 100, 0, "u", "g", "e", null, 0)), cache);
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the step function of the expected core releases used by the
+ * backfilling dispatcher.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class CapacityProfileTest {
+	private static void add(final CapacityProfile profile, final int cloud, final double cores, final long time) {
+		profile.add(new int[] { cloud }, new double[] { cores }, time);
+	}
+
+	private static void remove(final CapacityProfile profile, final int cloud, final double cores,
+			final long time) {
+		profile.remove(new int[] { cloud }, new double[] { cores }, time);
+	}
+
+	@Test(timeout = 100)
+	public void freeCoresAreAvailableAtOnce() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		assertEquals(10, profile.earliestStart(0, 4, 4, 10));
+		assertEquals(Long.MAX_VALUE, profile.earliestStart(0, 5, 4, 10));
+	}
+
+	@Test(timeout = 100)
+	public void releasesAreOrderedByTime() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		add(profile, 0, 4, 100);
+		add(profile, 0, 2, 50);
+		add(profile, 0, 1, 75);
+		assertEquals(50, profile.earliestStart(0, 2, 0, 0));
+		assertEquals(75, profile.earliestStart(0, 3, 0, 0));
+		assertEquals(100, profile.earliestStart(0, 4, 0, 0));
+		assertEquals(100, profile.earliestStart(0, 7, 0, 0));
+		assertEquals(Long.MAX_VALUE, profile.earliestStart(0, 8, 0, 0));
+		assertEquals(75, profile.earliestStart(0, 4, 1, 0));
+		assertEquals(100, profile.earliestStart(0, 8, 1, 0));
+	}
+
+	@Test(timeout = 100)
+	public void overdueReleasesHappenNow() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		add(profile, 0, 2, 50);
+		assertEquals(80, profile.earliestStart(0, 2, 0, 80));
+	}
+
+	@Test(timeout = 100)
+	public void overcommittedCloudsNeedMoreReleases() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		add(profile, 0, 2, 50);
+		add(profile, 0, 2, 60);
+		assertEquals(60, profile.earliestStart(0, 1, -3, 0));
+	}
+
+	@Test(timeout = 100)
+	public void jobsCompletingTogetherShareAStep() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		add(profile, 0, 2, 100);
+		add(profile, 0, 3, 100);
+		assertEquals(100, profile.earliestStart(0, 5, 0, 0));
+		remove(profile, 0, 2, 100);
+		assertEquals(100, profile.earliestStart(0, 3, 0, 0));
+		assertEquals(Long.MAX_VALUE, profile.earliestStart(0, 4, 0, 0));
+		remove(profile, 0, 3, 100);
+		assertEquals(Long.MAX_VALUE, profile.earliestStart(0, 1, 0, 0));
+	}
+
+	@Test(timeout = 100)
+	public void unknownRemovalsAreIgnored() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		add(profile, 0, 2, 100);
+		remove(profile, 0, 2, 90);
+		assertEquals(100, profile.earliestStart(0, 2, 0, 0));
+		assertEquals(2, profile.freeAt(0, 0, 100), 0);
+	}
+
+	@Test(timeout = 100)
+	public void freeAtIncludesTheReleasesUntilTheGivenTime() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		add(profile, 0, 2, 50);
+		add(profile, 0, 3, 100);
+		assertEquals(1, profile.freeAt(0, 1, 49), 0);
+		assertEquals(3, profile.freeAt(0, 1, 50), 0);
+		assertEquals(3, profile.freeAt(0, 1, 99), 0);
+		assertEquals(6, profile.freeAt(0, 1, 100), 0);
+	}
+
+	@Test(timeout = 100)
+	public void cloudsAreIndependent() {
+		final CapacityProfile profile = new CapacityProfile(2);
+		profile.add(new int[] { 0, 1, 1 }, new double[] { 1, 2, 2 }, 100);
+		assertEquals(1, profile.freeAt(0, 0, 100), 0);
+		assertEquals(4, profile.freeAt(1, 0, 100), 0);
+		profile.remove(new int[] { 0, 1, 1 }, new double[] { 1, 2, 2 }, 100);
+		assertEquals(0, profile.freeAt(0, 0, 100), 0);
+		assertEquals(0, profile.freeAt(1, 0, 100), 0);
+	}
+
+	@Test(timeout = 100)
+	public void manyStepsAreKept() {
+		final CapacityProfile profile = new CapacityProfile(1);
+		// registering in reverse order, so every step shifts the others
+		for (int i = 100; i > 0; i--) {
+			add(profile, 0, 1, i * 10);
+		}
+		for (int i = 1; i <= 100; i++) {
+			assertEquals(i * 10, profile.earliestStart(0, i, 0, 0));
+		}
+		for (int i = 2; i <= 100; i += 2) {
+			remove(profile, 0, 1, i * 10);
+		}
+		assertEquals(50, profile.freeAt(0, 0, 1000), 0);
+		assertEquals(990, profile.earliestStart(0, 50, 0, 0));
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+
+/**
+ * Checks that the job results survive the hand over of the chunks between the
+ * simulation thread and the writer thread.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class JobResultSinkTest {
+	private File results;
+
+	@Before
+	public void createResultFile() throws IOException {
+		results = File.createTempFile("jobresults", ".csv");
+	}
+
+	@After
+	public void removeResultFile() {
+		results.delete();
+	}
+
+	private List<String> readLines() throws IOException {
+		final BufferedReader in = new BufferedReader(
+				new InputStreamReader(new FileInputStream(results), Charset.forName("UTF-8")));
+		try {
+			final List<String> lines = new ArrayList<String>();
+			String line;
+			while ((line = in.readLine()) != null) {
+				lines.add(line);
+			}
+			return lines;
+		} finally {
+			in.close();
+		}
+	}
+
+	private static Job job(final String id, final long submit, final int nprocs) {
+		return new DCFJob(id, submit, 0, 100, nprocs, 100, 0, "u", "g", "e", null, 0);
+	}
+
+	@Test(timeout = 100, expected = IllegalArgumentException.class)
+	public void atLeastASingleChunkIsNeeded() throws IOException {
+		new JobResultSink(results, 0);
+	}
+
+	@Test(timeout = 1000)
+	public void emptyResults() throws IOException {
+		final JobResultSink sink = new JobResultSink(results, 1);
+		sink.close();
+		final List<String> lines = readLines();
+		assertEquals(1, lines.size());
+		assertEquals(JobResultSink.HEADER, lines.get(0));
+	}
+
+	@Test(timeout = 1000)
+	public void recordFormats() throws IOException {
+		final JobResultSink sink = new JobResultSink(results, 1);
+		sink.completed(job("a", 10, 4), 15000, 120000, 3, new int[] { 0, 0, 2 }, 250, 1.5);
+		sink.ignored(job("b", 20, 2));
+		sink.failed(job("c,\"d\"", 30, 1));
+		assertEquals(3, sink.getRecords());
+		sink.close();
+		final List<String> lines = readLines();
+		assertEquals(4, lines.size());
+		assertEquals("a,completed,10,5,110,4,3,0|2,250,1.5", lines.get(1));
+		assertEquals("b,ignored,20,,,2,,,,", lines.get(2));
+		assertEquals("\"c,\"\"d\"\"\",failed,30,,,1,,,,", lines.get(3));
+	}
+
+	@Test(timeout = 10000)
+	public void manyChunksAreWrittenInOrder() throws IOException {
+		// a single queued chunk, so the simulation thread regularly waits for
+		// the writer to return a chunk
+		final JobResultSink sink = new JobResultSink(results, 1);
+		final int count = 200000;
+		for (int i = 0; i < count; i++) {
+			if (i % 2 == 0) {
+				sink.ignored(job("job" + i, i, 1));
+			} else {
+				sink.completed(job("job" + i, i, 1), i * 1000l, i * 1000l + 1000, 1, new int[] { i % 7 }, 0, 0);
+			}
+		}
+		assertEquals(count, sink.getRecords());
+		sink.close();
+		final List<String> lines = readLines();
+		assertEquals(count + 1, lines.size());
+		assertEquals(JobResultSink.HEADER, lines.get(0));
+		for (int i = 0; i < count; i++) {
+			final String expected = i % 2 == 0 ? "job" + i + ",ignored," + i + ",,,1,,,,"
+					: "job" + i + ",completed," + i + ",0,1,1,1," + (i % 7) + ",0,0.0";
+			assertEquals(expected, lines.get(i + 1));
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hu.mta.sztaki.lpds.cloud.simulator.DeferredEvent;
+import hu.mta.sztaki.lpds.cloud.simulator.Timed;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.job.Job;
+import hu.mta.sztaki.lpds.cloud.simulator.helpers.trace.GenericTraceProducer;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.IaaSService;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.PhysicalMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VMManager;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.VirtualMachine;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.pmscheduling.AlwaysOnMachines;
+import hu.mta.sztaki.lpds.cloud.simulator.iaas.vmscheduling.FirstFitScheduler;
+
+/**
+ * Runs small traces on clouds of single 8 core PMs and checks how the job
+ * runner registry manages the slots and the VMs of the jobs.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class JobRunnerRegistryTest {
+	/**
+	 * Offers a fixed list of jobs as if they were parsed from a file
+	 */
+	private static class ListProducer implements GenericTraceProducer {
+		private final List<Job> jobs;
+
+		ListProducer(final List<Job> jobs) {
+			this.jobs = jobs;
+		}
+
+		@Override
+		public List<Job> getAllJobs() {
+			return new ArrayList<Job>(jobs);
+		}
+
+		@Override
+		public List<Job> getJobs(final int num) {
+			return new ArrayList<Job>(jobs.subList(0, Math.min(num, jobs.size())));
+		}
+	}
+
+	private List<IaaSService> clouds;
+
+	@Before
+	public void resetSimulator() {
+		Timed.resetTimed();
+	}
+
+	private void buildClouds(final int count) throws Exception {
+		clouds = new DatacenterBuilder(1, 8, count, FirstFitScheduler.class, AlwaysOnMachines.class).build();
+		// Wait until the PMs are switched on
+		Timed.simulateUntilLastEvent();
+	}
+
+	private static DCFJob job(final String id, final long submit, final long exec, final int nprocs) {
+		return new DCFJob(id, submit, 0, exec, nprocs, exec, 0, "u", "g", "e", null, 0);
+	}
+
+	private MultiIaaSJobDispatcher dispatcher(final List<Job> jobs) throws Exception {
+		return new MultiIaaSJobDispatcher(new ListProducer(jobs), clouds);
+	}
+
+	private void assertNoVMsLeft() {
+		for (IaaSService cloud : clouds) {
+			assertEquals(0, cloud.sched.getQueueLength());
+			assertTrue(cloud.listVMs().isEmpty());
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void slotsAreReusedByLaterJobs() throws Exception {
+		buildClouds(2);
+		final List<Job> jobs = new ArrayList<Job>();
+		// more concurrent jobs than the initial 64 slots, then a second wave
+		// after the first one is complete
+		for (int i = 0; i < 100; i++) {
+			jobs.add(job("first" + i, 1000, 10, 1));
+		}
+		for (int i = 0; i < 100; i++) {
+			jobs.add(job("second" + i, 100000, 10, 1));
+		}
+		final MultiIaaSJobDispatcher dispatcher = dispatcher(jobs);
+		Timed.skipEventsTill(dispatcher.getMinsubmittime() * 1000);
+		Timed.simulateUntilLastEvent();
+		assertEquals(200, dispatcher.getJobsFinished());
+		assertEquals(0, dispatcher.getVMsInFlight());
+		final JobRunnerRegistry runners = dispatcher.getRunners();
+		assertEquals(0, runners.getActiveJobs());
+		assertEquals(100, runners.getUsedSlots());
+		assertNoVMsLeft();
+	}
+
+	@Test(timeout = 10000)
+	public void vmLostBeforeTheJobStartsAbandonsTheAttempt() throws Exception {
+		buildClouds(2);
+		final List<Job> jobs = new ArrayList<Job>();
+		// occupies the PM of the first cloud for a long time
+		jobs.add(job("blocker", 1000, 10000, 7));
+		// its VMs are split between the clouds (in the round robin order),
+		// thus one of them is running while the other one is queued behind
+		// the blocker
+		jobs.add(job("parallel", 1001, 100, 16));
+		final MultiIaaSJobDispatcher dispatcher = dispatcher(jobs);
+		Timed.skipEventsTill(dispatcher.getMinsubmittime() * 1000);
+		final PhysicalMachine second = clouds.get(1).machines.iterator().next();
+		new DeferredEvent(2000000 - Timed.getFireCount()) {
+			@Override
+			protected void eventAction() {
+				assertEquals(1, second.publicVms.size());
+				assertEquals(1, clouds.get(0).sched.getQueueLength());
+				try {
+					second.publicVms.iterator().next().destroy(true);
+				} catch (VMManager.VMManagementException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		Timed.simulateUntilLastEvent();
+		assertEquals(1, dispatcher.getFailedAttempts());
+		assertEquals(1, dispatcher.getAbandonedJobs());
+		assertEquals(1, dispatcher.getJobsStarted());
+		assertEquals(1, dispatcher.getJobsFinished());
+		assertEquals(0, dispatcher.getVMsInFlight());
+		// the lost VM was held by the job since it got ready
+		assertTrue(dispatcher.getWastedCoreSeconds() > 0);
+		// no multi VM job has started
+		assertEquals(0, dispatcher.getMultiVMJobs());
+		assertEquals(0, dispatcher.getRunners().getActiveJobs());
+		// the queued VM of the abandoned job was withdrawn as well
+		assertNoVMsLeft();
+	}
+
+	@Test(timeout = 10000)
+	public void pooledVMsAreHandedOverToTheNextJob() throws Exception {
+		buildClouds(1);
+		final List<Job> jobs = new ArrayList<Job>();
+		jobs.add(job("first", 1000, 100, 8));
+		// arrives after the first job has completed
+		jobs.add(job("second", 2000, 100, 8));
+		final MultiIaaSJobDispatcher dispatcher = dispatcher(jobs);
+		// the idle VM is kept for an hour
+		dispatcher.setVMPooling(3600000);
+		Timed.skipEventsTill(dispatcher.getMinsubmittime() * 1000);
+		final List<VirtualMachine.State> handedOver = new ArrayList<VirtualMachine.State>();
+		new DeferredEvent(1500000 - Timed.getFireCount()) {
+			@Override
+			protected void eventAction() {
+				// the VM of the first job waits for the second one
+				final VMPool pool = dispatcher.getVMPool();
+				assertEquals(1, pool.getIdleVMs());
+				handedOver.add(clouds.get(0).listVMs().iterator().next().getState());
+			}
+		};
+		Timed.simulateUntilLastEvent();
+		assertEquals(VirtualMachine.State.RUNNING, handedOver.get(0));
+		final VMPool pool = dispatcher.getVMPool();
+		assertEquals(1, pool.getHits());
+		assertEquals(1, pool.getExpired());
+		assertEquals(0, pool.getIdleVMs());
+		assertEquals(2, dispatcher.getJobsFinished());
+		assertEquals(0, dispatcher.getFailedAttempts());
+		final JobRunnerRegistry runners = dispatcher.getRunners();
+		assertEquals(0, runners.getActiveJobs());
+		assertEquals(1, runners.getUsedSlots());
+		assertNoVMsLeft();
+	}
+}
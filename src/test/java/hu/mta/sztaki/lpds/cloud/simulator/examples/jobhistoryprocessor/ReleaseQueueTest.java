@@ -0,0 +1,108 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the order in which the primitive heap of the ready jobs releases
+ * them.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class ReleaseQueueTest {
+	@Test(timeout = 100)
+	public void emptyQueue() {
+		final ReleaseQueue queue = new ReleaseQueue();
+		assertTrue(queue.isEmpty());
+		assertEquals(0, queue.size());
+	}
+
+	@Test(timeout = 100)
+	public void jobsAreReleasedInTimeOrder() {
+		final ReleaseQueue queue = new ReleaseQueue();
+		queue.add(30, 3);
+		queue.add(10, 1);
+		queue.add(20, 2);
+		assertEquals(3, queue.size());
+		assertEquals(10, queue.peekTime());
+		assertEquals(1, queue.poll());
+		assertEquals(20, queue.peekTime());
+		assertEquals(2, queue.poll());
+		assertEquals(30, queue.peekTime());
+		assertEquals(3, queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test(timeout = 1000)
+	public void randomOperationsKeepTheHeapOrder() {
+		final Random rnd = new Random(1);
+		final ReleaseQueue queue = new ReleaseQueue();
+		final PriorityQueue<Long> reference = new PriorityQueue<Long>();
+		final long[] times = new long[10000];
+		final boolean[] released = new boolean[times.length];
+		int added = 0;
+		long lastReleased = -1;
+		while (added < times.length || !queue.isEmpty()) {
+			if (added < times.length && (queue.isEmpty() || rnd.nextInt(3) > 0)) {
+				// the dispatcher never releases jobs to the past
+				times[added] = lastReleased + 1 + rnd.nextInt(1000);
+				queue.add(times[added], added);
+				reference.add(times[added]);
+				added++;
+			} else {
+				final long time = queue.peekTime();
+				final int job = queue.poll();
+				assertEquals(reference.poll().longValue(), time);
+				assertEquals(times[job], time);
+				assertTrue(time >= lastReleased);
+				assertTrue(!released[job]);
+				released[job] = true;
+				lastReleased = time;
+			}
+		}
+		assertEquals(0, queue.size());
+	}
+
+	@Test(timeout = 100)
+	public void equalTimesAreAllReleased() {
+		final ReleaseQueue queue = new ReleaseQueue();
+		for (int i = 0; i < 40; i++) {
+			queue.add(5, i);
+		}
+		final boolean[] seen = new boolean[40];
+		while (!queue.isEmpty()) {
+			assertEquals(5, queue.peekTime());
+			seen[queue.poll()] = true;
+		}
+		for (int i = 0; i < seen.length; i++) {
+			assertTrue(seen[i]);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks the open addressing table the job runners use to find the jobs of
+ * their VMs, especially the backward shift deletion.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class SlotTableTest {
+	/**
+	 * A table where the hash of every key is chosen by the test, so the
+	 * probe sequences can be arranged
+	 */
+	private static class FixedHashTable extends SlotTable<Object> {
+		final IdentityHashMap<Object, Integer> hashes = new IdentityHashMap<Object, Integer>();
+
+		FixedHashTable(final int capacity) {
+			super(capacity);
+		}
+
+		Object key(final int hash) {
+			final Object key = new Object();
+			hashes.put(key, hash);
+			return key;
+		}
+
+		@Override
+		int hash(final Object key) {
+			return hashes.get(key);
+		}
+	}
+
+	@Test(timeout = 100)
+	public void missingKeys() {
+		final SlotTable<Object> table = new SlotTable<Object>(8);
+		assertEquals(-1, table.get(new Object()));
+		assertEquals(-1, table.remove(new Object()));
+		final Object key = new Object();
+		table.put(key, 3);
+		assertEquals(-1, table.get(new Object()));
+		assertEquals(-1, table.remove(new Object()));
+		assertEquals(3, table.get(key));
+		// looking up a key leaves it in the table
+		assertEquals(1, table.size());
+		assertEquals(3, table.remove(key));
+		assertEquals(-1, table.get(key));
+		assertEquals(-1, table.remove(key));
+		assertEquals(0, table.size());
+	}
+
+	@Test(timeout = 100)
+	public void collidingKeysStayReachableAfterRemovals() {
+		final FixedHashTable table = new FixedHashTable(16);
+		final Object[] keys = new Object[5];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = table.key(3);
+			table.put(keys[i], i);
+		}
+		// removing from the middle of the cluster shifts the rest back
+		assertEquals(2, table.remove(keys[2]));
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(i == 2 ? -1 : i, table.get(keys[i]));
+		}
+		assertEquals(4, table.remove(keys[4]));
+		assertEquals(0, table.remove(keys[0]));
+		assertEquals(3, table.remove(keys[3]));
+		assertEquals(1, table.remove(keys[1]));
+		assertEquals(0, table.size());
+	}
+
+	@Test(timeout = 100)
+	public void keysAtTheirHomeAreNotShifted() {
+		final FixedHashTable table = new FixedHashTable(16);
+		final Object a = table.key(3);
+		final Object b = table.key(3);
+		final Object c = table.key(5);
+		final Object d = table.key(5);
+		table.put(a, 0);
+		table.put(b, 1);
+		// c is at its home (5), d probes to 6
+		table.put(c, 2);
+		table.put(d, 3);
+		assertEquals(0, table.remove(a));
+		// b moves back to 3, while c must stay at its home
+		assertEquals(2, table.remove(c));
+		assertEquals(3, table.remove(d));
+		assertEquals(1, table.remove(b));
+	}
+
+	@Test(timeout = 100)
+	public void clustersWrapAroundTheEndOfTheTable() {
+		final FixedHashTable table = new FixedHashTable(16);
+		final Object[] keys = new Object[6];
+		for (int i = 0; i < keys.length; i++) {
+			// homes 14 and 15, probing into 0..3
+			keys[i] = table.key(14 + i % 2);
+			table.put(keys[i], i);
+		}
+		final Object atZero = table.key(0);
+		table.put(atZero, 6);
+		assertEquals(0, table.remove(keys[0]));
+		assertEquals(6, table.get(atZero));
+		assertEquals(6, table.remove(atZero));
+		for (int i = keys.length - 1; i > 0; i--) {
+			assertEquals(i, table.remove(keys[i]));
+		}
+		assertEquals(0, table.size());
+	}
+
+	@Test(timeout = 1000)
+	public void randomOperationsMatchAReferenceMap() {
+		final Random rnd = new Random(1);
+		// a small initial capacity, so the table is grown several times
+		final SlotTable<Object> table = new SlotTable<Object>(4);
+		final Map<Object, Integer> reference = new IdentityHashMap<Object, Integer>();
+		final ArrayList<Object> present = new ArrayList<Object>();
+		for (int i = 0; i < 20000; i++) {
+			if (present.isEmpty() || rnd.nextInt(5) < 3) {
+				final Object key = new Object();
+				table.put(key, i);
+				reference.put(key, i);
+				present.add(key);
+			} else {
+				final int pos = rnd.nextInt(present.size());
+				final Object key = present.get(pos);
+				present.set(pos, present.get(present.size() - 1));
+				present.remove(present.size() - 1);
+				assertEquals(reference.get(key).intValue(), table.get(key));
+				assertEquals(reference.remove(key).intValue(), table.remove(key));
+				assertEquals(-1, table.remove(key));
+			}
+			assertEquals(reference.size(), table.size());
+		}
+		for (Map.Entry<Object, Integer> entry : reference.entrySet()) {
+			assertEquals(entry.getValue().intValue(), table.remove(entry.getKey()));
+		}
+		assertEquals(0, table.size());
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the lookups of the time index against a brute force search over
+ * synthetic binary trace caches.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class TraceTimeIndexTest {
+	private File cache;
+
+	@Before
+	public void createCacheFile() throws IOException {
+		cache = File.createTempFile("tracetimeindex", ".dcfbin");
+	}
+
+	@After
+	public void removeFiles() {
+		new File(cache.getPath() + ".tidx").delete();
+		cache.delete();
+	}
+
+	/**
+	 * Writes a cache with the given times, only the fields read by the index
+	 * are filled in
+	 */
+	private void writeCache(final long[] submit, final long[] queue, final long[] exec) throws IOException {
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cache)));
+		try {
+			out.writeInt(BinaryTraceCache.MAGIC);
+			out.writeInt(BinaryTraceCache.VERSION);
+			out.writeLong(submit.length);
+			out.writeLong(BinaryTraceCache.HEADER_SIZE + (long) submit.length * BinaryTraceCache.RECORD_SIZE);
+			for (int i = 0; i < submit.length; i++) {
+				out.writeLong(submit[i]);
+				out.writeLong(queue[i]);
+				out.writeLong(exec[i]);
+				out.write(new byte[BinaryTraceCache.RECORD_SIZE - 24]);
+			}
+			out.writeInt(0);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static long[] bruteForceRunning(final long[] submit, final long[] queue, final long[] exec,
+			final long time) {
+		final long[] found = new long[submit.length];
+		int count = 0;
+		for (int i = 0; i < submit.length; i++) {
+			final long start = submit[i] + queue[i];
+			if (start <= time && time <= start + exec[i]) {
+				found[count++] = i;
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	@Test(timeout = 1000)
+	public void emptyTrace() throws Exception {
+		writeCache(new long[0], new long[0], new long[0]);
+		final TraceTimeIndex index = TraceTimeIndex.forCache(cache);
+		try {
+			assertEquals(0, index.getJobCount());
+			assertEquals(0, index.runningAt(100).length);
+			assertEquals(0, index.firstSubmittedFrom(100));
+		} finally {
+			index.close();
+		}
+	}
+
+	@Test(timeout = 1000)
+	public void intervalBoundsAreInclusive() throws Exception {
+		writeCache(new long[] { 10, 20, 30 }, new long[] { 5, 0, 0 }, new long[] { 10, 0, 100 });
+		final TraceTimeIndex index = TraceTimeIndex.forCache(cache);
+		try {
+			assertArrayEquals(new long[0], index.runningAt(14));
+			assertArrayEquals(new long[] { 0 }, index.runningAt(15));
+			assertArrayEquals(new long[] { 0, 1 }, index.runningAt(20));
+			assertArrayEquals(new long[] { 0 }, index.runningAt(25));
+			assertArrayEquals(new long[0], index.runningAt(26));
+			assertArrayEquals(new long[] { 2 }, index.runningAt(30));
+			assertArrayEquals(new long[] { 2 }, index.runningAt(130));
+			assertArrayEquals(new long[0], index.runningAt(131));
+		} finally {
+			index.close();
+		}
+	}
+
+	@Test(timeout = 5000)
+	public void runningJobsMatchABruteForceSearch() throws Exception {
+		final Random rnd = new Random(1);
+		// an odd size, so the implicit tree is not complete
+		final int n = 5003;
+		final long[] submit = new long[n];
+		final long[] queue = new long[n];
+		final long[] exec = new long[n];
+		for (int i = 0; i < n; i++) {
+			// not in submission order, the index sorts the intervals itself
+			submit[i] = rnd.nextInt(100000);
+			queue[i] = rnd.nextInt(100);
+			// mostly short jobs with a few very long ones
+			exec[i] = rnd.nextInt(10) == 0 ? rnd.nextInt(50000) : rnd.nextInt(500);
+		}
+		writeCache(submit, queue, exec);
+		final TraceTimeIndex index = TraceTimeIndex.forCache(cache);
+		try {
+			assertEquals(n, index.getJobCount());
+			for (int q = 0; q < 500; q++) {
+				final long time = rnd.nextInt(160000) - 1000;
+				assertArrayEquals(bruteForceRunning(submit, queue, exec, time), index.runningAt(time));
+			}
+		} finally {
+			index.close();
+		}
+	}
+
+	@Test(timeout = 1000)
+	public void submitBucketsPointToTheFirstCandidate() throws Exception {
+		final long hour = TraceTimeIndex.DEFAULT_BUCKET_WIDTH;
+		// in submission order, with an empty hour in between
+		final long[] submit = { hour, hour + 10, 2 * hour + 5, 4 * hour, 4 * hour + 1 };
+		final long[] zeros = new long[submit.length];
+		writeCache(submit, zeros, zeros);
+		final TraceTimeIndex index = TraceTimeIndex.forCache(cache);
+		try {
+			assertEquals(0, index.firstSubmittedFrom(0));
+			assertEquals(0, index.firstSubmittedFrom(hour));
+			assertEquals(0, index.firstSubmittedFrom(hour + 5));
+			assertEquals(2, index.firstSubmittedFrom(2 * hour));
+			assertEquals(3, index.firstSubmittedFrom(3 * hour));
+			assertEquals(3, index.firstSubmittedFrom(4 * hour));
+			assertEquals(5, index.firstSubmittedFrom(5 * hour));
+		} finally {
+			index.close();
+		}
+	}
+}
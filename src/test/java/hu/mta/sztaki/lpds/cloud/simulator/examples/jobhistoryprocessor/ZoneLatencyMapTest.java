@@ -0,0 +1,124 @@
+/*
+ *  ========================================================================
+ *  DISSECT-CF Examples
+ *  ========================================================================
+ *
+ *  This file is part of DISSECT-CF Examples.
+ *
+ *  DISSECT-CF Examples is free software: you can redistribute it and/or
+ *  modify it under the terms of the GNU General Public License as published
+ *  by the Free Software Foundation, either version 3 of the License, or (at
+ *  your option) any later version.
+ *
+ *  DISSECT-CF Examples is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with DISSECT-CF Examples.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  (C) Copyright 2026, agent (agent@local)
+ */
+package hu.mta.sztaki.lpds.cloud.simulator.examples.jobhistoryprocessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks the evaluation order of the rules of the rule based latency map.
+ *
+ * @author "agent, (c) 2026"
+ */
+public class ZoneLatencyMapTest {
+	@Test(timeout = 100)
+	public void defaultLatency() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(7);
+		assertEquals(Integer.valueOf(7), map.get("anything"));
+		assertTrue(map.containsKey("anything"));
+	}
+
+	@Test(timeout = 100)
+	public void negativeDefaultMakesUnmatchedNodesUnreachable() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(-1).addZone("0VHNode", 3);
+		assertNull(map.get("1VHNode1"));
+		assertFalse(map.containsKey("1VHNode1"));
+		assertNull(map.get(Integer.valueOf(1)));
+	}
+
+	@Test(timeout = 100)
+	public void zonesMatchTheirPrefix() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(-1).addZone("0VHNode", 3).addZone("1VHNode", 4);
+		assertEquals(Integer.valueOf(3), map.get("0VHNode12"));
+		assertEquals(Integer.valueOf(4), map.get("1VHNode12"));
+		// the id of a node in cloud 10 does not start with the prefix of
+		// cloud 0
+		assertNull(map.get("10VHNode12"));
+	}
+
+	@Test(timeout = 100)
+	public void longestZonePrefixWins() {
+		final ZoneLatencyMap shortFirst = new ZoneLatencyMap(-1).addZone("dc", 10).addZone("dc-rack", 2)
+				.addZone("dc-r", 5);
+		final ZoneLatencyMap longFirst = new ZoneLatencyMap(-1).addZone("dc-rack", 2).addZone("dc-r", 5)
+				.addZone("dc", 10);
+		for (ZoneLatencyMap map : new ZoneLatencyMap[] { shortFirst, longFirst }) {
+			assertEquals(Integer.valueOf(2), map.get("dc-rack1"));
+			assertEquals(Integer.valueOf(5), map.get("dc-row1"));
+			assertEquals(Integer.valueOf(10), map.get("dc-x"));
+			assertNull(map.get("d"));
+		}
+	}
+
+	@Test(timeout = 100)
+	public void racksCoverTheirIndexRange() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(-1).addRack("node", 10, 19, 1).addZone("node", 5);
+		assertEquals(Integer.valueOf(5), map.get("node9"));
+		assertEquals(Integer.valueOf(1), map.get("node10"));
+		assertEquals(Integer.valueOf(1), map.get("node19"));
+		assertEquals(Integer.valueOf(5), map.get("node20"));
+		// leading zeros are part of the number
+		assertEquals(Integer.valueOf(1), map.get("node012"));
+	}
+
+	@Test(timeout = 100)
+	public void racksOnlyMatchNumericSuffixes() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(8).addRack("node", 0, 100, 1);
+		assertEquals(Integer.valueOf(8), map.get("node"));
+		assertEquals(Integer.valueOf(8), map.get("node1a"));
+		assertEquals(Integer.valueOf(8), map.get("nodeX1"));
+		// too long to be an index
+		assertEquals(Integer.valueOf(8), map.get("node0000000001"));
+		assertEquals(Integer.valueOf(1), map.get("node100"));
+	}
+
+	@Test(timeout = 100)
+	public void racksAreCheckedBeforeZones() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(-1).addZone("node1", 9).addRack("node", 10, 19, 1);
+		assertEquals(Integer.valueOf(1), map.get("node15"));
+		assertEquals(Integer.valueOf(9), map.get("node150"));
+	}
+
+	@Test(timeout = 100)
+	public void explicitEntriesOverrideTheRules() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(8).addRack("node", 0, 100, 1).addZone("node", 2);
+		map.put("node5", 6);
+		assertEquals(Integer.valueOf(6), map.get("node5"));
+		assertEquals(Integer.valueOf(1), map.get("node6"));
+		assertEquals(Integer.valueOf(6), map.remove("node5"));
+		assertEquals(Integer.valueOf(1), map.get("node5"));
+	}
+
+	@Test(timeout = 100)
+	public void onlyExplicitEntriesAreListed() {
+		final ZoneLatencyMap map = new ZoneLatencyMap(8).addZone("node", 2);
+		assertTrue(map.isEmpty());
+		map.put("repo", 5);
+		assertEquals(1, map.size());
+		assertEquals("repo", map.entrySet().iterator().next().getKey());
+	}
+}